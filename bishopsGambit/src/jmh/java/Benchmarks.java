@@ -0,0 +1,37 @@
+package jmh.java;
+
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Runs the benchmarks in the {@code src/jmh/java} directory with the GC profiler, so that the
+ * allocation rate ({@code gc.alloc.rate.norm}, in bytes per operation) is reported next to the
+ * throughput of each benchmark.
+ * <p>
+ * The project has no build tool, so the benchmarks are not compiled with the rest of it. With the
+ * {@code org.openjdk.jmh} jars ({@code jmh-core}, {@code jmh-generator-annprocess} and their
+ * dependencies) in {@code lib}, they are compiled (running the JMH annotation processor) and run
+ * from the project directory by:
+ * 
+ * <pre>
+ * javac -encoding UTF-8 -cp "lib/*" -d bin-jmh $(find src/main/java src/jmh/java -name "*.java")
+ * java -cp "bin-jmh:src:lib/*" jmh.java.Benchmarks
+ * </pre>
+ * 
+ * An optional argument selects the benchmarks to run by regular expression, e.g.
+ * {@code PlayerBenchmark}.
+ */
+public class Benchmarks
+{
+    public static void main( String[] args ) throws RunnerException
+    {
+        Options options = new OptionsBuilder().include( args.length > 0 ? args[ 0 ] : "jmh\\.java\\..*Benchmark" )
+                                              .addProfiler( GCProfiler.class )
+                                              .build();
+
+        new Runner( options ).run();
+    }
+}
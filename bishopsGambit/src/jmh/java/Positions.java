@@ -0,0 +1,46 @@
+package jmh.java;
+
+import main.java.board.Board;
+import main.java.board.Fen;
+import main.java.player.Player;
+
+/**
+ * The fixed corpus of positions the benchmarks are run over: a mix of open and closed
+ * middlegames, where move generation has the most work to do, and endgames with few pieces.
+ */
+public enum Positions
+{
+    INITIAL( Fen.START_POSITION ),
+
+    MIDDLEGAME_OPEN( "r3k2r/p1ppqpb1/bn2pnp1/3PN3/1p2P3/2N2Q1p/PPPBBPPP/R3K2R w KQkq - 0 1" ),
+    MIDDLEGAME_CLOSED( "r1bq1rk1/pp2bppp/2n1pn2/2pp4/3P4/2PBPN2/PP1N1PPP/R1BQ1RK1 w - - 0 8" ),
+    MIDDLEGAME_TACTICAL( "r4rk1/1pp1qppp/p1np1n2/2b1p1B1/2B1P1b1/P1NP1N2/1PP1QPPP/R4RK1 w - - 0 10" ),
+
+    ENDGAME_ROOK( "8/5pk1/6p1/R7/5P2/6PK/r7/8 w - - 0 40" ),
+    ENDGAME_PAWN( "8/2p5/3p4/KP5r/1R3p1k/8/4P1P1/8 w - - 0 1" ),
+    ENDGAME_MINOR( "8/8/4k3/8/8/3N4/5K2/8 b - - 0 70" );
+
+    private final String fen;
+
+    private Positions( String fen )
+    {
+        this.fen = fen;
+    }
+
+    public String getFen()
+    {
+        return this.fen;
+    }
+
+    /**
+     * Creates a new board holding this position.
+     * 
+     * @param white the player whose pieces are placed for White
+     * @param black the player whose pieces are placed for Black
+     * @return a new board holding this position
+     */
+    public Board newBoard( Player white, Player black )
+    {
+        return Fen.toBoard( getFen(), white, black );
+    }
+}
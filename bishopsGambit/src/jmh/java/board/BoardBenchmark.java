@@ -0,0 +1,65 @@
+package jmh.java.board;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import jmh.java.Positions;
+import main.java.board.Board;
+import main.java.board.Move;
+import main.java.board.MoveGenerator;
+import main.java.board.Square;
+import main.java.player.Player;
+import main.java.player.Player.Colour;
+
+@State( Scope.Thread )
+@BenchmarkMode( Mode.Throughput )
+@OutputTimeUnit( TimeUnit.SECONDS )
+@Warmup( iterations = 3, time = 1 )
+@Measurement( iterations = 5, time = 1 )
+@Fork( 1 )
+public class BoardBenchmark
+{
+    @Param
+    public Positions position;
+
+    private Board board;
+
+    private Square from;
+    private Square to;
+
+    @Setup
+    public void setUp()
+    {
+        board = position.newBoard( new Player( Colour.WHITE ), new Player( Colour.BLACK ) );
+
+        // Any legal move will do; the first one generated is always the same
+        int[] moves = new int[ MoveGenerator.MAX_MOVES ];
+        MoveGenerator.generateLegalMoves( board, moves );
+
+        from = board.get( Move.getFrom( moves[ 0 ] ) );
+        to = board.get( Move.getTo( moves[ 0 ] ) );
+    }
+
+    @Benchmark
+    public Board cloneAndMove()
+    {
+        return board.cloneAndMove( from, to );
+    }
+
+    @Benchmark
+    public boolean hasInsufficientMaterial()
+    {
+        return board.hasInsufficientMaterial();
+    }
+}
@@ -0,0 +1,56 @@
+package jmh.java.engine;
+
+import jmh.java.Positions;
+import main.java.board.Board;
+import main.java.engine.Limits;
+import main.java.engine.MoveOrdering.Heuristic;
+import main.java.engine.Search;
+import main.java.player.Player;
+import main.java.player.Player.Colour;
+
+/**
+ * Compares the heuristics of {@code MoveOrdering} by the number of nodes searched rather than by
+ * time, which makes the comparison exact and repeatable. Not a JMH benchmark, but run the same way
+ * with its own main class.
+ */
+public class MoveOrderingNodes
+{
+    /**
+     * Prints the number of nodes searched over the positions in {@code Positions} with every
+     * heuristic, with each heuristic switched off in turn and with none. An optional argument gives
+     * the depth (by default 4).
+     */
+    public static void main( String[] args )
+    {
+        int depth = args.length > 0 ? Integer.parseInt( args[ 0 ] ) : 4;
+
+        System.out.printf( "%-16s %12s%n", "Switched off", "Nodes" );
+        System.out.printf( "%-16s %12d%n", "(none)", countNodes( depth ) );
+
+        for ( Heuristic heuristic : Heuristic.values() )
+            System.out.printf( "%-16s %12d%n", heuristic, countNodes( depth, heuristic ) );
+
+        System.out.printf( "%-16s %12d%n", "(all)", countNodes( depth, Heuristic.values() ) );
+    }
+
+    private static long countNodes( int depth, Heuristic... off )
+    {
+        Limits limits = new Limits();
+        limits.setDepth( depth );
+
+        long nodes = 0;
+
+        for ( Positions position : Positions.values() )
+        {
+            Board board = position.newBoard( new Player( Colour.WHITE ), new Player( Colour.BLACK ) );
+            Search search = new Search( board, limits );
+
+            for ( Heuristic heuristic : off )
+                search.getMoveOrdering().setEnabled( heuristic, false );
+
+            nodes += search.run().getNodes();
+        }
+
+        return nodes;
+    }
+}
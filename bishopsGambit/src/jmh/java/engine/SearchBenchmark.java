@@ -0,0 +1,76 @@
+package jmh.java.engine;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import jmh.java.Positions;
+import main.java.board.Board;
+import main.java.engine.Engine;
+import main.java.engine.Limits;
+import main.java.engine.Search.Result;
+import main.java.player.Player;
+import main.java.player.Player.Colour;
+
+/**
+ * Measures the time taken to search to a fixed depth with different numbers of threads, starting
+ * from an empty transposition table each time. Run with e.g. {@code -p threads=1,2,4,8,16,32} to
+ * match the machine.
+ */
+@State( Scope.Thread )
+@BenchmarkMode( Mode.AverageTime )
+@OutputTimeUnit( TimeUnit.MILLISECONDS )
+@Warmup( iterations = 2, time = 5 )
+@Measurement( iterations = 5, time = 5 )
+@Fork( 1 )
+public class SearchBenchmark
+{
+    @Param( { "MIDDLEGAME_OPEN", "MIDDLEGAME_CLOSED", "ENDGAME_ROOK" } )
+    public Positions position;
+
+    @Param( { "1", "2", "4", "8" } )
+    public int threads;
+
+    @Param( { "5" } )
+    public int depth;
+
+    private final Engine engine = new Engine();
+    private final Limits limits = new Limits();
+
+    private Board board;
+
+    @Setup
+    public void setUp()
+    {
+        board = position.newBoard( new Player( Colour.WHITE ), new Player( Colour.BLACK ) );
+
+        engine.setThreads( threads );
+        limits.setDepth( depth );
+    }
+
+    @Setup( Level.Invocation )
+    public void clearTable()
+    {
+        engine.getTranspositionTable().clear();
+    }
+
+    /**
+     * Searches to {@code depth}; the score is the time to depth.
+     */
+    @Benchmark
+    public Result timeToDepth()
+    {
+        return engine.search( board, limits );
+    }
+}
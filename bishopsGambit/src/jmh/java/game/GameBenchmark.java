@@ -0,0 +1,70 @@
+package jmh.java.game;
+
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import main.java.game.Game;
+
+@State( Scope.Thread )
+@BenchmarkMode( Mode.Throughput )
+@OutputTimeUnit( TimeUnit.SECONDS )
+@Warmup( iterations = 3, time = 1 )
+@Measurement( iterations = 5, time = 1 )
+@Fork( 1 )
+public class GameBenchmark
+{
+    /**
+     * The main line of the Closed Ruy Lopez, which reaches a full middlegame.
+     */
+    private static final String[] MOVES = { "e2e4", "e7e5", "g1f3", "b8c6", "f1b5", "a7a6", "b5a4", "g8f6",
+                                            "e1g1", "f8e7", "f1e1", "b7b5", "a4b3", "d7d6", "c2c3", "e8g8",
+                                            "h2h3", "c6a5", "b3c2", "c7c5", "d2d4", "d8c7", "b1d2", "c5d4" };
+
+    private PrintStream out;
+
+    /**
+     * {@code Game} reports every move on standard output, which would otherwise dominate the
+     * measurement.
+     */
+    @Setup
+    public void setUp()
+    {
+        out = System.out;
+        System.setOut( new PrintStream( OutputStream.nullOutputStream() ) );
+    }
+
+    @TearDown
+    public void tearDown()
+    {
+        System.setOut( out );
+    }
+
+    /**
+     * Plays the moves in {@code MOVES} in a new game; the score is per move.
+     */
+    @Benchmark
+    @OperationsPerInvocation( 24 )
+    public Game makeMove()
+    {
+        Game game = new Game();
+
+        for ( String uci : MOVES )
+            game.makeMove( uci );
+
+        return game;
+    }
+}
@@ -0,0 +1,77 @@
+package jmh.java.player;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import jmh.java.Positions;
+import main.java.board.Board;
+import main.java.pieces.Piece;
+import main.java.player.Player;
+import main.java.player.Player.Colour;
+
+@State( Scope.Thread )
+@BenchmarkMode( Mode.Throughput )
+@OutputTimeUnit( TimeUnit.SECONDS )
+@Warmup( iterations = 3, time = 1 )
+@Measurement( iterations = 5, time = 1 )
+@Fork( 1 )
+public class PlayerBenchmark
+{
+    @Param
+    public Positions position;
+
+    private Board board;
+
+    /**
+     * The player to move, and their pieces that are on the board.
+     */
+    private Player player;
+    private List<Piece> pieces;
+
+    @Setup
+    public void setUp()
+    {
+        Player white = new Player( Colour.WHITE );
+        Player black = new Player( Colour.BLACK );
+
+        board = position.newBoard( white, black );
+        player = board.getActiveColour() == Colour.WHITE ? white : black;
+        pieces = board.getPieces( player.getColour() );
+    }
+
+    /**
+     * Calls {@code Piece.getMoves} for every piece of the player to move, as the GUI does when
+     * highlighting the squares a piece can move to.
+     */
+    @Benchmark
+    public void getMoves( Blackhole blackhole )
+    {
+        for ( Piece piece : pieces )
+            blackhole.consume( piece.getMoves( board ) );
+    }
+
+    @Benchmark
+    public int getNumberOfLegalMoves()
+    {
+        return player.getNumberOfLegalMoves( board );
+    }
+
+    @Benchmark
+    public boolean isCheckmated()
+    {
+        return player.isCheckmated( board );
+    }
+}
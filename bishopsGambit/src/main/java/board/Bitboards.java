@@ -0,0 +1,262 @@
+package main.java.board;
+
+import main.java.player.Player.Colour;
+
+/**
+ * Static helpers for working with bitboards. A bitboard is a {@code long} in which each bit
+ * represents one square of the chess board. Bits are numbered using {@code Square.getIndex()}, so
+ * bit 0 is a1, bit 1 is a2, ..., bit 7 is a8, bit 8 is b1, ..., and bit 63 is h8. In other words,
+ * moving one rank up the board adds 1 to the index and moving one file to the right adds 8.
+ */
+public class Bitboards
+{
+    public static final long EMPTY = 0L;
+
+    public static final long FILE_A = 0x00000000000000FFL;
+    public static final long FILE_H = 0xFF00000000000000L;
+
+    public static final long RANK_1 = 0x0101010101010101L;
+    public static final long RANK_8 = 0x8080808080808080L;
+
+    /**
+     * All squares with a parity of 0 (see {@code Square.getParity()}), i.e. the dark squares.
+     */
+    public static final long DARK_SQUARES = 0xAA55AA55AA55AA55L;
+
+    private static final long[] KNIGHT_ATTACKS = new long[ 64 ];
+    private static final long[] KING_ATTACKS = new long[ 64 ];
+    private static final long[][] PAWN_ATTACKS = new long[ 2 ][ 64 ];
+
+    /**
+     * For each pair of squares on a common rank, file or diagonal, the squares strictly between
+     * them; empty for all other pairs.
+     */
+    private static final long[][] BETWEEN = new long[ 64 ][ 64 ];
+
+    /**
+     * For each pair of squares on a common rank, file or diagonal, every square on that line
+     * (including both squares); empty for all other pairs.
+     */
+    private static final long[][] LINE = new long[ 64 ][ 64 ];
+
+    static
+    {
+        for ( int index = 0; index < 64; index++ )
+        {
+            for ( int x = -2; x <= 2; x++ )
+            {
+                for ( int y = -2; y <= 2; y++ )
+                {
+                    if ( Math.abs( x * y ) == 2 )
+                        KNIGHT_ATTACKS[ index ] |= travel( index, x, y );
+
+                    if ( Math.abs( x ) <= 1 && Math.abs( y ) <= 1 && (x != 0 || y != 0) )
+                        KING_ATTACKS[ index ] |= travel( index, x, y );
+                }
+            }
+
+            for ( int x : new int[] { -1, 1 } )
+            {
+                PAWN_ATTACKS[ Colour.WHITE.ordinal() ][ index ] |= travel( index, x, 1 );
+                PAWN_ATTACKS[ Colour.BLACK.ordinal() ][ index ] |= travel( index, x, -1 );
+            }
+
+            for ( int x = -1; x <= 1; x++ )
+            {
+                for ( int y = -1; y <= 1; y++ )
+                {
+                    if ( x == 0 && y == 0 )
+                        continue;
+
+                    long line = bit( index ) | slide( index, EMPTY, x, y ) | slide( index, EMPTY, -x, -y );
+                    long between = EMPTY;
+
+                    for ( int n = 1; n < 8; n++ )
+                    {
+                        long s = travel( index, n * x, n * y );
+
+                        if ( s == EMPTY )
+                            break;
+
+                        BETWEEN[ index ][ Long.numberOfTrailingZeros( s ) ] = between;
+                        LINE[ index ][ Long.numberOfTrailingZeros( s ) ] = line;
+                        between |= s;
+                    }
+                }
+            }
+        }
+    }
+
+    public static long bit( int index )
+    {
+        return 1L << index;
+    }
+
+    public static boolean contains( long bitboard, int index )
+    {
+        return (bitboard & bit( index )) != 0;
+    }
+
+    public static int getFile( int index )
+    {
+        return index >>> 3;
+    }
+
+    public static int getRank( int index )
+    {
+        return index & 7;
+    }
+
+    public static int getIndex( int file, int rank )
+    {
+        return 8 * file + rank;
+    }
+
+    /**
+     * Returns a bitboard containing the single square reached by moving <b>x</b> files and <b>y</b>
+     * ranks from the square with the given <b>index</b>, or an empty bitboard if that square is off
+     * the board.
+     * 
+     * @param index the index of the starting square
+     * @param x     the number of files to travel
+     * @param y     the number of ranks to travel
+     * @return a bitboard containing the destination square (if it exists); an empty bitboard
+     *         otherwise
+     */
+    public static long travel( int index, int x, int y )
+    {
+        int file = getFile( index ) + x;
+        int rank = getRank( index ) + y;
+
+        if ( 0 <= file && file < 8 && 0 <= rank && rank < 8 )
+            return bit( getIndex( file, rank ) );
+
+        return EMPTY;
+    }
+
+    public static long knightAttacks( int index )
+    {
+        return KNIGHT_ATTACKS[ index ];
+    }
+
+    public static long kingAttacks( int index )
+    {
+        return KING_ATTACKS[ index ];
+    }
+
+    /**
+     * Returns the squares attacked (diagonally) by a pawn of the given <b>colour</b> standing on the
+     * square with the given <b>index</b>.
+     * 
+     * @param colour the colour of the pawn
+     * @param index  the index of the square the pawn is standing on
+     * @return a bitboard of the squares attacked by the pawn
+     */
+    public static long pawnAttacks( Colour colour, int index )
+    {
+        return PAWN_ATTACKS[ colour.ordinal() ][ index ];
+    }
+
+    /**
+     * Returns the squares strictly between the two given squares if they share a rank, file or
+     * diagonal.
+     * 
+     * @param from the index of the first square
+     * @param to   the index of the second square
+     * @return a bitboard of the squares strictly between <b>from</b> and <b>to</b> (if they are
+     *         aligned); an empty bitboard otherwise
+     */
+    public static long between( int from, int to )
+    {
+        return BETWEEN[ from ][ to ];
+    }
+
+    /**
+     * Returns every square on the rank, file or diagonal shared by the two given squares.
+     * 
+     * @param from the index of the first square
+     * @param to   the index of the second square
+     * @return a bitboard of the line through <b>from</b> and <b>to</b> (if they are aligned); an
+     *         empty bitboard otherwise
+     */
+    public static long line( int from, int to )
+    {
+        return LINE[ from ][ to ];
+    }
+
+    /**
+     * Returns the squares attacked by a rook on the square with the given <b>index</b>, up to and
+     * including the first occupied square in each direction. This is a single lookup in the
+     * precomputed {@code Magics} tables.
+     * 
+     * @param index    the index of the rook's square
+     * @param occupied a bitboard of all occupied squares
+     * @return a bitboard of the squares attacked by the rook
+     */
+    public static long rookAttacks( int index, long occupied )
+    {
+        return Magics.ROOK.getAttacks( index, occupied );
+    }
+
+    /**
+     * Returns the squares attacked by a bishop on the square with the given <b>index</b>, up to and
+     * including the first occupied square in each direction. This is a single lookup in the
+     * precomputed {@code Magics} tables.
+     * 
+     * @param index    the index of the bishop's square
+     * @param occupied a bitboard of all occupied squares
+     * @return a bitboard of the squares attacked by the bishop
+     */
+    public static long bishopAttacks( int index, long occupied )
+    {
+        return Magics.BISHOP.getAttacks( index, occupied );
+    }
+
+    public static long queenAttacks( int index, long occupied )
+    {
+        return rookAttacks( index, occupied ) | bishopAttacks( index, occupied );
+    }
+
+    /**
+     * Computes rook attacks by walking each ray. Used to build the {@code Magics} tables.
+     */
+    static long slideRook( int index, long occupied )
+    {
+        return slide( index, occupied, 1, 0 ) |
+               slide( index, occupied, -1, 0 ) |
+               slide( index, occupied, 0, 1 ) |
+               slide( index, occupied, 0, -1 );
+    }
+
+    /**
+     * Computes bishop attacks by walking each ray. Used to build the {@code Magics} tables.
+     */
+    static long slideBishop( int index, long occupied )
+    {
+        return slide( index, occupied, 1, 1 ) |
+               slide( index, occupied, 1, -1 ) |
+               slide( index, occupied, -1, 1 ) |
+               slide( index, occupied, -1, -1 );
+    }
+
+    /**
+     * Walks from the square with the given <b>index</b> in the direction (<b>x</b>, <b>y</b>) until
+     * the edge of the board or the first occupied square, which is included.
+     */
+    private static long slide( int index, long occupied, int x, int y )
+    {
+        long attacks = EMPTY;
+
+        for ( int n = 1; n < 8; n++ )
+        {
+            long s = travel( index, n * x, n * y );
+
+            attacks |= s;
+
+            if ( s == EMPTY || (s & occupied) != 0 )
+                break;
+        }
+
+        return attacks;
+    }
+}
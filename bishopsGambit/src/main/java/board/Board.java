@@ -1,43 +1,132 @@
 package main.java.board;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
 
-import main.java.pieces.King;
 import main.java.pieces.Pawn;
 import main.java.pieces.Piece;
 import main.java.pieces.Piece.Typ;
-import main.java.pieces.Rook;
 import main.java.player.Player;
+import main.java.player.Player.Colour;
 
 public class Board extends ArrayList<Square>
 {
+    private static final int NUMBER_OF_TYPES = Typ.values().length;
+
+    /*
+     * The squares in this list are a view for the GUI; the bitboards below are the authoritative
+     * record of which squares are occupied, and by which colour and type of piece. See Bitboards for
+     * the numbering of the bits.
+     */
+    private long[] pieceBitboards = new long[ 2 * NUMBER_OF_TYPES ];
+    private long[] colourBitboards = new long[ 2 ];
+    private long occupied = Bitboards.EMPTY;
+
     // Castling rights
-    private boolean whiteQueensideCastlingAllowed = true;
-    private boolean whiteKingsideCastlingAllowed = true;
-    private boolean blackQueensideCastlingAllowed = true;
-    private boolean blackKingsideCastlingAllowed = true;
+    public static final int WHITE_QUEENSIDE = 1;
+    public static final int WHITE_KINGSIDE = 2;
+    public static final int BLACK_QUEENSIDE = 4;
+    public static final int BLACK_KINGSIDE = 8;
+
+    /**
+     * For each square, the castling rights that survive a move from or to that square. Moving the
+     * king or a rook from its start square, or capturing a rook on its start square, revokes the
+     * corresponding rights.
+     */
+    private static final int[] CASTLING_RIGHTS_KEPT = new int[ 64 ];
+
+    static
+    {
+        int all = WHITE_QUEENSIDE | WHITE_KINGSIDE | BLACK_QUEENSIDE | BLACK_KINGSIDE;
+
+        for ( int index = 0; index < 64; index++ )
+            CASTLING_RIGHTS_KEPT[ index ] = all;
+
+        CASTLING_RIGHTS_KEPT[ Square.getIndex( 'a', '1' ) ] &= ~WHITE_QUEENSIDE;
+        CASTLING_RIGHTS_KEPT[ Square.getIndex( 'e', '1' ) ] &= ~(WHITE_QUEENSIDE | WHITE_KINGSIDE);
+        CASTLING_RIGHTS_KEPT[ Square.getIndex( 'h', '1' ) ] &= ~WHITE_KINGSIDE;
+        CASTLING_RIGHTS_KEPT[ Square.getIndex( 'a', '8' ) ] &= ~BLACK_QUEENSIDE;
+        CASTLING_RIGHTS_KEPT[ Square.getIndex( 'e', '8' ) ] &= ~(BLACK_QUEENSIDE | BLACK_KINGSIDE);
+        CASTLING_RIGHTS_KEPT[ Square.getIndex( 'h', '8' ) ] &= ~BLACK_KINGSIDE;
+    }
+
+    private int castlingRights = WHITE_QUEENSIDE | WHITE_KINGSIDE | BLACK_QUEENSIDE | BLACK_KINGSIDE;
 
     private Pawn enPassantPawn = null;
 
+    private Colour activeColour = Colour.WHITE;
+
+    /*
+     * The number of halfmoves since the last pawn move or capture, and the number of the current
+     * full move (starting at 1 and incremented after each of Black's moves), as in FEN.
+     */
+    private int halfmoveClock = 0;
+    private int fullmoveNumber = 1;
+
+    /*
+     * The Zobrist key of the position (see Zobrist), updated incrementally as pieces are placed and
+     * moved and as the castling rights, en passant pawn and side to move change.
+     */
+    private long zobristKey = Zobrist.castling( castlingRights );
+
+    /**
+     * The game phase with all the pieces on the board; see {@code getPhase()}.
+     */
+    public static final int MAX_PHASE = 24;
+
+    /*
+     * The evaluation terms of the position, updated incrementally as pieces are placed and removed:
+     * the material difference in pawns (by Piece.getValue()), the middlegame and endgame scores in
+     * centipawns (see PieceSquareTables), all from White's point of view, and the game phase.
+     */
+    private int materialDifference = 0;
+    private int midgameScore = 0;
+    private int endgameScore = 0;
+    private int phase = 0;
+
+    /*
+     * Undo records for the moves made by makeMove, most recent last. The records are reused, so
+     * exploring and unmaking moves does not allocate once the stack has grown to the search depth.
+     */
+    private Undo[] undoStack;
+    private int ply;
+
     public boolean isWhiteQueensideCastlingAllowed()
     {
-        return whiteQueensideCastlingAllowed;
+        return (castlingRights & WHITE_QUEENSIDE) != 0;
     }
 
     public boolean isWhiteKingsideCastlingAllowed()
     {
-        return whiteKingsideCastlingAllowed;
+        return (castlingRights & WHITE_KINGSIDE) != 0;
     }
 
     public boolean isBlackQueensideCastlingAllowed()
     {
-        return blackQueensideCastlingAllowed;
+        return (castlingRights & BLACK_QUEENSIDE) != 0;
     }
 
     public boolean isBlackKingsideCastlingAllowed()
     {
-        return blackKingsideCastlingAllowed;
+        return (castlingRights & BLACK_KINGSIDE) != 0;
+    }
+
+    /**
+     * Returns the castling rights as a combination of the flags {@code WHITE_QUEENSIDE},
+     * {@code WHITE_KINGSIDE}, {@code BLACK_QUEENSIDE} and {@code BLACK_KINGSIDE}.
+     * 
+     * @return the castling rights
+     */
+    public int getCastlingRights()
+    {
+        return castlingRights;
+    }
+
+    void setCastlingRights( int castlingRights )
+    {
+        zobristKey ^= Zobrist.castling( this.castlingRights ) ^ Zobrist.castling( castlingRights );
+        this.castlingRights = castlingRights;
     }
 
     public Pawn getEnPassantPawn()
@@ -45,6 +134,67 @@ public class Board extends ArrayList<Square>
         return enPassantPawn;
     }
 
+    void setEnPassantPawn( Pawn enPassantPawn )
+    {
+        zobristKey ^= getEnPassantKey();
+        this.enPassantPawn = enPassantPawn;
+        zobristKey ^= getEnPassantKey();
+    }
+
+    /**
+     * Returns the colour of the player to move.
+     * 
+     * @return the colour of the player to move
+     */
+    public Colour getActiveColour()
+    {
+        return activeColour;
+    }
+
+    void setActiveColour( Colour activeColour )
+    {
+        if ( this.activeColour != activeColour )
+            zobristKey ^= Zobrist.sideToMove();
+
+        this.activeColour = activeColour;
+    }
+
+    public int getHalfmoveClock()
+    {
+        return halfmoveClock;
+    }
+
+    void setHalfmoveClock( int halfmoveClock )
+    {
+        this.halfmoveClock = halfmoveClock;
+    }
+
+    public int getFullmoveNumber()
+    {
+        return fullmoveNumber;
+    }
+
+    void setFullmoveNumber( int fullmoveNumber )
+    {
+        this.fullmoveNumber = fullmoveNumber;
+    }
+
+    /**
+     * Returns the Zobrist key of the position on this board: a 64-bit hash of the piece placement,
+     * the side to move, the castling rights and the file of a pawn that can be captured en passant.
+     * Boards holding the same position have the same key, whatever the moves that led to it. The
+     * key is kept up to date as moves are made, so this method does no work.
+     * <p>
+     * As in the rules for repetition, the en passant file is only included if an enemy pawn stands
+     * beside the pawn that has just moved two squares forward.
+     * 
+     * @return the Zobrist key of the position
+     */
+    public long getZobristKey()
+    {
+        return zobristKey;
+    }
+
     /**
      * Creates an ArrayList of 64 squares, comprising the chess board.
      */
@@ -55,6 +205,65 @@ public class Board extends ArrayList<Square>
                 add( new Square( file, rank ) );
     }
 
+    /**
+     * Returns a bitboard of all squares occupied by pieces of the given colour and type.
+     * 
+     * @param colour the colour of the pieces
+     * @param type   the type of the pieces
+     * @return a bitboard of all squares occupied by pieces of the given colour and type
+     */
+    public long getBitboard( Colour colour, Typ type )
+    {
+        return pieceBitboards[ getBitboardIndex( colour, type ) ];
+    }
+
+    /**
+     * Returns a bitboard of all squares occupied by pieces of the given colour.
+     * 
+     * @param colour the colour of the pieces
+     * @return a bitboard of all squares occupied by pieces of the given colour
+     */
+    public long getBitboard( Colour colour )
+    {
+        return colourBitboards[ colour.ordinal() ];
+    }
+
+    /**
+     * Returns a bitboard of all occupied squares.
+     * 
+     * @return a bitboard of all occupied squares
+     */
+    public long getOccupied()
+    {
+        return occupied;
+    }
+
+    private static int getBitboardIndex( Colour colour, Typ type )
+    {
+        return colour.ordinal() * NUMBER_OF_TYPES + type.ordinal();
+    }
+
+    /**
+     * Adds the given piece to (if <b>sign</b> is 1) or removes it from (if <b>sign</b> is -1) the
+     * bitboards, key and evaluation terms at the square with the given index.
+     */
+    private void toggle( Piece piece, int index, int sign )
+    {
+        Colour colour = piece.getColour();
+        Typ type = piece.getType();
+
+        long bit = Bitboards.bit( index );
+        pieceBitboards[ getBitboardIndex( colour, type ) ] ^= bit;
+        colourBitboards[ colour.ordinal() ] ^= bit;
+        occupied ^= bit;
+        zobristKey ^= Zobrist.piece( colour, type, index );
+
+        materialDifference += sign * piece.getSign() * piece.getValue();
+        midgameScore += sign * PieceSquareTables.midgame( colour, type, index );
+        endgameScore += sign * PieceSquareTables.endgame( colour, type, index );
+        phase += sign * PieceSquareTables.phase( type );
+    }
+
     /**
      * Returns a list of all pieces currently on the board.
      * 
@@ -62,9 +271,125 @@ public class Board extends ArrayList<Square>
      */
     public List<Piece> getPieces()
     {
-        return stream().filter( Square::isOccupied )
-                       .map( Square::getPiece )
-                       .toList();
+        return getPieces( occupied );
+    }
+
+    /**
+     * Returns a list of all pieces of the given colour currently on the board.
+     * 
+     * @param colour the colour of the pieces
+     * @return a list of all pieces of the given colour currently on the board
+     */
+    public List<Piece> getPieces( Colour colour )
+    {
+        return getPieces( getBitboard( colour ) );
+    }
+
+    private List<Piece> getPieces( long bitboard )
+    {
+        List<Piece> pieces = new ArrayList<>( Long.bitCount( bitboard ) );
+
+        for ( long bb = bitboard; bb != 0; bb &= bb - 1 )
+            pieces.add( get( Long.numberOfTrailingZeros( bb ) ).getPiece() );
+
+        return pieces;
+    }
+
+    /**
+     * Returns a list of the squares contained in the given bitboard, in order of index.
+     * 
+     * @param bitboard the bitboard
+     * @return a list of the squares contained in the given bitboard
+     */
+    public List<Square> getSquares( long bitboard )
+    {
+        List<Square> squares = new ArrayList<>( Long.bitCount( bitboard ) );
+
+        for ( long bb = bitboard; bb != 0; bb &= bb - 1 )
+            squares.add( get( Long.numberOfTrailingZeros( bb ) ) );
+
+        return squares;
+    }
+
+    /**
+     * Returns a boolean indicating whether the square with the given <b>index</b> is attacked by any
+     * piece of the given <b>colour</b>.
+     * 
+     * @param index  the index of the square
+     * @param colour the colour of the attacking pieces
+     * @return {@code true} if the square is attacked by a piece of the given colour; {@code false}
+     *         otherwise
+     */
+    public boolean isAttacked( int index, Colour colour )
+    {
+        return isAttacked( index, colour, occupied );
+    }
+
+    /**
+     * Returns a boolean indicating whether the square with the given <b>index</b> is attacked by any
+     * piece of the given <b>colour</b>, treating <b>occupied</b> as the occupied squares for sliding
+     * pieces.
+     * <p>
+     * Rather than generating the attacks of every enemy piece, this looks outward from the square:
+     * a knight's jump away for knights, a king's step away for kings, a pawn's capture away (in the
+     * opposite direction) for pawns, and along each rank, file and diagonal up to the first occupied
+     * square for rooks, bishops and queens. It stops at the first attacker found.
+     * 
+     * @param index    the index of the square
+     * @param colour   the colour of the attacking pieces
+     * @param occupied a bitboard of the squares to treat as occupied
+     * @return {@code true} if the square is attacked by a piece of the given colour; {@code false}
+     *         otherwise
+     */
+    public boolean isAttacked( int index, Colour colour, long occupied )
+    {
+        if ( (Bitboards.pawnAttacks( colour.transpose(), index ) & getBitboard( colour, Typ.PAWN )) != 0 )
+            return true;
+
+        if ( (Bitboards.knightAttacks( index ) & getBitboard( colour, Typ.KNIGHT )) != 0 )
+            return true;
+
+        if ( (Bitboards.kingAttacks( index ) & getBitboard( colour, Typ.KING )) != 0 )
+            return true;
+
+        long queens = getBitboard( colour, Typ.QUEEN );
+        long rooks = getBitboard( colour, Typ.ROOK ) | queens;
+        long bishops = getBitboard( colour, Typ.BISHOP ) | queens;
+
+        return (rooks != 0 && (Bitboards.rookAttacks( index, occupied ) & rooks) != 0) ||
+               (bishops != 0 && (Bitboards.bishopAttacks( index, occupied ) & bishops) != 0);
+    }
+
+    /**
+     * Returns a bitboard of all pieces of the given <b>colour</b> that attack the square with the
+     * given <b>index</b>, treating <b>occupied</b> as the occupied squares for sliding pieces.
+     * 
+     * @param index    the index of the square
+     * @param colour   the colour of the attacking pieces
+     * @param occupied a bitboard of the squares to treat as occupied
+     * @return a bitboard of all pieces of the given colour attacking the square
+     */
+    public long getAttackers( int index, Colour colour, long occupied )
+    {
+        long queens = getBitboard( colour, Typ.QUEEN );
+
+        return (Bitboards.pawnAttacks( colour.transpose(), index ) & getBitboard( colour, Typ.PAWN )) |
+               (Bitboards.knightAttacks( index ) & getBitboard( colour, Typ.KNIGHT )) |
+               (Bitboards.kingAttacks( index ) & getBitboard( colour, Typ.KING )) |
+               (Bitboards.rookAttacks( index, occupied ) & (getBitboard( colour, Typ.ROOK ) | queens)) |
+               (Bitboards.bishopAttacks( index, occupied ) & (getBitboard( colour, Typ.BISHOP ) | queens));
+    }
+
+    /**
+     * Returns a boolean indicating whether the king of the given <b>colour</b> is attacked.
+     * 
+     * @param colour the colour of the king
+     * @return {@code true} if the king of the given colour is in check; {@code false} otherwise
+     */
+    public boolean isInCheck( Colour colour )
+    {
+        long king = getBitboard( colour, Typ.KING );
+        return king != 0 && isAttacked( Long.numberOfTrailingZeros( king ), colour.transpose() );
     }
 
     /**
@@ -75,7 +400,7 @@ public class Board extends ArrayList<Square>
     public void assignPieces( Player player )
     {
         for ( Piece piece : player.getPieces() )
-            piece.getStartSquare( this ).setPiece( piece );
+            putPiece( piece, piece.getStartSquare( this ).getIndex() );
     }
 
     /**
@@ -87,7 +412,27 @@ public class Board extends ArrayList<Square>
      */
     public boolean containsPiece( Piece piece )
     {
-        return stream().anyMatch( sq -> sq.getPiece() == piece );
+        return getSquare( piece ) != null;
+    }
+
+    /**
+     * Finds the square the given piece is occupying. Only the squares occupied by pieces of the same
+     * colour and type are examined.
+     * 
+     * @param piece the piece
+     * @return the square the given piece is occupying (if it exists); {@code null} otherwise
+     */
+    public Square getSquare( Piece piece )
+    {
+        for ( long bb = getBitboard( piece.getColour(), piece.getType() ); bb != 0; bb &= bb - 1 )
+        {
+            Square square = get( Long.numberOfTrailingZeros( bb ) );
+
+            if ( square.getPiece() == piece )
+                return square;
+        }
+
+        return null;
     }
 
     /**
@@ -128,6 +473,33 @@ public class Board extends ArrayList<Square>
         return 'a' <= file && file <= 'h' && '1' <= rank && rank <= '8';
     }
 
+    /**
+     * Returns a copy of this board. Each square is copied, so moves made on the copy (or on this
+     * board) do not affect the other. Pieces are shared, since they carry no position of their own.
+     * 
+     * @return a copy of this board
+     */
+    @Override
+    public Board clone()
+    {
+        Board board = (Board) super.clone();
+
+        for ( int index = 0; index < size(); index++ )
+        {
+            Square square = get( index ).clone();
+            square.setPiece( get( index ).getPiece() );
+            board.set( index, square );
+        }
+
+        board.pieceBitboards = pieceBitboards.clone();
+        board.colourBitboards = colourBitboards.clone();
+
+        board.undoStack = null;
+        board.ply = 0;
+
+        return board;
+    }
+
     /**
      * Clones this board and moves the piece occupying the <b>from</b> square to the <b>to</b>
      * square. Also handles the following special moves (if applicable):
@@ -142,72 +514,202 @@ public class Board extends ArrayList<Square>
      */
     public Board cloneAndMove( Square from, Square to )
     {
-        Board newBoard = (Board) clone();
-        newBoard.move( from, to );
+        Board newBoard = clone();
+        newBoard.makeMove( Move.of( from, to ) );
         return newBoard;
     }
 
-    private void move( Square from, Square to )
+    /**
+     * Makes the given move on this board, in place. Also handles the following special moves (if
+     * applicable):
+     * <ul>
+     * <li>Castling – Moves the corresponding rook to the square adjacent to the king.</li>
+     * <li>En passant – Removes the corresponding pawn.</li>
+     * <li>Promotion – Replaces the pawn with a piece of the move's promotion type (if any).</li>
+     * </ul>
+     * The move is not checked for legality. It can be taken back by passing the returned record to
+     * {@code unmakeMove(Undo)}; moves must be unmade in the reverse order to which they were made.
+     * 
+     * @param move the move, encoded as described in {@code Move}
+     * @return the record needed to unmake the move
+     */
+    public Undo makeMove( int move )
     {
-        movePiece( from, to );
+        int from = Move.getFrom( move );
+        int to = Move.getTo( move );
+
+        Piece piece = get( from ).getPiece();
 
-        Piece piece = from.getPiece();
+        Undo undo = pushUndo();
+        undo.move = move;
+        undo.piece = piece;
+        undo.captured = get( to ).getPiece();
+        undo.capturedIndex = to;
+        undo.promoted = null;
+        undo.castlingRights = castlingRights;
+        undo.enPassantPawn = enPassantPawn;
+        undo.zobristKey = zobristKey;
+        undo.halfmoveClock = halfmoveClock;
 
-        int x = Integer.signum( to.fileDiff( from ) );
-        Square s1 = from.travel( this, x, 0 );
+        // The en passant file (if any) is removed from the key while the pieces beside the pawn
+        // are still where they were when it was added
+        zobristKey ^= getEnPassantKey();
 
-        if ( piece instanceof Pawn && piece.movedOneSquareDiagonallyForward( from, to ) && !to.isOccupied() )
+        int x = Integer.signum( Bitboards.getFile( to ) - Bitboards.getFile( from ) );
+
+        if ( piece instanceof Pawn && x != 0 && undo.captured == null )
         {
             // En passant
-            replace( s1, s1.clone() );
+            undo.capturedIndex = Bitboards.getIndex( Bitboards.getFile( to ), Bitboards.getRank( from ) );
+            undo.captured = get( undo.capturedIndex ).getPiece();
         }
-        else if ( piece instanceof King && piece.movedTwoSquaresHorizontally( from, to ) )
+
+        if ( undo.captured != null )
+            removePiece( undo.capturedIndex );
+
+        if ( undo.captured != null || piece instanceof Pawn )
+            halfmoveClock = 0;
+        else
+            halfmoveClock++;
+
+        if ( activeColour == Colour.BLACK )
+            fullmoveNumber++;
+
+        movePiece( from, to );
+
+        if ( piece.isType( Typ.KING ) && Math.abs( Bitboards.getFile( to ) - Bitboards.getFile( from ) ) == 2 )
         {
             // Castling
-            Rook rook = piece.getPlayer().getRook( x );
-            Square r = rook.getSquare( this );
-            movePiece( r, s1 );
+            movePiece( getCastlingRookIndex( from, x ), from + 8 * x );
         }
 
-        if ( piece instanceof Rook || piece instanceof King )
-            revokeCastlingRights( piece );
+        Typ promotion = Move.getPromotion( move );
 
-        if ( to.getPiece() instanceof Rook )
-            revokeCastlingRights( to.getPiece() );
+        if ( promotion != null )
+        {
+            undo.promoted = piece.getPlayer().getPromotionPiece( promotion, this );
+            removePiece( to );
+            putPiece( undo.promoted, to );
+        }
+
+        revokeCastlingRights( from, to );
+        updateEnPassantPawn( piece, from, to );
 
-        updateEnPassantPawn( from, to );
+        activeColour = activeColour.transpose();
+        zobristKey ^= Zobrist.sideToMove();
+
+        return undo;
     }
 
     /**
-     * Moves the piece occupying the <b>from</b> square to the <b>to</b> square.
-     * <p>
-     * To preserve board states, the given squares are cloned and the piece occupying the original
-     * <b>from</b> square is assigned to the new <i>to</i> square. The new <i>from</i> square is
-     * left unoccupied.
+     * Takes back the move recorded by the given <b>undo</b>, restoring the position, castling
+     * rights and en passant pawn exactly as they were before the move was made.
      * 
-     * @param from the square containing the piece to be moved
-     * @param to   the destination square for the piece
+     * @param undo the record returned by {@code makeMove(int)}
+     * @throws IllegalStateException if <b>undo</b> is not the record of the most recent move made
+     *                               on this board that has not yet been unmade
      */
-    private void movePiece( Square from, Square to )
+    public void unmakeMove( Undo undo )
     {
-        Square newFrom = from.clone();
-        Square newTo = to.clone();
-        newTo.setPiece( from.getPiece() );
-        replace( from, newFrom );
-        replace( to, newTo );
+        if ( ply == 0 || undoStack[ ply - 1 ] != undo )
+            throw new IllegalStateException( "Moves must be unmade in the reverse order to which they were made." );
+
+        ply--;
+
+        int from = Move.getFrom( undo.move );
+        int to = Move.getTo( undo.move );
+
+        activeColour = activeColour.transpose();
+
+        if ( activeColour == Colour.BLACK )
+            fullmoveNumber--;
+
+        if ( undo.promoted != null )
+        {
+            removePiece( to );
+            putPiece( undo.piece, to );
+        }
+
+        movePiece( to, from );
+
+        int x = Integer.signum( Bitboards.getFile( to ) - Bitboards.getFile( from ) );
+
+        if ( undo.piece.isType( Typ.KING ) && Math.abs( Bitboards.getFile( to ) - Bitboards.getFile( from ) ) == 2 )
+        {
+            // Castling
+            movePiece( from + 8 * x, getCastlingRookIndex( from, x ) );
+        }
+
+        if ( undo.captured != null )
+            putPiece( undo.captured, undo.capturedIndex );
+
+        castlingRights = undo.castlingRights;
+        enPassantPawn = undo.enPassantPawn;
+        zobristKey = undo.zobristKey;
+        halfmoveClock = undo.halfmoveClock;
+    }
+
+    private Undo pushUndo()
+    {
+        if ( undoStack == null )
+            undoStack = new Undo[ 8 ];
+        else if ( ply == undoStack.length )
+            undoStack = Arrays.copyOf( undoStack, 2 * ply );
+
+        if ( undoStack[ ply ] == null )
+            undoStack[ ply ] = new Undo();
+
+        return undoStack[ ply++ ];
     }
 
     /**
-     * Replaces the square <b>s1</b> on this board with the square <b>s2</b>.
+     * Returns the index of the square the rook starts on when the king on the square with the given
+     * index castles in the direction <b>x</b>.
+     */
+    private static int getCastlingRookIndex( int kingIndex, int x )
+    {
+        return Bitboards.getIndex( x < 0 ? 0 : 7, Bitboards.getRank( kingIndex ) );
+    }
+
+    /**
+     * Moves the piece occupying the square with index <b>from</b> to the (unoccupied) square with
+     * index <b>to</b>.
      * 
-     * @param s1 the old square
-     * @param s2 the new square
+     * @param from the index of the square containing the piece to be moved
+     * @param to   the index of the destination square for the piece
+     */
+    private void movePiece( int from, int to )
+    {
+        Piece piece = get( from ).getPiece();
+        removePiece( from );
+        putPiece( piece, to );
+    }
+
+    void putPiece( Piece piece, int index )
+    {
+        get( index ).setPiece( piece );
+        toggle( piece, index, 1 );
+    }
+
+    /**
+     * Removes every piece from this board and forgets the moves made on it, so that a new position
+     * can be set up without creating a new board.
      */
-    private void replace( Square s1, Square s2 )
+    void removeAllPieces()
     {
-        int index = indexOf( s1 );
-        remove( index );
-        add( index, s2 );
+        setEnPassantPawn( null );
+
+        for ( long bb = occupied; bb != 0; bb &= bb - 1 )
+            removePiece( Long.numberOfTrailingZeros( bb ) );
+
+        ply = 0;
+    }
+
+    private void removePiece( int index )
+    {
+        Square square = get( index );
+        toggle( square.getPiece(), index, -1 );
+        square.setPiece( null );
     }
 
     public Piece promote( Pawn pawn, Typ promType )
@@ -217,49 +719,50 @@ public class Board extends ArrayList<Square>
                                              pawn.getPlayer(),
                                              square.getFile(),
                                              square.getRank() );
-        square.setPiece( promPiece );
+        removePiece( square.getIndex() );
+        putPiece( promPiece, square.getIndex() );
         return promPiece;
     }
 
-    private void revokeCastlingRights( Piece piece )
+    private void revokeCastlingRights( int from, int to )
     {
-        Player player = piece.getPlayer();
+        int kept = castlingRights & CASTLING_RIGHTS_KEPT[ from ] & CASTLING_RIGHTS_KEPT[ to ];
+        zobristKey ^= Zobrist.castling( castlingRights ) ^ Zobrist.castling( kept );
+        castlingRights = kept;
+    }
 
-        switch ( player.getColour() )
-        {
-            case WHITE:
-                if ( piece == player.getQueensideRook() ||
-                     piece == player.getKing() )
-                    whiteQueensideCastlingAllowed = false;
+    private void updateEnPassantPawn( Piece piece, int from, int to )
+    {
+        if ( piece instanceof Pawn && Math.abs( to - from ) == 2 )
+            // Allow this pawn to be captured en passant on the next turn
+            enPassantPawn = (Pawn) piece;
+        else
+            enPassantPawn = null;
 
-                if ( piece == player.getKingsideRook() ||
-                     piece == player.getKing() )
-                    whiteKingsideCastlingAllowed = false;
+        zobristKey ^= getEnPassantKey();
+    }
 
-                break;
+    /**
+     * Returns the key of the file of the en passant pawn if an enemy pawn stands beside it (and so
+     * could capture it en passant); zero otherwise.
+     */
+    private long getEnPassantKey()
+    {
+        if ( enPassantPawn == null )
+            return 0;
 
-            case BLACK:
-                if ( piece == player.getQueensideRook() ||
-                     piece == player.getKing() )
-                    blackQueensideCastlingAllowed = false;
+        Square square = getSquare( enPassantPawn );
 
-                if ( piece == player.getKingsideRook() ||
-                     piece == player.getKing() )
-                    blackKingsideCastlingAllowed = false;
+        if ( square == null )
+            return 0;
 
-                break;
-        }
-    }
+        long pawn = Bitboards.bit( square.getIndex() );
+        long beside = (pawn << 8) | (pawn >>> 8);
 
-    private void updateEnPassantPawn( Square from, Square to )
-    {
-        Piece piece = from.getPiece();
+        if ( (beside & getBitboard( enPassantPawn.getColour().transpose(), Typ.PAWN )) == 0 )
+            return 0;
 
-        if ( piece instanceof Pawn && piece.movedTwoSquaresForward( from, to ) )
-            // Allow this pawn to be captured en passant on the next turn
-            enPassantPawn = (Pawn) piece;
-        else
-            enPassantPawn = null;
+        return Zobrist.enPassant( Bitboards.getFile( square.getIndex() ) );
     }
 
     public boolean isLegalMove( Square from, Square to )
@@ -267,30 +770,75 @@ public class Board extends ArrayList<Square>
         return from.getPiece().getMoves( this ).contains( to );
     }
 
+    /**
+     * Returns the value of White's pieces less the value of Black's, by {@code Piece.getValue()}.
+     * The difference is kept up to date as pieces are placed and removed, so this takes constant
+     * time.
+     * 
+     * @return the material difference, in pawns
+     */
     public int getMaterialDifference()
     {
-        return getPieces().stream()
-                          .mapToInt( pc -> pc.getSign() * pc.getValue() )
-                          .sum();
+        return materialDifference;
+    }
+
+    /**
+     * Returns the middlegame score of the position: the value of White's pieces less the value of
+     * Black's, each valued by its type and square as in the middlegame. Kept up to date as pieces
+     * are placed and removed.
+     * 
+     * @return the middlegame score, in centipawns
+     */
+    public int getMidgameScore()
+    {
+        return midgameScore;
+    }
+
+    /**
+     * Returns the endgame score of the position, as {@code getMidgameScore()} but with the pieces
+     * valued as in the endgame.
+     * 
+     * @return the endgame score, in centipawns
+     */
+    public int getEndgameScore()
+    {
+        return endgameScore;
+    }
+
+    /**
+     * Returns the game phase: {@code MAX_PHASE} with all the knights, bishops, rooks and queens on
+     * the board, falling to zero as they are exchanged (a queen counts four, a rook two and a minor
+     * piece one). May exceed {@code MAX_PHASE} after promotions.
+     * 
+     * @return the game phase
+     */
+    public int getPhase()
+    {
+        return phase;
     }
 
     public boolean hasInsufficientMaterial()
     {
+        long kings = getBitboard( Colour.WHITE, Typ.KING ) | getBitboard( Colour.BLACK, Typ.KING );
+        long bishops = getBitboard( Colour.WHITE, Typ.BISHOP ) | getBitboard( Colour.BLACK, Typ.BISHOP );
+        long knights = getBitboard( Colour.WHITE, Typ.KNIGHT ) | getBitboard( Colour.BLACK, Typ.KNIGHT );
+
         // All pieces currently on the board (excluding the Kings)
-        List<Piece> pieces = getPieces().stream().filter( pc -> !pc.isType( Typ.KING ) ).toList();
+        long pieces = occupied & ~kings;
 
-        return switch ( pieces.size() )
+        return switch ( Long.bitCount( pieces ) )
         {
             // King versus King
             case 0 -> true;
 
             // King and Bishop versus King, King and Knight versus King
-            case 1 -> pieces.stream().allMatch( pc -> pc.isType( Typ.BISHOP, Typ.KNIGHT ) );
+            case 1 -> (pieces & (bishops | knights)) != 0;
 
             // King and Bishop versus King and Bishop with the Bishops on the same colour
-            case 2 -> pieces.stream().allMatch( pc -> pc.isType( Typ.BISHOP ) ) &&
-                      pieces.stream().map( Piece::getPlayer ).distinct().count() > 1 &&
-                      pieces.stream().map( pc -> pc.getSquare( this ).getParity() ).distinct().count() == 1;
+            case 2 -> pieces == bishops &&
+                      (pieces & getBitboard( Colour.WHITE )) != 0 &&
+                      (pieces & getBitboard( Colour.BLACK )) != 0 &&
+                      ((pieces & Bitboards.DARK_SQUARES) == 0 || (pieces & ~Bitboards.DARK_SQUARES) == 0);
 
             default -> false;
         };
@@ -301,6 +849,46 @@ public class Board extends ArrayList<Square>
         Printer.print( this );
     }
 
+    /**
+     * The information needed to take back a move made by {@code makeMove(int)}.
+     */
+    public static class Undo
+    {
+        private int move;
+        private Piece piece;
+        private Piece captured;
+        private int capturedIndex;
+        private Piece promoted;
+        private int castlingRights;
+        private Pawn enPassantPawn;
+        private long zobristKey;
+        private int halfmoveClock;
+
+        private Undo()
+        {
+        }
+
+        public int getMove()
+        {
+            return move;
+        }
+
+        public Piece getPiece()
+        {
+            return piece;
+        }
+
+        /**
+         * Returns the piece captured by the move (including en passant).
+         * 
+         * @return the piece captured by the move (if any); {@code null} otherwise
+         */
+        public Piece getCapturedPiece()
+        {
+            return captured;
+        }
+    }
+
     private static class Printer
     {
         // For each box-drawing char below, n is the number of "prongs" that char has.
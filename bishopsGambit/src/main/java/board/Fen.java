@@ -0,0 +1,400 @@
+package main.java.board;
+
+import java.util.List;
+
+import main.java.pieces.Pawn;
+import main.java.pieces.Piece;
+import main.java.pieces.Piece.Typ;
+import main.java.player.Player;
+import main.java.player.Player.Colour;
+
+/**
+ * Reads and writes positions in Forsyth-Edwards Notation (FEN), e.g.
+ * {@code rnbqkbnr/pppppppp/8/8/4P3/8/PPPP1PPP/RNBQKBNR b KQkq e3 0 1}.
+ * <p>
+ * Parsing is a single pass over the characters of the string, placing pieces and setting the
+ * castling rights, en passant pawn and move counters on the board as it goes; no substrings or
+ * other intermediate objects are created. {@code setPosition} reuses an existing board, so that
+ * many positions can be loaded one after another without allocating.
+ */
+public class Fen
+{
+    public static final String START_POSITION = "rnbqkbnr/pppppppp/8/8/8/8/PPPPPPPP/RNBQKBNR w KQkq - 0 1";
+
+    /**
+     * The FEN letter of each piece type, indexed by ordinal.
+     */
+    private static final String TYPE_CHARS = "kqrbnp";
+
+    private static final Typ[] TYPES = Typ.values();
+
+    private static final Colour[] COLOURS = Colour.values();
+
+    /**
+     * Creates a board holding the position described by the given FEN string. See
+     * {@code setPosition} for how the pieces are chosen.
+     * 
+     * @param fen   the position in FEN
+     * @param white the player whose pieces are placed for the upper-case letters
+     * @param black the player whose pieces are placed for the lower-case letters
+     * @return a new board holding the position
+     * @throws IllegalArgumentException if the FEN string is malformed
+     */
+    public static Board toBoard( CharSequence fen, Player white, Player black )
+    {
+        Board board = new Board();
+        setPosition( board, fen, white, black );
+        return board;
+    }
+
+    /**
+     * Replaces the position on the given board with the one described by the given FEN string. The
+     * pieces placed on the board are taken from the given players: a piece is placed on its start
+     * square where possible, otherwise any of the player's pieces of the right type that is not yet
+     * on the board is used, and further pieces (e.g. a third knight) are obtained from
+     * {@code Player.getPromotionPiece}. A castling right is dropped unless the king and that rook
+     * are on their start squares. The halfmove clock and fullmove number may be omitted, in which
+     * case they are taken to be 0 and 1.
+     * 
+     * @param board the board to set up
+     * @param fen   the position in FEN
+     * @param white the player whose pieces are placed for the upper-case letters
+     * @param black the player whose pieces are placed for the lower-case letters
+     * @throws IllegalArgumentException if the FEN string is malformed (the board is then left in an
+     *                                  unspecified state)
+     */
+    public static void setPosition( Board board, CharSequence fen, Player white, Player black )
+    {
+        board.removeAllPieces();
+
+        int length = fen.length();
+        int i = skipSpaces( fen, 0 );
+
+        // Piece placement, from the eighth rank down to the first
+        int file = 0;
+        int rank = 7;
+
+        for ( ; i < length && fen.charAt( i ) != ' '; i++ )
+        {
+            char c = fen.charAt( i );
+
+            if ( c == '/' )
+            {
+                if ( file != 8 || rank == 0 )
+                    throw invalid( fen, "piece placement" );
+
+                file = 0;
+                rank--;
+            }
+            else if ( '1' <= c && c <= '8' )
+            {
+                file += c - '0';
+
+                if ( file > 8 )
+                    throw invalid( fen, "piece placement" );
+            }
+            else
+            {
+                int type = TYPE_CHARS.indexOf( Character.toLowerCase( c ) );
+
+                if ( type < 0 || file > 7 )
+                    throw invalid( fen, "piece placement" );
+
+                Player player = Character.isUpperCase( c ) ? white : black;
+                int index = Bitboards.getIndex( file++, rank );
+
+                board.putPiece( getUnplacedPiece( board, player, TYPES[ type ], index ), index );
+            }
+        }
+
+        if ( file != 8 || rank != 0 )
+            throw invalid( fen, "piece placement" );
+
+        // Active colour
+        i = skipSpaces( fen, i );
+
+        if ( i == length )
+            throw new IllegalArgumentException( "FEN string '" + fen + "' must have at least four fields." );
+
+        board.setActiveColour( switch ( fen.charAt( i++ ) )
+        {
+            case 'w' -> Colour.WHITE;
+            case 'b' -> Colour.BLACK;
+            default -> throw invalid( fen, "active colour" );
+        } );
+
+        if ( i < length && fen.charAt( i ) != ' ' )
+            throw invalid( fen, "active colour" );
+
+        // Castling rights
+        i = skipSpaces( fen, i );
+
+        if ( i == length )
+            throw new IllegalArgumentException( "FEN string '" + fen + "' must have at least four fields." );
+
+        int castlingRights = 0;
+
+        if ( fen.charAt( i ) == '-' )
+        {
+            i++;
+        }
+        else
+        {
+            for ( ; i < length && fen.charAt( i ) != ' '; i++ )
+            {
+                castlingRights |= switch ( fen.charAt( i ) )
+                {
+                    case 'K' -> Board.WHITE_KINGSIDE;
+                    case 'Q' -> Board.WHITE_QUEENSIDE;
+                    case 'k' -> Board.BLACK_KINGSIDE;
+                    case 'q' -> Board.BLACK_QUEENSIDE;
+                    default -> throw invalid( fen, "castling availability" );
+                };
+            }
+        }
+
+        board.setCastlingRights( castlingRights & getPossibleCastlingRights( board ) );
+
+        // En passant target square; the pawn that just moved two squares is one square beyond it
+        i = skipSpaces( fen, i );
+
+        if ( i == length )
+            throw new IllegalArgumentException( "FEN string '" + fen + "' must have at least four fields." );
+
+        Pawn enPassantPawn = null;
+
+        if ( fen.charAt( i ) == '-' )
+        {
+            i++;
+        }
+        else
+        {
+            if ( i + 1 >= length )
+                throw invalid( fen, "en passant square" );
+
+            int targetFile = fen.charAt( i++ ) - 'a';
+            int targetRank = fen.charAt( i++ ) - '1';
+
+            if ( targetFile < 0 || targetFile > 7 || (targetRank != 2 && targetRank != 5) )
+                throw invalid( fen, "en passant square" );
+
+            Piece piece = board.get( Bitboards.getIndex( targetFile, targetRank == 2 ? 3 : 4 ) ).getPiece();
+
+            if ( piece instanceof Pawn )
+                enPassantPawn = (Pawn) piece;
+        }
+
+        if ( i < length && fen.charAt( i ) != ' ' )
+            throw invalid( fen, "en passant square" );
+
+        board.setEnPassantPawn( enPassantPawn );
+
+        // Halfmove clock and fullmove number (optional)
+        int halfmoveClock = 0;
+        int fullmoveNumber = 1;
+
+        i = skipSpaces( fen, i );
+
+        if ( i < length )
+        {
+            int start = i;
+
+            for ( ; i < length && fen.charAt( i ) != ' '; i++ )
+                halfmoveClock = 10 * halfmoveClock + digit( fen, i, "halfmove clock" );
+
+            if ( i - start > 6 )
+                throw invalid( fen, "halfmove clock" );
+
+            i = skipSpaces( fen, i );
+
+            if ( i < length )
+            {
+                start = i;
+                fullmoveNumber = 0;
+
+                for ( ; i < length && fen.charAt( i ) != ' '; i++ )
+                    fullmoveNumber = 10 * fullmoveNumber + digit( fen, i, "fullmove number" );
+
+                if ( fullmoveNumber == 0 || i - start > 6 )
+                    throw invalid( fen, "fullmove number" );
+
+                if ( skipSpaces( fen, i ) != length )
+                    throw new IllegalArgumentException( "FEN string '" + fen + "' must have at most six fields." );
+            }
+        }
+
+        board.setHalfmoveClock( halfmoveClock );
+        board.setFullmoveNumber( fullmoveNumber );
+    }
+
+    /**
+     * Returns the position on the given board in FEN.
+     * 
+     * @param board the chess board
+     * @return the position in FEN
+     */
+    public static String toString( Board board )
+    {
+        StringBuilder sb = new StringBuilder( 90 );
+        append( board, sb );
+        return sb.toString();
+    }
+
+    /**
+     * Appends the position on the given board, in FEN, to the given string builder.
+     * 
+     * @param board the chess board
+     * @param sb    the string builder to append to
+     */
+    public static void append( Board board, StringBuilder sb )
+    {
+        for ( int rank = 7; rank >= 0; rank-- )
+        {
+            int empty = 0;
+
+            for ( int file = 0; file < 8; file++ )
+            {
+                Piece piece = board.get( Bitboards.getIndex( file, rank ) ).getPiece();
+
+                if ( piece == null )
+                {
+                    empty++;
+                    continue;
+                }
+
+                if ( empty > 0 )
+                    sb.append( (char) ('0' + empty) );
+
+                empty = 0;
+
+                char c = TYPE_CHARS.charAt( piece.getType().ordinal() );
+                sb.append( piece.getColour() == Colour.WHITE ? Character.toUpperCase( c ) : c );
+            }
+
+            if ( empty > 0 )
+                sb.append( (char) ('0' + empty) );
+
+            if ( rank > 0 )
+                sb.append( '/' );
+        }
+
+        sb.append( ' ' ).append( board.getActiveColour() == Colour.WHITE ? 'w' : 'b' ).append( ' ' );
+
+        if ( board.getCastlingRights() == 0 )
+            sb.append( '-' );
+
+        if ( board.isWhiteKingsideCastlingAllowed() )
+            sb.append( 'K' );
+
+        if ( board.isWhiteQueensideCastlingAllowed() )
+            sb.append( 'Q' );
+
+        if ( board.isBlackKingsideCastlingAllowed() )
+            sb.append( 'k' );
+
+        if ( board.isBlackQueensideCastlingAllowed() )
+            sb.append( 'q' );
+
+        sb.append( ' ' );
+
+        Square enPassantSquare = board.getEnPassantPawn() == null ? null : board.getSquare( board.getEnPassantPawn() );
+
+        if ( enPassantSquare == null )
+        {
+            sb.append( '-' );
+        }
+        else
+        {
+            // The square the pawn passed over
+            int index = enPassantSquare.getIndex() + (board.getEnPassantPawn().getColour() == Colour.WHITE ? -1 : 1);
+
+            sb.append( (char) ('a' + Bitboards.getFile( index )) )
+              .append( (char) ('1' + Bitboards.getRank( index )) );
+        }
+
+        sb.append( ' ' ).append( board.getHalfmoveClock() ).append( ' ' ).append( board.getFullmoveNumber() );
+    }
+
+    private static int skipSpaces( CharSequence fen, int i )
+    {
+        while ( i < fen.length() && fen.charAt( i ) == ' ' )
+            i++;
+
+        return i;
+    }
+
+    private static int digit( CharSequence fen, int i, String field )
+    {
+        char c = fen.charAt( i );
+
+        if ( c < '0' || c > '9' )
+            throw invalid( fen, field );
+
+        return c - '0';
+    }
+
+    private static IllegalArgumentException invalid( CharSequence fen, String field )
+    {
+        return new IllegalArgumentException( "FEN string '" + fen + "' has an invalid " + field + "." );
+    }
+
+    /**
+     * Returns the castling rights that the pieces on the board allow: those for which the king and
+     * the rook are both on their start squares.
+     */
+    private static int getPossibleCastlingRights( Board board )
+    {
+        int rights = 0;
+
+        for ( Colour colour : COLOURS )
+        {
+            int rank = colour == Colour.WHITE ? 0 : 7;
+
+            if ( !Bitboards.contains( board.getBitboard( colour, Typ.KING ), Bitboards.getIndex( 4, rank ) ) )
+                continue;
+
+            long rooks = board.getBitboard( colour, Typ.ROOK );
+
+            if ( Bitboards.contains( rooks, Bitboards.getIndex( 0, rank ) ) )
+                rights |= colour == Colour.WHITE ? Board.WHITE_QUEENSIDE : Board.BLACK_QUEENSIDE;
+
+            if ( Bitboards.contains( rooks, Bitboards.getIndex( 7, rank ) ) )
+                rights |= colour == Colour.WHITE ? Board.WHITE_KINGSIDE : Board.BLACK_KINGSIDE;
+        }
+
+        return rights;
+    }
+
+    /**
+     * Returns a piece of the given type belonging to the given player that is not yet on the board,
+     * preferring the piece whose start square has the given index.
+     */
+    private static Piece getUnplacedPiece( Board board, Player player, Typ type, int index )
+    {
+        List<Piece> pieces = player.getPieces();
+        Piece unplaced = null;
+
+        for ( int i = 0; i < pieces.size(); i++ )
+        {
+            Piece piece = pieces.get( i );
+
+            if ( piece.getType() != type )
+                continue;
+
+            if ( piece.getStartSquare( board ).getIndex() == index )
+            {
+                if ( !board.containsPiece( piece ) )
+                    return piece;
+            }
+            else if ( unplaced == null && !board.containsPiece( piece ) )
+            {
+                unplaced = piece;
+            }
+        }
+
+        if ( unplaced == null )
+            unplaced = player.getPromotionPiece( type, board );
+
+        return unplaced;
+    }
+}
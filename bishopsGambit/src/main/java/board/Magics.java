@@ -0,0 +1,205 @@
+package main.java.board;
+
+/**
+ * Precomputed attack tables for sliding pieces, indexed by "magic" multiplication.
+ * <p>
+ * For a rook or bishop on a given square, only the occupancy of the squares along its rays
+ * (excluding the edge of the board, which never blocks anything beyond it) affects its attacks.
+ * Multiplying that relevant occupancy by a suitable constant and keeping the top bits gives a
+ * collision-free index into a per-square table, so the attack set is a single lookup.
+ * <p>
+ * The constants below were found by {@code findMagic}, which tries sparse random numbers from a
+ * fixed-seed generator until one maps every occupancy to its attack set without a harmful
+ * collision. Searching takes the best part of a second when the JVM is cold, so the results are
+ * bundled here and only the tables are built when this class is loaded; each constant is still
+ * verified as its table is filled, and any that fails is searched for again.
+ */
+class Magics
+{
+    private static final long[] ROOK_MAGICS = {
+        0x0A80004000801220L, 0x10C0100040002000L, 0x0100102000410009L, 0x0B0021000C100008L,
+        0x4080080080040002L, 0x0200019004080200L, 0x0400080A10112684L, 0x20800A4D00062080L,
+        0x2091800020804000L, 0x0044401000200040L, 0x1001002000401108L, 0x1001800801100081L,
+        0x0001000500080010L, 0x1000808002000400L, 0x0404000482100108L, 0x0003000182610002L,
+        0x0440848002C00420L, 0x2010890040010021L, 0x8800110020044300L, 0x0208010100201000L,
+        0x1222020004102008L, 0x0000808002000400L, 0x20040400094A9008L, 0x0000420000804401L,
+        0x0040002880004680L, 0x0000200240100040L, 0x0020008180201001L, 0x01080080800C1000L,
+        0x0104040080800800L, 0x4800020080040080L, 0x0002000200840108L, 0x00A1000100006082L,
+        0x8004400088800260L, 0x0100804000802008L, 0x0010008010802002L, 0x000C801000800800L,
+        0x0C51800402800800L, 0x0002800200800400L, 0x0000820804000110L, 0x4003808042000401L,
+        0x00208020C0018000L, 0x4400402010004009L, 0x22100400A800E000L, 0x0E020021400A0013L,
+        0x10A0080100110005L, 0x0004010002004040L, 0x0024080102040010L, 0x4154089108420014L,
+        0x0182400080002380L, 0x0000400110802100L, 0x0000100080200480L, 0x100A000820401200L,
+        0x8081004020801002L, 0x0002000408100200L, 0x03223A1008010C00L, 0x000000831C014200L,
+        0x4200208009001041L, 0xC001004000881021L, 0x1008200100100841L, 0x0000082240920032L,
+        0x4002000804201102L, 0xB821000804000201L, 0x4080C208102100A4L, 0x02020900418C0CA2L
+    };
+
+    private static final long[] BISHOP_MAGICS = {
+        0x0088020408042300L, 0x01280101021A0802L, 0x007204304200C420L, 0x401440408800D010L,
+        0x008510C041100004L, 0x0041112010000002L, 0x0001049804400140L, 0x0009011082200200L,
+        0x8202410802408208L, 0x00802004D0838900L, 0x0014100430404000L, 0x0000082280200060L,
+        0x0500041045010103L, 0x0800061110081000L, 0x9000004202206040L, 0x0480410048040421L,
+        0x0040000888211400L, 0x10420120C2042100L, 0x0001081001020010L, 0x201204A420220100L,
+        0x0902220400A00011L, 0x0009000200410441L, 0x0000840C22080250L, 0x2040801422082222L,
+        0x2104104020208100L, 0x00C4048002082800L, 0x0440300802008200L, 0x8820080009004008L,
+        0x1110840003802002L, 0x4208020021411480L, 0x0302008202080112L, 0x8000508401040104L,
+        0x0010042080044900L, 0x1002021001A04140L, 0x0040140200140808L, 0x0014400A00002200L,
+        0x8090020081A01004L, 0x0020080080210880L, 0x1008880100028890L, 0x00808A020010490CL,
+        0x8180840442192000L, 0x4009010820800200L, 0x0201040024028204L, 0x0010608420220400L,
+        0x0000012011000200L, 0x002109100080A102L, 0x0208081088990400L, 0x0450042688871020L,
+        0x002C024A0A600050L, 0x0802008201102000L, 0x50001C8048086212L, 0x1E04004020880180L,
+        0x1004002020410800L, 0x420120041000890AL, 0x2010301080848208L, 0x40C5014403020408L,
+        0x4040220050080830L, 0x800003004104A000L, 0x008820050080D004L, 0x8204008001420880L,
+        0x0200800510020220L, 0x0084400409101100L, 0x181012024A042402L, 0x0811041008504100L
+    };
+
+    static final Magics ROOK = new Magics( true, ROOK_MAGICS );
+    static final Magics BISHOP = new Magics( false, BISHOP_MAGICS );
+
+    private final long[] masks = new long[ 64 ];
+    private final long[] magics = new long[ 64 ];
+    private final int[] shifts = new int[ 64 ];
+    private final int[] offsets = new int[ 64 ];
+    private final long[] attacks;
+
+    private long seed;
+    private int attempt;
+
+    private Magics( boolean rook, long[] knownMagics )
+    {
+        int size = 0;
+
+        for ( int index = 0; index < 64; index++ )
+        {
+            masks[ index ] = getRelevantOccupancy( index, rook );
+            shifts[ index ] = 64 - Long.bitCount( masks[ index ] );
+            offsets[ index ] = size;
+            size += 1 << Long.bitCount( masks[ index ] );
+        }
+
+        attacks = new long[ size ];
+
+        seed = rook ? 728 : 10316;
+
+        long[] occupancies = new long[ 1 << 12 ];
+        long[] reference = new long[ 1 << 12 ];
+        int[] epoch = new int[ 1 << 12 ];
+
+        for ( int index = 0; index < 64; index++ )
+        {
+            long mask = masks[ index ];
+
+            // Enumerate every subset of the mask (the "Carry-Rippler" trick)
+            int n = 0;
+            long subset = 0;
+
+            do
+            {
+                occupancies[ n ] = subset;
+                reference[ n ] = rook ? Bitboards.slideRook( index, subset ) : Bitboards.slideBishop( index, subset );
+                n++;
+                subset = (subset - mask) & mask;
+            }
+            while ( subset != 0 );
+
+            magics[ index ] = knownMagics[ index ];
+
+            if ( !fill( index, occupancies, reference, n, epoch ) )
+                magics[ index ] = findMagic( index, occupancies, reference, n, epoch );
+        }
+    }
+
+    /**
+     * Fills the table for the square with the given <b>index</b> using its current magic.
+     * 
+     * @return {@code true} if the magic maps every occupancy to its attack set; {@code false} if
+     *         two occupancies with different attack sets collide
+     */
+    private boolean fill( int index, long[] occupancies, long[] reference, int n, int[] epoch )
+    {
+        attempt++;
+
+        for ( int i = 0; i < n; i++ )
+        {
+            int key = (int) ((occupancies[ i ] * magics[ index ]) >>> shifts[ index ]);
+
+            if ( epoch[ key ] < attempt )
+            {
+                epoch[ key ] = attempt;
+                attacks[ offsets[ index ] + key ] = reference[ i ];
+            }
+            else if ( attacks[ offsets[ index ] + key ] != reference[ i ] )
+            {
+                return false;
+            }
+        }
+
+        return true;
+    }
+
+    private long findMagic( int index, long[] occupancies, long[] reference, int n, int[] epoch )
+    {
+        long mask = masks[ index ];
+
+        while ( true )
+        {
+            // Sparse candidates (few set bits) are far more likely to work
+            do
+            {
+                magics[ index ] = nextRandom() & nextRandom() & nextRandom();
+            }
+            while ( Long.bitCount( (mask * magics[ index ]) >>> 56 ) < 6 );
+
+            if ( fill( index, occupancies, reference, n, epoch ) )
+                return magics[ index ];
+        }
+    }
+
+    /**
+     * Returns the attack set of the slider on the square with the given <b>index</b>.
+     * 
+     * @param index    the index of the slider's square
+     * @param occupied a bitboard of all occupied squares
+     * @return a bitboard of the squares attacked by the slider
+     */
+    long getAttacks( int index, long occupied )
+    {
+        long key = ((occupied & masks[ index ]) * magics[ index ]) >>> shifts[ index ];
+        return attacks[ offsets[ index ] + (int) key ];
+    }
+
+    /**
+     * Returns the squares whose occupancy affects the attacks of a slider on the square with the
+     * given <b>index</b>: its rays, less the final square of each.
+     */
+    private static long getRelevantOccupancy( int index, boolean rook )
+    {
+        long occupancy = Bitboards.EMPTY;
+
+        for ( int x = -1; x <= 1; x++ )
+        {
+            for ( int y = -1; y <= 1; y++ )
+            {
+                if ( (x == 0 && y == 0) || (rook == (x != 0 && y != 0)) )
+                    continue;
+
+                for ( int n = 1; Bitboards.travel( index, (n + 1) * x, (n + 1) * y ) != Bitboards.EMPTY; n++ )
+                    occupancy |= Bitboards.travel( index, n * x, n * y );
+            }
+        }
+
+        return occupancy;
+    }
+
+    /**
+     * Returns the next value of a xorshift64* pseudo-random number generator.
+     */
+    private long nextRandom()
+    {
+        seed ^= seed >>> 12;
+        seed ^= seed << 25;
+        seed ^= seed >>> 27;
+        return seed * 2685821657736338717L;
+    }
+}
@@ -0,0 +1,91 @@
+package main.java.board;
+
+import main.java.pieces.Piece.Typ;
+
+/**
+ * Static helpers for moves encoded as a single {@code int}, so that move lists can be stored in
+ * plain arrays. Bits 0-5 hold the index of the <i>from</i> square, bits 6-11 the index of the
+ * <i>to</i> square, and bits 12-14 the promotion type's ordinal plus one (zero if the move is not
+ * a promotion). Square indices are those returned by {@code Square.getIndex()}.
+ */
+public class Move
+{
+    /**
+     * A value that is never a valid move, since the <i>from</i> and <i>to</i> squares are equal.
+     */
+    public static final int NONE = 0;
+
+    private static final Typ[] TYPES = Typ.values();
+
+    public static int of( int from, int to )
+    {
+        return from | (to << 6);
+    }
+
+    public static int of( int from, int to, Typ promotion )
+    {
+        if ( promotion == null )
+            return of( from, to );
+
+        return from | (to << 6) | ((promotion.ordinal() + 1) << 12);
+    }
+
+    public static int of( Square from, Square to )
+    {
+        return of( from.getIndex(), to.getIndex() );
+    }
+
+    public static int getFrom( int move )
+    {
+        return move & 0x3F;
+    }
+
+    public static int getTo( int move )
+    {
+        return (move >>> 6) & 0x3F;
+    }
+
+    /**
+     * Returns the type the moving pawn is promoted to.
+     * 
+     * @param move the move
+     * @return the promotion type (if the move is a promotion); {@code null} otherwise
+     */
+    public static Typ getPromotion( int move )
+    {
+        int promotion = (move >>> 12) & 0x7;
+        return promotion == 0 ? null : TYPES[ promotion - 1 ];
+    }
+
+    public static boolean isPromotion( int move )
+    {
+        return (move >>> 12) != 0;
+    }
+
+    /**
+     * Returns the given move in Universal Chess Interface (UCI) notation, e.g. "e2e4" or "b7a8q".
+     * 
+     * @param move the move
+     * @return the move in UCI notation
+     */
+    public static String toString( int move )
+    {
+        StringBuilder sb = new StringBuilder( 5 );
+
+        appendSquare( sb, getFrom( move ) );
+        appendSquare( sb, getTo( move ) );
+
+        Typ promotion = getPromotion( move );
+
+        if ( promotion != null )
+            sb.append( promotion == Typ.KNIGHT ? 'n' : Character.toLowerCase( promotion.toString().charAt( 0 ) ) );
+
+        return sb.toString();
+    }
+
+    private static void appendSquare( StringBuilder sb, int index )
+    {
+        sb.append( (char) ('a' + Bitboards.getFile( index )) )
+          .append( (char) ('1' + Bitboards.getRank( index )) );
+    }
+}
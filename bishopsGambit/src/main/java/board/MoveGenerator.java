@@ -0,0 +1,259 @@
+package main.java.board;
+
+import main.java.pieces.Piece.Typ;
+import main.java.player.Player.Colour;
+
+/**
+ * Generates strictly legal moves directly from a board's bitboards.
+ * <p>
+ * Rather than trying each pseudo-legal move and testing whether it leaves the king in check, the
+ * pieces giving check and the pieces pinned to the king are found once per position:
+ * <ul>
+ * <li>In double check, only the king may move.</li>
+ * <li>In single check, every other piece must capture the checker or block its ray (the <i>check
+ * mask</i>).</li>
+ * <li>A pinned piece may only move along the line through the king and the pinning piece.</li>
+ * <li>The king may only move to squares that are not attacked once it has left its square.</li>
+ * </ul>
+ * En passant is the one move that removes two pieces from a rank, so it is checked separately by
+ * looking for sliding attacks on the king with both pawns removed.
+ */
+public class MoveGenerator
+{
+    /**
+     * An upper bound on the number of legal moves in any position.
+     */
+    public static final int MAX_MOVES = 256;
+
+    private static final Typ[] PROMOTION_TYPES = { Typ.QUEEN, Typ.ROOK, Typ.BISHOP, Typ.KNIGHT };
+
+    /**
+     * Generates all legal moves for the player to move, storing them in <b>moves</b>.
+     * 
+     * @param board the chess board
+     * @param moves an array of at least {@code MAX_MOVES} elements to store the moves in
+     * @return the number of moves generated
+     */
+    public static int generateLegalMoves( Board board, int[] moves )
+    {
+        return generateLegalMoves( board, board.getActiveColour(), moves );
+    }
+
+    /**
+     * Generates all legal moves for the pieces of the given colour, storing them in <b>moves</b>.
+     * Each move is encoded as described in {@code Move}. A pawn reaching its last rank produces one
+     * move per promotion type.
+     * 
+     * @param board  the chess board
+     * @param colour the colour of the player whose moves are generated
+     * @param moves  an array of at least {@code MAX_MOVES} elements to store the moves in
+     * @return the number of moves generated
+     */
+    public static int generateLegalMoves( Board board, Colour colour, int[] moves )
+    {
+        Colour opponent = colour.transpose();
+
+        long occupied = board.getOccupied();
+        long own = board.getBitboard( colour );
+
+        long kingBitboard = board.getBitboard( colour, Typ.KING );
+
+        if ( kingBitboard == 0 )
+            return 0;
+
+        int king = Long.numberOfTrailingZeros( kingBitboard );
+
+        int n = 0;
+
+        // King moves; the king itself is removed so it cannot hide behind its own square
+        long withoutKing = occupied ^ kingBitboard;
+
+        for ( long bb = Bitboards.kingAttacks( king ) & ~own; bb != 0; bb &= bb - 1 )
+        {
+            int to = Long.numberOfTrailingZeros( bb );
+
+            if ( !board.isAttacked( to, opponent, withoutKing ) )
+                moves[ n++ ] = Move.of( king, to );
+        }
+
+        long checkers = board.getAttackers( king, opponent, occupied );
+
+        // In double check, only the king may move
+        if ( Long.bitCount( checkers ) > 1 )
+            return n;
+
+        long checkMask = ~Bitboards.EMPTY;
+
+        if ( checkers != 0 )
+        {
+            int checker = Long.numberOfTrailingZeros( checkers );
+            checkMask = checkers | Bitboards.between( king, checker );
+        }
+        else
+        {
+            n = generateCastlingMoves( board, colour, king, moves, n );
+        }
+
+        // Pieces pinned to the king
+        long pinned = Bitboards.EMPTY;
+
+        long rookSnipers = Bitboards.rookAttacks( king, Bitboards.EMPTY ) &
+                           (board.getBitboard( opponent, Typ.ROOK ) | board.getBitboard( opponent, Typ.QUEEN ));
+        long bishopSnipers = Bitboards.bishopAttacks( king, Bitboards.EMPTY ) &
+                             (board.getBitboard( opponent, Typ.BISHOP ) | board.getBitboard( opponent, Typ.QUEEN ));
+
+        for ( long bb = rookSnipers | bishopSnipers; bb != 0; bb &= bb - 1 )
+        {
+            int sniper = Long.numberOfTrailingZeros( bb );
+            long blockers = Bitboards.between( king, sniper ) & occupied;
+
+            if ( Long.bitCount( blockers ) == 1 && (blockers & own) != 0 )
+                pinned |= blockers;
+        }
+
+        // All other pieces
+        for ( long bb = own & ~kingBitboard; bb != 0; bb &= bb - 1 )
+        {
+            int from = Long.numberOfTrailingZeros( bb );
+
+            long mask = checkMask;
+
+            // A pinned piece may only move along the line through the king and the pinning piece
+            if ( (pinned & Bitboards.bit( from )) != 0 )
+                mask &= Bitboards.line( king, from );
+
+            Square square = board.get( from );
+
+            if ( square.getPiece().getType() == Typ.PAWN )
+            {
+                n = generatePawnMoves( board, colour, from, king, mask, moves, n );
+            }
+            else
+            {
+                long targets = square.getPiece().getAttacks( from, occupied ) & ~own & mask;
+
+                for ( long t = targets; t != 0; t &= t - 1 )
+                    moves[ n++ ] = Move.of( from, Long.numberOfTrailingZeros( t ) );
+            }
+        }
+
+        return n;
+    }
+
+    /**
+     * Returns a bitboard of all squares the piece on the square with the given <b>index</b> can
+     * legally move to.
+     * 
+     * @param board the chess board
+     * @param index the index of the square the piece is standing on
+     * @return a bitboard of all squares the piece can legally move to
+     */
+    public static long getLegalTargets( Board board, int index )
+    {
+        Square square = board.get( index );
+
+        if ( !square.isOccupied() )
+            return Bitboards.EMPTY;
+
+        int[] moves = new int[ MAX_MOVES ];
+        int n = generateLegalMoves( board, square.getPiece().getColour(), moves );
+
+        long targets = Bitboards.EMPTY;
+
+        for ( int i = 0; i < n; i++ )
+            if ( Move.getFrom( moves[ i ] ) == index )
+                targets |= Bitboards.bit( Move.getTo( moves[ i ] ) );
+
+        return targets;
+    }
+
+    private static int generatePawnMoves( Board board, Colour colour, int from, int king, long mask, int[] moves, int n )
+    {
+        Colour opponent = colour.transpose();
+        long occupied = board.getOccupied();
+
+        int y = colour == Colour.WHITE ? 1 : -1;
+        int startRank = colour == Colour.WHITE ? 1 : 6;
+
+        // Move forward one or two squares
+        long single = Bitboards.travel( from, 0, y ) & ~occupied;
+        long targets = single;
+
+        if ( single != 0 && Bitboards.getRank( from ) == startRank )
+            targets |= Bitboards.travel( from, 0, 2 * y ) & ~occupied;
+
+        // Capture diagonally
+        targets |= Bitboards.pawnAttacks( colour, from ) & board.getBitboard( opponent );
+
+        for ( long t = targets & mask; t != 0; t &= t - 1 )
+        {
+            int to = Long.numberOfTrailingZeros( t );
+            int rank = Bitboards.getRank( to );
+
+            if ( rank == 0 || rank == 7 )
+                for ( Typ promotion : PROMOTION_TYPES )
+                    moves[ n++ ] = Move.of( from, to, promotion );
+            else
+                moves[ n++ ] = Move.of( from, to );
+        }
+
+        // En passant
+        Square enPassantSquare = board.getEnPassantPawn() == null ? null : board.getEnPassantPawn().getSquare( board );
+
+        if ( enPassantSquare != null && board.getEnPassantPawn().getColour() == opponent )
+        {
+            int captured = enPassantSquare.getIndex();
+            int to = captured + y;
+
+            if ( (Bitboards.pawnAttacks( colour, from ) & Bitboards.bit( to )) != 0 )
+            {
+                // Both pawns leave their squares and the capturing pawn arrives on 'to'
+                long after = (occupied ^ Bitboards.bit( from ) ^ Bitboards.bit( captured )) | Bitboards.bit( to );
+
+                if ( (board.getAttackers( king, opponent, after ) & ~Bitboards.bit( captured )) == 0 )
+                    moves[ n++ ] = Move.of( from, to );
+            }
+        }
+
+        return n;
+    }
+
+    private static int generateCastlingMoves( Board board, Colour colour, int king, int[] moves, int n )
+    {
+        Colour opponent = colour.transpose();
+        long occupied = board.getOccupied();
+        long rooks = board.getBitboard( colour, Typ.ROOK );
+
+        int queenside = colour == Colour.WHITE ? Board.WHITE_QUEENSIDE : Board.BLACK_QUEENSIDE;
+        int kingside = colour == Colour.WHITE ? Board.WHITE_KINGSIDE : Board.BLACK_KINGSIDE;
+
+        // The king only castles from its start square, whatever the castling rights say
+        if ( king != Bitboards.getIndex( 4, colour == Colour.WHITE ? 0 : 7 ) )
+            return n;
+
+        for ( int x : new int[] { -1, 1 } )
+        {
+            int right = x < 0 ? queenside : kingside;
+
+            if ( (board.getCastlingRights() & right) == 0 )
+                continue;
+
+            int rook = Bitboards.getIndex( x < 0 ? 0 : 7, Bitboards.getRank( king ) );
+
+            if ( (rooks & Bitboards.bit( rook )) == 0 )
+                continue;
+
+            int k1 = king + 8 * x; // One square adjacent to king (rook moves here)
+            int k2 = king + 16 * x; // Two squares adjacent to king (king moves here)
+
+            if ( (Bitboards.between( king, rook ) & occupied) == 0 &&
+                 !board.isAttacked( k1, opponent ) &&
+                 !board.isAttacked( k2, opponent ) )
+            {
+                moves[ n++ ] = Move.of( king, k2 );
+            }
+        }
+
+        return n;
+    }
+}
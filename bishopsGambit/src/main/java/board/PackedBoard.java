@@ -0,0 +1,144 @@
+package main.java.board;
+
+import java.util.List;
+
+import main.java.pieces.Pawn;
+import main.java.pieces.Piece;
+import main.java.player.Player;
+import main.java.player.Player.Colour;
+
+/**
+ * An immutable, compact copy of the position on a {@code Board}, for keeping the history of a game
+ * without keeping a full board (64 squares and their list) for every turn.
+ * <p>
+ * Each piece a player has ever had is listed by {@code Player.getPieces()}, in the order it was
+ * created, and no piece is ever removed from that list. A position is therefore stored as the
+ * number of White's pieces, one byte per piece (the index of its square, or -1 if it is not on the
+ * board), White's pieces first, then one byte for the castling rights and side to move, one for
+ * the square of the en passant pawn and two each for the halfmove clock and fullmove number. A
+ * position without promotions takes 39 bytes plus the array header. Inflating it with the same
+ * players puts the very same {@code Piece} objects back on their squares; pieces created after it
+ * was packed (by promotion) are left off the board.
+ */
+public class PackedBoard
+{
+    private static final int BLACK_TO_MOVE = 1 << 4;
+
+    /**
+     * The number of bytes following the pieces.
+     */
+    private static final int STATE_SIZE = 6;
+
+    private final byte[] data;
+
+    /**
+     * Packs the position on the given board, whose pieces must all belong to one of the given
+     * players.
+     * 
+     * @param board the board holding the position
+     * @param white the player with the white pieces
+     * @param black the player with the black pieces
+     */
+    public PackedBoard( Board board, Player white, Player black )
+    {
+        // Search threads may add promoted pieces to these lists, so each is read exactly once
+        Piece[] whitePieces = white.getPieces().toArray( new Piece[ 0 ] );
+        Piece[] blackPieces = black.getPieces().toArray( new Piece[ 0 ] );
+
+        int n = 1 + whitePieces.length + blackPieces.length;
+        data = new byte[ n + STATE_SIZE ];
+        data[ 0 ] = (byte) whitePieces.length;
+
+        int i = 1;
+
+        for ( Piece piece : whitePieces )
+            data[ i++ ] = getIndex( board, piece );
+
+        for ( Piece piece : blackPieces )
+            data[ i++ ] = getIndex( board, piece );
+
+        int state = board.getCastlingRights();
+
+        if ( board.getActiveColour() == Colour.BLACK )
+            state |= BLACK_TO_MOVE;
+
+        data[ n ] = (byte) state;
+        data[ n + 1 ] = board.getEnPassantPawn() == null ? -1 : getIndex( board, board.getEnPassantPawn() );
+
+        putShort( n + 2, board.getHalfmoveClock() );
+        putShort( n + 4, board.getFullmoveNumber() );
+    }
+
+    private void putShort( int i, int value )
+    {
+        int clamped = Math.min( value, 0xFFFF );
+        data[ i ] = (byte) (clamped >>> 8);
+        data[ i + 1 ] = (byte) clamped;
+    }
+
+    private int getShort( int i )
+    {
+        return ((data[ i ] & 0xFF) << 8) | (data[ i + 1 ] & 0xFF);
+    }
+
+    private static byte getIndex( Board board, Piece piece )
+    {
+        Square square = board.getSquare( piece );
+        return (byte) (square == null ? -1 : square.getIndex());
+    }
+
+    /**
+     * Creates a new board holding the packed position, using the pieces of the given players (which
+     * must be the players this position was packed with).
+     * 
+     * @param white the player with the white pieces
+     * @param black the player with the black pieces
+     * @return a new board holding the packed position
+     */
+    public Board toBoard( Player white, Player black )
+    {
+        Board board = new Board();
+
+        int whiteCount = data[ 0 ] & 0xFF;
+        int n = data.length - STATE_SIZE;
+
+        putPieces( board, white.getPieces(), 1, whiteCount );
+        putPieces( board, black.getPieces(), 1 + whiteCount, n - 1 - whiteCount );
+
+        board.setActiveColour( (data[ n ] & BLACK_TO_MOVE) == 0 ? Colour.WHITE : Colour.BLACK );
+        board.setCastlingRights( data[ n ] & ~BLACK_TO_MOVE );
+
+        if ( data[ n + 1 ] >= 0 )
+            board.setEnPassantPawn( (Pawn) board.get( data[ n + 1 ] ).getPiece() );
+
+        board.setHalfmoveClock( getShort( n + 2 ) );
+        board.setFullmoveNumber( getShort( n + 4 ) );
+
+        return board;
+    }
+
+    /**
+     * Puts the first <b>count</b> of the given pieces on the squares recorded for them, starting at
+     * position <b>offset</b> in the data.
+     */
+    private void putPieces( Board board, List<Piece> pieces, int offset, int count )
+    {
+        for ( int i = 0; i < count; i++ )
+        {
+            int index = data[ offset + i ];
+
+            if ( index >= 0 )
+                board.putPiece( pieces.get( i ), index );
+        }
+    }
+
+    /**
+     * Returns the number of bytes used by the packed position (excluding object headers).
+     * 
+     * @return the number of bytes used by the packed position
+     */
+    public int getSize()
+    {
+        return data.length;
+    }
+}
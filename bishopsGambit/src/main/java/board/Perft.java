@@ -0,0 +1,213 @@
+package main.java.board;
+
+import java.util.Arrays;
+
+import main.java.board.Board.Undo;
+import main.java.player.Player;
+import main.java.player.Player.Colour;
+
+/**
+ * Performance test ("perft") for the move generator: counts the leaf nodes of the tree of legal
+ * moves to a fixed depth. Since the counts for many positions are well known, any difference from
+ * them points to a bug in move generation or in {@code Board.makeMove}/{@code unmakeMove}, and the
+ * time taken measures their speed.
+ * <p>
+ * Run with no arguments to check every reference {@code Position}, or with a depth and FEN string
+ * to print a "divide" breakdown of the node count by first move, e.g.
+ * 
+ * <pre>
+ * java main.java.board.Perft 5 "r3k2r/p1ppqpb1/bn2pnp1/3PN3/1p2P3/2N2Q1p/PPPBBPPP/R3K2R w KQkq -"
+ * </pre>
+ */
+public class Perft
+{
+    private final Board board;
+
+    /**
+     * One move list per ply, so that counting does not allocate.
+     */
+    private int[][] moves = new int[ 0 ][];
+
+    public Perft( Board board )
+    {
+        this.board = board;
+    }
+
+    public Perft( String fen )
+    {
+        this( Fen.toBoard( fen, new Player( Colour.WHITE ), new Player( Colour.BLACK ) ) );
+    }
+
+    /**
+     * Counts the leaf nodes of the tree of legal moves from the current position to the given
+     * depth. The board is left unchanged.
+     * 
+     * @param depth the depth, in plies
+     * @return the number of leaf nodes
+     */
+    public long perft( int depth )
+    {
+        if ( moves.length < depth )
+        {
+            moves = new int[ depth ][];
+
+            for ( int ply = 0; ply < depth; ply++ )
+                moves[ ply ] = new int[ MoveGenerator.MAX_MOVES ];
+        }
+
+        return depth == 0 ? 1 : perft( depth, 0 );
+    }
+
+    private long perft( int depth, int ply )
+    {
+        int[] list = moves[ ply ];
+        int n = MoveGenerator.generateLegalMoves( board, list );
+
+        // Every legal move at the last ply is a leaf, so there is no need to make them
+        if ( depth == 1 )
+            return n;
+
+        long nodes = 0;
+
+        for ( int i = 0; i < n; i++ )
+        {
+            Undo undo = board.makeMove( list[ i ] );
+            nodes += perft( depth - 1, ply + 1 );
+            board.unmakeMove( undo );
+        }
+
+        return nodes;
+    }
+
+    /**
+     * Counts the leaf nodes to the given depth, printing the count below each legal move in the
+     * current position ("divide"), followed by the total, the time taken and the speed in nodes per
+     * second.
+     * 
+     * @param depth the depth, in plies (at least 1)
+     * @return the number of leaf nodes
+     */
+    public long divide( int depth )
+    {
+        int[] list = new int[ MoveGenerator.MAX_MOVES ];
+        int n = MoveGenerator.generateLegalMoves( board, list );
+
+        long start = System.nanoTime();
+        long nodes = 0;
+
+        for ( int i = 0; i < n; i++ )
+        {
+            Undo undo = board.makeMove( list[ i ] );
+            long count = perft( depth - 1 );
+            board.unmakeMove( undo );
+
+            System.out.printf( "%s: %d%n", Move.toString( list[ i ] ), count );
+            nodes += count;
+        }
+
+        long nanos = System.nanoTime() - start;
+
+        System.out.println();
+        System.out.printf( "Moves: %d%n", n );
+        System.out.printf( "Nodes: %d%n", nodes );
+        printSpeed( nodes, nanos );
+
+        return nodes;
+    }
+
+    private static void printSpeed( long nodes, long nanos )
+    {
+        System.out.printf( "Time: %.3f s (%,.0f nodes/s)%n", nanos / 1e9, nodes / Math.max( nanos / 1e9, 1e-9 ) );
+    }
+
+    public static void main( String[] args )
+    {
+        if ( args.length >= 1 )
+        {
+            int depth = Integer.parseInt( args[ 0 ] );
+            String fen = args.length >= 2 ? String.join( " ", Arrays.copyOfRange( args, 1, args.length ) ) : Fen.START_POSITION;
+            new Perft( fen ).divide( depth );
+            return;
+        }
+
+        long totalNodes = 0;
+        long totalNanos = 0;
+        boolean passed = true;
+
+        for ( Position position : Position.values() )
+        {
+            Perft perft = new Perft( position.getFen() );
+            long[] expected = position.getNodes();
+
+            for ( int depth = 1; depth <= expected.length; depth++ )
+            {
+                long start = System.nanoTime();
+                long nodes = perft.perft( depth );
+                long nanos = System.nanoTime() - start;
+
+                boolean ok = nodes == expected[ depth - 1 ];
+                passed &= ok;
+
+                totalNodes += nodes;
+                totalNanos += nanos;
+
+                System.out.printf( "%-20s depth %d: %,14d %s%n",
+                                   position,
+                                   depth,
+                                   nodes,
+                                   ok ? "ok" : "FAILED (expected " + expected[ depth - 1 ] + ")" );
+            }
+        }
+
+        System.out.println();
+        System.out.printf( "Nodes: %d%n", totalNodes );
+        printSpeed( totalNodes, totalNanos );
+        System.out.println( passed ? "All counts match." : "Some counts do not match." );
+    }
+
+    /**
+     * The standard perft reference positions, with their known node counts at depths 1, 2, ...
+     */
+    public enum Position
+    {
+        INITIAL( Fen.START_POSITION,
+                 20, 400, 8902, 197281, 4865609 ),
+
+        KIWIPETE( "r3k2r/p1ppqpb1/bn2pnp1/3PN3/1p2P3/2N2Q1p/PPPBBPPP/R3K2R w KQkq - 0 1",
+                  48, 2039, 97862, 4085603 ),
+
+        POSITION_3( "8/2p5/3p4/KP5r/1R3p1k/8/4P1P1/8 w - - 0 1",
+                    14, 191, 2812, 43238, 674624 ),
+
+        POSITION_4( "r3k2r/Pppp1ppp/1b3nbN/nP6/BBP1P3/q4N2/Pp1P2PP/R2Q1RK1 w kq - 0 1",
+                    6, 264, 9467, 422333 ),
+
+        POSITION_4_MIRRORED( "r2q1rk1/pP1p2pp/Q4n2/bbp1p3/Np6/1B3NBn/pPPP1PPP/R3K2R b KQ - 0 1",
+                             6, 264, 9467, 422333 ),
+
+        POSITION_5( "rnbq1k1r/pp1Pbppp/2p5/8/2B5/8/PPP1NnPP/RNBQK2R w KQ - 1 8",
+                    44, 1486, 62379, 2103487 ),
+
+        POSITION_6( "r4rk1/1pp1qppp/p1np1n2/2b1p1B1/2B1P1b1/P1NP1N2/1PP1QPPP/R4RK1 w - - 0 10",
+                    46, 2079, 89890, 3894594 );
+
+        private final String fen;
+        private final long[] nodes;
+
+        private Position( String fen, long... nodes )
+        {
+            this.fen = fen;
+            this.nodes = nodes;
+        }
+
+        public String getFen()
+        {
+            return this.fen;
+        }
+
+        public long[] getNodes()
+        {
+            return this.nodes.clone();
+        }
+    }
+}
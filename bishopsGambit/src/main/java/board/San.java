@@ -0,0 +1,283 @@
+package main.java.board;
+
+import main.java.pieces.Pawn;
+import main.java.pieces.Piece.Typ;
+import main.java.player.Player.Colour;
+
+/**
+ * Reads moves in Standard Algebraic Notation (SAN), e.g. {@code e4}, {@code Nbd7}, {@code exd5},
+ * {@code R1a3}, {@code e8=Q+} or {@code O-O-O}.
+ * <p>
+ * The text is parsed into the moving piece's type, the destination square and whatever
+ * disambiguating file, rank and promotion type it gives. Rather than generating every legal move,
+ * the pieces that could make the move are found by looking back from the destination square (as
+ * {@code Board.isAttacked} does), and each is checked by testing whether the king would be attacked
+ * with the occupied squares as they would be after the move; the board itself is not changed.
+ * Castling is the exception: it is looked up among the moves of {@code MoveGenerator}, which
+ * already checks its many conditions.
+ * <p>
+ * Exactly one legal move must match; the text is not required to be minimal, so {@code Ng1f3} and
+ * {@code Ng1-f3} are also accepted, as are castling written with zeros ({@code 0-0}), a promotion
+ * without the '=' ({@code e8Q}) and trailing check, mate and annotation marks ({@code +},
+ * {@code #}, {@code !}, {@code ?}). A pawn capture, en passant included, must give the file the
+ * pawn captures from ({@code exd5}), and a pawn move without one is a push. No substrings or other
+ * intermediate objects are created.
+ */
+public class San
+{
+    /**
+     * The SAN letter of each piece type, indexed by ordinal. Pawns have no letter.
+     */
+    private static final String TYPE_CHARS = "KQRBN";
+
+    private static final Typ[] TYPES = Typ.values();
+
+    /**
+     * Returns the legal move described by the given SAN text. See {@code toMove(Board,
+     * CharSequence, int[])} for details.
+     * 
+     * @param board the chess board
+     * @param san   the move in SAN
+     * @return the move, encoded as described in {@code Move}
+     * @throws IllegalArgumentException if the text is malformed, or does not describe exactly one
+     *                                  legal move
+     */
+    public static int toMove( Board board, CharSequence san )
+    {
+        return toMove( board, san, new int[ MoveGenerator.MAX_MOVES ] );
+    }
+
+    /**
+     * Returns the legal move described by the given SAN text for the player to move on the given
+     * board. The board is left unchanged.
+     * 
+     * @param board the chess board
+     * @param san   the move in SAN
+     * @param moves an array of at least {@code MoveGenerator.MAX_MOVES} elements to generate the
+     *              legal moves in when castling, so that repeated calls do not allocate
+     * @return the move, encoded as described in {@code Move}
+     * @throws IllegalArgumentException if the text is malformed, or does not describe exactly one
+     *                                  legal move
+     */
+    public static int toMove( Board board, CharSequence san, int[] moves )
+    {
+        int end = san.length();
+
+        // Check, mate and annotation marks
+        while ( end > 0 && "+#!?".indexOf( san.charAt( end - 1 ) ) >= 0 )
+            end--;
+
+        Colour colour = board.getActiveColour();
+        int castling = getCastling( san, end );
+
+        if ( castling != 0 )
+        {
+            long king = board.getBitboard( colour, Typ.KING );
+
+            if ( king != Bitboards.EMPTY )
+            {
+                // The king moves two files towards the rook
+                int from = Long.numberOfTrailingZeros( king );
+                int to = from + 16 * castling;
+                int n = MoveGenerator.generateLegalMoves( board, moves );
+
+                for ( int j = 0; j < n; j++ )
+                    if ( Move.getFrom( moves[ j ] ) == from && Move.getTo( moves[ j ] ) == to )
+                        return moves[ j ];
+            }
+
+            throw illegal( san );
+        }
+
+        int i = 0;
+        Typ type = Typ.PAWN;
+        Typ promotion = null;
+
+        if ( end > 0 && TYPE_CHARS.indexOf( san.charAt( 0 ) ) >= 0 )
+            type = TYPES[ TYPE_CHARS.indexOf( san.charAt( i++ ) ) ];
+
+        if ( type == Typ.PAWN && end > 0 && TYPE_CHARS.indexOf( san.charAt( end - 1 ) ) > 0 )
+        {
+            promotion = TYPES[ TYPE_CHARS.indexOf( san.charAt( --end ) ) ];
+
+            if ( end > 0 && san.charAt( end - 1 ) == '=' )
+                end--;
+        }
+
+        if ( end - i < 2 || !isFile( san.charAt( end - 2 ) ) || !isRank( san.charAt( end - 1 ) ) )
+            throw new IllegalArgumentException( "SAN move '" + san + "' must end with a valid square." );
+
+        int to = Bitboards.getIndex( san.charAt( end - 2 ) - 'a', san.charAt( end - 1 ) - '1' );
+        long origins = getOrigins( board, colour, type, to, promotion );
+
+        // Disambiguation and the capture mark
+        boolean file = false;
+        boolean rank = false;
+
+        for ( ; i < end - 2; i++ )
+        {
+            char c = san.charAt( i );
+
+            if ( isFile( c ) && !file && !rank )
+            {
+                origins &= Bitboards.FILE_A << 8 * (c - 'a');
+                file = true;
+            }
+            else if ( isRank( c ) && !rank )
+            {
+                origins &= Bitboards.RANK_1 << (c - '1');
+                rank = true;
+            }
+            else if ( c != 'x' && c != ':' && c != '-' )
+            {
+                throw new IllegalArgumentException( "SAN move '" + san + "' has an unexpected character '" + c + "'." );
+            }
+        }
+
+        // A pawn move without a file is a push, so that e.g. 'd5' cannot be read as 'exd5'
+        if ( type == Typ.PAWN && !file )
+            origins &= Bitboards.FILE_A << 8 * Bitboards.getFile( to );
+
+        int match = Move.NONE;
+
+        for ( ; origins != 0; origins &= origins - 1 )
+        {
+            int from = Long.numberOfTrailingZeros( origins );
+
+            if ( !isLegal( board, colour, type, from, to ) )
+                continue;
+
+            int move = Move.of( from, to, promotion );
+
+            if ( match != Move.NONE )
+                throw new IllegalArgumentException( "SAN move '" + san + "' is ambiguous." );
+
+            match = move;
+        }
+
+        if ( match == Move.NONE )
+            throw illegal( san );
+
+        return match;
+    }
+
+    /**
+     * Returns a bitboard of the pieces of the given <b>type</b> and <b>colour</b> that could move to
+     * the square with the given index (promoting to the given type), ignoring whether the move
+     * would leave their king in check.
+     */
+    private static long getOrigins( Board board, Colour colour, Typ type, int to, Typ promotion )
+    {
+        if ( Bitboards.contains( board.getBitboard( colour ), to ) )
+            return Bitboards.EMPTY;
+
+        long pieces = board.getBitboard( colour, type );
+        long occupied = board.getOccupied();
+
+        return switch ( type )
+        {
+            case KING -> Bitboards.kingAttacks( to ) & pieces;
+            case QUEEN -> Bitboards.queenAttacks( to, occupied ) & pieces;
+            case ROOK -> Bitboards.rookAttacks( to, occupied ) & pieces;
+            case BISHOP -> Bitboards.bishopAttacks( to, occupied ) & pieces;
+            case KNIGHT -> Bitboards.knightAttacks( to ) & pieces;
+            case PAWN -> getPawnOrigins( board, colour, to, promotion, pieces, occupied );
+        };
+    }
+
+    private static long getPawnOrigins( Board board, Colour colour, int to, Typ promotion, long pawns, long occupied )
+    {
+        int y = colour == Colour.WHITE ? 1 : -1;
+        int rank = Bitboards.getRank( colour == Colour.WHITE ? to : to ^ 7 );
+
+        // A pawn must promote on, and only on, its last rank
+        if ( (rank == 7) != (promotion != null) || rank < 2 )
+            return Bitboards.EMPTY;
+
+        long captures = Bitboards.pawnAttacks( colour.transpose(), to ) & pawns;
+
+        if ( Bitboards.contains( occupied, to ) )
+            return captures;
+
+        long origins = Bitboards.EMPTY;
+
+        if ( Bitboards.contains( pawns, to - y ) )
+            origins |= Bitboards.bit( to - y );
+        else if ( rank == 3 && !Bitboards.contains( occupied, to - y ) && Bitboards.contains( pawns, to - 2 * y ) )
+            origins |= Bitboards.bit( to - 2 * y );
+
+        // En passant, past the pawn that has just advanced two squares
+        Pawn enPassantPawn = board.getEnPassantPawn();
+
+        if ( enPassantPawn != null && board.get( to - y ).getPiece() == enPassantPawn )
+            origins |= captures;
+
+        return origins;
+    }
+
+    /**
+     * Returns a boolean indicating whether moving the piece of the given <b>type</b> from the
+     * square with index <b>from</b> to the square with index <b>to</b> leaves its king unattacked.
+     * The move must be one of those given by {@code getOrigins}.
+     */
+    private static boolean isLegal( Board board, Colour colour, Typ type, int from, int to )
+    {
+        long kingBitboard = board.getBitboard( colour, Typ.KING );
+
+        if ( kingBitboard == Bitboards.EMPTY )
+            return true;
+
+        Colour opponent = colour.transpose();
+        int captured = to;
+
+        // A pawn moving diagonally to an empty square captures en passant
+        if ( type == Typ.PAWN && !Bitboards.contains( board.getOccupied(), to )
+            && Bitboards.getFile( from ) != Bitboards.getFile( to ) )
+            captured = Bitboards.getIndex( Bitboards.getFile( to ), Bitboards.getRank( from ) );
+
+        long occupied = (board.getOccupied() & ~Bitboards.bit( from ) & ~Bitboards.bit( captured )) | Bitboards.bit( to );
+
+        if ( type == Typ.KING )
+            return !board.isAttacked( to, opponent, occupied );
+
+        int king = Long.numberOfTrailingZeros( kingBitboard );
+        return (board.getAttackers( king, opponent, occupied ) & ~Bitboards.bit( captured )) == 0;
+    }
+
+    /**
+     * Returns the direction in which the king castles in the first <b>end</b> characters of the
+     * given text: 1 for kingside ({@code O-O}), -1 for queenside ({@code O-O-O}), and 0 if the text
+     * does not describe castling.
+     */
+    private static int getCastling( CharSequence san, int end )
+    {
+        if ( end != 3 && end != 5 )
+            return 0;
+
+        char o = san.charAt( 0 );
+
+        if ( o != 'O' && o != '0' )
+            return 0;
+
+        for ( int i = 1; i < end; i++ )
+            if ( san.charAt( i ) != (i % 2 == 0 ? o : '-') )
+                return 0;
+
+        return end == 3 ? 1 : -1;
+    }
+
+    private static boolean isFile( char c )
+    {
+        return 'a' <= c && c <= 'h';
+    }
+
+    private static boolean isRank( char c )
+    {
+        return '1' <= c && c <= '8';
+    }
+
+    private static IllegalArgumentException illegal( CharSequence san )
+    {
+        return new IllegalArgumentException( "SAN move '" + san + "' is not legal in this position." );
+    }
+}
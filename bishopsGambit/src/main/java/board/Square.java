@@ -101,10 +101,7 @@ public class Square
      */
     public boolean isTargeted( Player player, Board board )
     {
-        return board.getPieces()
-                    .stream()
-                    .filter( pc -> pc.getPlayer() != player )
-                    .anyMatch( pc -> pc.isTargeting( this, board ) );
+        return board.isAttacked( getIndex(), player.getColour().transpose() );
     }
 
     public boolean isOnLastRank( Player player )
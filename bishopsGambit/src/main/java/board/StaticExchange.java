@@ -0,0 +1,126 @@
+package main.java.board;
+
+import main.java.pieces.Piece;
+import main.java.pieces.Piece.Typ;
+import main.java.player.Player.Colour;
+
+/**
+ * Static exchange evaluation (SEE): the material won or lost by a capture once every recapture on
+ * the same square has been played out, each player capturing with their least valuable attacker
+ * and being free to stop capturing when that is better for them.
+ * <p>
+ * No moves are made on the board: the attackers of the square are found with
+ * {@code Board.getAttackers}, with the pieces that have already captured removed from the occupied
+ * squares, so that sliding pieces behind them (x-rays) join the exchange. The exchange is resolved
+ * recursively, one capture per level, so evaluating it does not allocate.
+ * <p>
+ * Pins and checks other than those on the king are ignored, so the result is an estimate.
+ */
+public class StaticExchange
+{
+    /**
+     * The attackers tried in turn: least valuable first.
+     */
+    private static final Typ[] ATTACKERS = { Typ.PAWN, Typ.KNIGHT, Typ.BISHOP, Typ.ROOK, Typ.QUEEN, Typ.KING };
+
+    /**
+     * Evaluates the exchange started by the given move, which may also be a quiet move (in which
+     * case the exchange is of the moved piece alone).
+     * 
+     * @param board the board, with the position the move is to be made from
+     * @param move  the move, encoded as described in {@code Move}
+     * @return the material gained by the player making the move once the exchange is over, in pawns
+     *         (by {@code Piece.getValue()}); negative if material is lost
+     */
+    public static int evaluate( Board board, int move )
+    {
+        int from = Move.getFrom( move );
+        int to = Move.getTo( move );
+
+        Piece piece = board.get( from ).getPiece();
+        Piece captured = board.get( to ).getPiece();
+
+        long occupied = board.getOccupied() ^ Bitboards.bit( from );
+        int gain = captured == null ? 0 : captured.getValue();
+
+        boolean pawn = Bitboards.contains( board.getBitboard( piece.getColour(), Typ.PAWN ), from );
+
+        if ( captured == null && pawn && Bitboards.getFile( from ) != Bitboards.getFile( to ) )
+        {
+            // En passant; the captured pawn is beside the moving pawn
+            gain = 1;
+            occupied ^= Bitboards.bit( Bitboards.getIndex( Bitboards.getFile( to ), Bitboards.getRank( from ) ) );
+        }
+
+        // The value of the piece left standing on the square
+        int value = piece.getValue();
+        Typ promotion = Move.getPromotion( move );
+
+        if ( promotion != null )
+        {
+            // As Piece.getValue(), without creating a piece of the promotion type
+            value = switch ( promotion )
+            {
+                case QUEEN -> 9;
+                case ROOK -> 5;
+                default -> 3;
+            };
+
+            gain += value - piece.getValue();
+        }
+
+        return gain - exchange( board, to, piece.getColour().transpose(), occupied, value );
+    }
+
+    /**
+     * Returns the material the player of the given colour gains by capturing on the square with the
+     * given index (if that is better than not capturing), given the value of the piece standing on
+     * it and the squares still occupied; zero if they are better off not capturing.
+     */
+    private static int exchange( Board board, int index, Colour colour, long occupied, int value )
+    {
+        long attackers = board.getAttackers( index, colour, occupied ) & occupied;
+
+        if ( attackers == 0 )
+            return 0;
+
+        for ( Typ type : ATTACKERS )
+        {
+            long bb = attackers & board.getBitboard( colour, type );
+
+            if ( bb == 0 )
+                continue;
+
+            // The king may only capture if the square is no longer defended
+            if ( type == Typ.KING && (board.getAttackers( index, colour.transpose(), occupied ) & occupied) != 0 )
+                return 0;
+
+            int attacker = Long.numberOfTrailingZeros( bb );
+            int attackerValue = board.get( attacker ).getPiece().getValue();
+
+            return Math.max( 0, value - exchange( board, index, colour.transpose(), occupied ^ Bitboards.bit( attacker ), attackerValue ) );
+        }
+
+        return 0;
+    }
+
+    /**
+     * Returns a boolean indicating whether the given move loses material once the exchange it
+     * starts is played out. Capturing a piece worth at least as much as the capturing piece never
+     * does, so the exchange is only evaluated for other moves.
+     * 
+     * @param board the board, with the position the move is to be made from
+     * @param move  the move, encoded as described in {@code Move}
+     * @return {@code true} if the static exchange evaluation of the move is negative;
+     *         {@code false} otherwise
+     */
+    public static boolean isLosing( Board board, int move )
+    {
+        Piece captured = board.get( Move.getTo( move ) ).getPiece();
+
+        if ( captured != null && captured.getValue() >= board.get( Move.getFrom( move ) ).getPiece().getValue() )
+            return false;
+
+        return evaluate( board, move ) < 0;
+    }
+}
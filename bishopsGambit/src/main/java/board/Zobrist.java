@@ -0,0 +1,86 @@
+package main.java.board;
+
+import main.java.pieces.Piece.Typ;
+import main.java.player.Player.Colour;
+
+/**
+ * Random keys for Zobrist hashing. The key of a position is the exclusive-or of one key for each
+ * piece on each square, one for the castling rights, one for the file of a pawn that can be
+ * captured en passant, and one more if Black is to move. Since exclusive-or undoes itself, the key
+ * can be kept up to date as moves are made by toggling only the keys that change.
+ * <p>
+ * The keys come from a fixed-seed generator, so they (and therefore the keys of positions) are the
+ * same in every run.
+ */
+class Zobrist
+{
+    private static final int NUMBER_OF_TYPES = Typ.values().length;
+
+    private static final long[][] PIECE_SQUARE = new long[ 2 * NUMBER_OF_TYPES ][ 64 ];
+
+    /**
+     * One key for each combination of castling rights, formed from one key per right so that
+     * revoking a right changes the key the same way whatever the other rights are.
+     */
+    private static final long[] CASTLING = new long[ 16 ];
+
+    private static final long[] EN_PASSANT_FILE = new long[ 8 ];
+
+    private static final long BLACK_TO_MOVE;
+
+    private static long seed = 0x9E3779B97F4A7C15L;
+
+    static
+    {
+        for ( long[] keys : PIECE_SQUARE )
+            for ( int index = 0; index < 64; index++ )
+                keys[ index ] = nextRandom();
+
+        long[] rights = { nextRandom(), nextRandom(), nextRandom(), nextRandom() };
+
+        for ( int castlingRights = 0; castlingRights < 16; castlingRights++ )
+            for ( int i = 0; i < 4; i++ )
+                if ( (castlingRights & (1 << i)) != 0 )
+                    CASTLING[ castlingRights ] ^= rights[ i ];
+
+        for ( int file = 0; file < 8; file++ )
+            EN_PASSANT_FILE[ file ] = nextRandom();
+
+        BLACK_TO_MOVE = nextRandom();
+    }
+
+    static long piece( Colour colour, Typ type, int index )
+    {
+        return PIECE_SQUARE[ colour.ordinal() * NUMBER_OF_TYPES + type.ordinal() ][ index ];
+    }
+
+    static long castling( int castlingRights )
+    {
+        return CASTLING[ castlingRights ];
+    }
+
+    static long enPassant( int file )
+    {
+        return EN_PASSANT_FILE[ file ];
+    }
+
+    /**
+     * Returns the key toggled whenever the side to move changes; it is included in the keys of
+     * positions with Black to move.
+     */
+    static long sideToMove()
+    {
+        return BLACK_TO_MOVE;
+    }
+
+    /**
+     * Returns the next value of a xorshift64* pseudo-random number generator.
+     */
+    private static long nextRandom()
+    {
+        seed ^= seed >>> 12;
+        seed ^= seed << 25;
+        seed ^= seed >>> 27;
+        return seed * 2685821657736338717L;
+    }
+}
@@ -0,0 +1,272 @@
+package main.java.engine;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Consumer;
+
+import main.java.board.Board;
+import main.java.board.MoveGenerator;
+import main.java.engine.Search.Result;
+import main.java.tablebase.Tablebase;
+
+/**
+ * Searches positions with one or more threads sharing a transposition table ("Lazy SMP").
+ * <p>
+ * With {@code threads} set to <i>n</i>, a main search and <i>n</i> - 1 helper threads search the
+ * same position at the same time, each on its own copy of the board. The helpers skip some depths,
+ * so that at any moment the threads are spread over neighbouring depths; they share nothing but the
+ * transposition table, through which the results of each thread speed up the others. The result is
+ * that of the main search, with the nodes of all threads. The helpers are stopped when the main
+ * search finishes.
+ * <p>
+ * The depth and time limits apply to every thread; the node limit applies to each thread
+ * separately.
+ */
+public class Engine
+{
+    /**
+     * The maximum number of threads.
+     */
+    public static final int MAX_THREADS = 256;
+
+    private final TranspositionTable table = new TranspositionTable( TranspositionTable.DEFAULT_SIZE );
+
+    private int threads = 1;
+    private int multiPv = 1;
+
+    private Consumer<Result> listener;
+
+    private Tablebase tablebase;
+
+    private volatile Search[] searches = new Search[ 0 ];
+
+    public int getThreads()
+    {
+        return this.threads;
+    }
+
+    /**
+     * Sets the number of threads used by each search.
+     * 
+     * @param threads the number of threads, including the main search (between 1 and
+     *                {@code MAX_THREADS})
+     * @throws IllegalArgumentException if the number of threads is out of range
+     */
+    public void setThreads( int threads )
+    {
+        if ( threads < 1 || threads > MAX_THREADS )
+            throw new IllegalArgumentException( "Number of threads must be between 1 and " + MAX_THREADS + "." );
+
+        this.threads = threads;
+    }
+
+    public int getMultiPv()
+    {
+        return this.multiPv;
+    }
+
+    /**
+     * Sets the number of lines found by the main search; helper threads search the best line only.
+     * See {@code Search.setMultiPv}.
+     * 
+     * @param multiPv the number of lines (between 1 and {@code MoveGenerator.MAX_MOVES})
+     * @throws IllegalArgumentException if the number of lines is out of range
+     */
+    public void setMultiPv( int multiPv )
+    {
+        if ( multiPv < 1 || multiPv > MoveGenerator.MAX_MOVES )
+            throw new IllegalArgumentException( "Number of lines must be between 1 and " + MoveGenerator.MAX_MOVES + "." );
+
+        this.multiPv = multiPv;
+    }
+
+    public TranspositionTable getTranspositionTable()
+    {
+        return this.table;
+    }
+
+    public Tablebase getTablebase()
+    {
+        return this.tablebase;
+    }
+
+    /**
+     * Sets the endgame tables probed by every thread; see {@code Search.setTablebase}.
+     * 
+     * @param tablebase the tables (or {@code null} for none)
+     */
+    public void setTablebase( Tablebase tablebase )
+    {
+        this.tablebase = tablebase;
+    }
+
+    /**
+     * Sets a listener to be given the result of each iteration of the main search (each line of it,
+     * if there are several) as it completes, with the nodes searched so far by all threads. The
+     * listener is called on the thread running the main search.
+     * 
+     * @param listener the listener (or {@code null} for none)
+     */
+    public void setListener( Consumer<Result> listener )
+    {
+        this.listener = listener;
+    }
+
+    /**
+     * Searches the position on the given board on the calling thread (and any helper threads),
+     * blocking until a limit is reached or {@code stop()} is called. The board is copied by each
+     * thread.
+     * 
+     * @param board  the board holding the position to search
+     * @param limits the limits on the search
+     * @return the result of the main search; see {@code Search.run()}
+     */
+    public Result search( Board board, Limits limits )
+    {
+        return run( createSearches( board, new long[ 0 ], limits ) );
+    }
+
+    /**
+     * Starts a search of the position on the given board on a new thread, returning immediately.
+     * The search can be stopped by {@code stop()} as soon as this method returns.
+     * 
+     * @param board   the board holding the position to search
+     * @param history the Zobrist keys of the positions before it in the game (see
+     *                {@code Search.setHistory})
+     * @param limits  the limits on the search
+     * @return the result of the main search, completed when the search finishes
+     */
+    public CompletableFuture<Result> start( Board board, long[] history, Limits limits )
+    {
+        Search[] searches = createSearches( board, history, limits );
+        CompletableFuture<Result> future = new CompletableFuture<>();
+
+        Thread thread = new Thread( () ->
+        {
+            try
+            {
+                future.complete( run( searches ) );
+            }
+            catch ( Throwable e )
+            {
+                future.completeExceptionally( e );
+            }
+        }, "search-main" );
+
+        thread.setDaemon( true );
+        thread.start();
+
+        return future;
+    }
+
+    /**
+     * Switches the current search (if started by pondering) to a normal search, keeping the work
+     * already done; see {@code Search.ponderHit()}. May be called from any thread.
+     */
+    public void ponderHit()
+    {
+        for ( Search search : searches )
+            search.ponderHit();
+    }
+
+    /**
+     * Stops the current search (if any) as soon as possible. May be called from any thread.
+     */
+    public void stop()
+    {
+        for ( Search search : searches )
+            search.stop();
+    }
+
+    private Search[] createSearches( Board board, long[] history, Limits limits )
+    {
+        Search[] searches = new Search[ threads ];
+
+        for ( int i = 0; i < threads; i++ )
+        {
+            searches[ i ] = new Search( board, limits, table );
+            searches[ i ].setThreadIndex( i );
+            searches[ i ].setHistory( history );
+            searches[ i ].setTablebase( tablebase );
+        }
+
+        searches[ 0 ].setMultiPv( multiPv );
+
+        Consumer<Result> listener = this.listener;
+
+        if ( listener != null )
+            searches[ 0 ].setListener( result -> listener.accept( new Result( result, getNodes( searches ), getTablebaseHits( searches ) ) ) );
+
+        this.searches = searches;
+
+        return searches;
+    }
+
+    private Result run( Search[] searches )
+    {
+        // Before any thread stores an entry, so that all of them are stored with the new age
+        table.newSearch();
+
+        // The hit rate is reported for each search
+        table.resetStatistics();
+
+        Thread[] helpers = new Thread[ searches.length - 1 ];
+
+        for ( int i = 1; i < searches.length; i++ )
+        {
+            helpers[ i - 1 ] = new Thread( searches[ i ]::run, "search-helper-" + i );
+            helpers[ i - 1 ].setDaemon( true );
+            helpers[ i - 1 ].start();
+        }
+
+        Result result = searches[ 0 ].run();
+
+        for ( int i = 1; i < searches.length; i++ )
+            searches[ i ].stop();
+
+        for ( Thread helper : helpers )
+            joinUninterruptibly( helper );
+
+        return new Result( result, getNodes( searches ), getTablebaseHits( searches ) );
+    }
+
+    private static long getNodes( Search[] searches )
+    {
+        long nodes = 0;
+
+        for ( Search search : searches )
+            nodes += search.getNodes();
+
+        return nodes;
+    }
+
+    private static long getTablebaseHits( Search[] searches )
+    {
+        long hits = 0;
+
+        for ( Search search : searches )
+            hits += search.getTablebaseHits();
+
+        return hits;
+    }
+
+    private static void joinUninterruptibly( Thread thread )
+    {
+        boolean interrupted = false;
+
+        while ( true )
+        {
+            try
+            {
+                thread.join();
+                break;
+            }
+            catch ( InterruptedException e )
+            {
+                interrupted = true;
+            }
+        }
+
+        if ( interrupted )
+            Thread.currentThread().interrupt();
+    }
+}
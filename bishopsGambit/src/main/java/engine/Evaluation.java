@@ -0,0 +1,27 @@
+package main.java.engine;
+
+import main.java.board.Board;
+import main.java.player.Player.Colour;
+
+/**
+ * Static evaluation of a position for the search. Scores are in centipawns (hundredths of a pawn)
+ * and are from the point of view of the player to move: positive if that player is better off.
+ */
+public class Evaluation
+{
+    /**
+     * Evaluates the position on the given board by the value of each player's pieces on their
+     * squares, interpolating between the middlegame and endgame values by the game phase. The
+     * terms are kept up to date by the board as moves are made, so this takes constant time.
+     * 
+     * @param board the chess board
+     * @return the score of the position for the player to move, in centipawns
+     */
+    public static int evaluate( Board board )
+    {
+        int phase = Math.min( board.getPhase(), Board.MAX_PHASE );
+        int score = (board.getMidgameScore() * phase + board.getEndgameScore() * (Board.MAX_PHASE - phase)) / Board.MAX_PHASE;
+
+        return board.getActiveColour() == Colour.WHITE ? score : -score;
+    }
+}
@@ -0,0 +1,121 @@
+package main.java.engine;
+
+/**
+ * The limits on a search. The search stops when any limit is reached; by default there are none
+ * other than the maximum depth {@code Search.MAX_PLY}. If a clock is set, the search also stops
+ * when {@code TimeManager} decides it has taken long enough.
+ * <p>
+ * A search may be started by pondering: searching the position after the expected reply to the
+ * last move on the opponent's time. The time limits are then ignored until the reply is played
+ * ({@code Search.ponderHit()}); if another reply is played, the search is stopped, and what it
+ * stored in the transposition table is still of use to the next search.
+ */
+public class Limits
+{
+    private int depth = Search.MAX_PLY;
+    private long nodes = Long.MAX_VALUE;
+    private long time = Long.MAX_VALUE;
+
+    private long clockTime = -1;
+    private long increment;
+    private int movesToGo;
+
+    private boolean ponder;
+
+    public int getDepth()
+    {
+        return this.depth;
+    }
+
+    /**
+     * Sets the depth at which iterative deepening stops.
+     * 
+     * @param depth the maximum depth, in plies (at most {@code Search.MAX_PLY})
+     */
+    public void setDepth( int depth )
+    {
+        this.depth = Math.max( 1, Math.min( depth, Search.MAX_PLY ) );
+    }
+
+    public long getNodes()
+    {
+        return this.nodes;
+    }
+
+    /**
+     * Sets the number of nodes after which the search stops.
+     * 
+     * @param nodes the maximum number of nodes
+     */
+    public void setNodes( long nodes )
+    {
+        this.nodes = nodes;
+    }
+
+    public long getTime()
+    {
+        return this.time;
+    }
+
+    /**
+     * Sets the time after which the search stops.
+     * 
+     * @param time the maximum time, in milliseconds
+     */
+    public void setTime( long time )
+    {
+        this.time = time;
+    }
+
+    public boolean hasClock()
+    {
+        return this.clockTime >= 0;
+    }
+
+    public long getClockTime()
+    {
+        return this.clockTime;
+    }
+
+    public long getIncrement()
+    {
+        return this.increment;
+    }
+
+    public int getMovesToGo()
+    {
+        return this.movesToGo;
+    }
+
+    /**
+     * Sets the clock of the player to move, from which {@code TimeManager} decides how long to
+     * search.
+     * 
+     * @param time      the time left on the clock, in milliseconds
+     * @param increment the time added to the clock after each move, in milliseconds
+     * @param movesToGo the number of moves to the next time control (or zero if the time left is
+     *                  for the rest of the game)
+     */
+    public void setClock( long time, long increment, int movesToGo )
+    {
+        this.clockTime = time;
+        this.increment = increment;
+        this.movesToGo = movesToGo;
+    }
+
+    public boolean isPonder()
+    {
+        return this.ponder;
+    }
+
+    /**
+     * Sets whether the search starts by pondering, ignoring the time limits until
+     * {@code Search.ponderHit()} is called.
+     * 
+     * @param ponder {@code true} to ponder; {@code false} otherwise
+     */
+    public void setPonder( boolean ponder )
+    {
+        this.ponder = ponder;
+    }
+}
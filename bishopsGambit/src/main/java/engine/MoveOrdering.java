@@ -0,0 +1,240 @@
+package main.java.engine;
+
+import main.java.board.Bitboards;
+import main.java.board.Board;
+import main.java.board.Move;
+import main.java.board.MoveGenerator;
+import main.java.board.StaticExchange;
+import main.java.pieces.Piece;
+import main.java.pieces.Piece.Typ;
+
+/**
+ * Orders the moves at each node of a search so that the moves most likely to be best, and so to
+ * cause a cutoff, are searched first. Moves are tried in the following order:
+ * <ol>
+ * <li>The best move stored in the transposition table for the position.</li>
+ * <li>Captures and queen promotions: most valuable victim first and, between captures of equal
+ * victims, least valuable attacker first ("MVV-LVA"), by {@code Piece.getValue()}.</li>
+ * <li>The killer moves of the ply: the last two quiet moves to cause a cutoff at the same ply
+ * elsewhere in the tree.</li>
+ * <li>Captures that lose material by {@code StaticExchange}, in MVV-LVA order.</li>
+ * <li>Other quiet moves, by the cutoffs each has caused when made by the same player from the same
+ * square to the same square (the "butterfly" history table), deeper cutoffs counting for more.</li>
+ * </ol>
+ * Moves are picked one at a time by {@code next}, best first, rather than sorted up front, since
+ * often only the first few moves at a node are searched.
+ * <p>
+ * Each heuristic can be switched off (see {@code setEnabled}) to measure what it is worth;
+ * {@code MoveOrderingNodes}, among the benchmarks, prints the number of nodes searched with each
+ * one switched off in turn.
+ */
+public class MoveOrdering
+{
+    /**
+     * The heuristics by which moves are ordered. With all of them switched off, moves are searched
+     * in the order they are generated.
+     */
+    public enum Heuristic
+    {
+        TABLE_MOVE, MVV_LVA, KILLERS, HISTORY;
+    }
+
+    private static final int TABLE_MOVE_SCORE = 1 << 30;
+    private static final int CAPTURE_SCORE = 1 << 28;
+    private static final int KILLER_SCORE = 1 << 27;
+    private static final int LOSING_CAPTURE_SCORE = 1 << 26;
+
+    /**
+     * The history scores are halved when one reaches this, which keeps them below the score of a
+     * killer move.
+     */
+    private static final int HISTORY_LIMIT = 1 << 20;
+
+    private final boolean[] enabled = { true, true, true, true };
+
+    private final int[][] scores = new int[ Search.MAX_PLY ][ MoveGenerator.MAX_MOVES ];
+    private final int[][] killers = new int[ Search.MAX_PLY ][ 2 ];
+
+    /**
+     * The history score of each move, indexed by the colour of the player to move and the from and
+     * to squares.
+     */
+    private final int[][][] history = new int[ 2 ][ 64 ][ 64 ];
+
+    public boolean isEnabled( Heuristic heuristic )
+    {
+        return enabled[ heuristic.ordinal() ];
+    }
+
+    public void setEnabled( Heuristic heuristic, boolean enabled )
+    {
+        this.enabled[ heuristic.ordinal() ] = enabled;
+    }
+
+    /**
+     * Scores the given moves, ready for {@code next} to pick them in order.
+     * 
+     * @param board     the board, with the position the moves were generated for
+     * @param moves     the moves
+     * @param n         the number of moves
+     * @param ply       the ply of the node
+     * @param tableMove the best move stored in the transposition table (or {@code Move.NONE})
+     */
+    public void score( Board board, int[] moves, int n, int ply, int tableMove )
+    {
+        int[] scores = this.scores[ ply ];
+        int colour = board.getActiveColour().ordinal();
+
+        for ( int i = 0; i < n; i++ )
+        {
+            int move = moves[ i ];
+            int from = Move.getFrom( move );
+            int to = Move.getTo( move );
+
+            if ( move == tableMove && enabled[ Heuristic.TABLE_MOVE.ordinal() ] )
+                scores[ i ] = TABLE_MOVE_SCORE;
+
+            else if ( isTactical( board, move ) && enabled[ Heuristic.MVV_LVA.ordinal() ] )
+                scores[ i ] = (StaticExchange.isLosing( board, move ) ? LOSING_CAPTURE_SCORE : CAPTURE_SCORE) + getMvvLva( board, move );
+
+            else if ( isTactical( board, move ) )
+                scores[ i ] = 0;
+
+            else if ( move == killers[ ply ][ 0 ] && enabled[ Heuristic.KILLERS.ordinal() ] )
+                scores[ i ] = KILLER_SCORE + 1;
+
+            else if ( move == killers[ ply ][ 1 ] && enabled[ Heuristic.KILLERS.ordinal() ] )
+                scores[ i ] = KILLER_SCORE;
+
+            else
+                scores[ i ] = enabled[ Heuristic.HISTORY.ordinal() ] ? history[ colour ][ from ][ to ] : 0;
+        }
+    }
+
+    /**
+     * Scores the given moves for a quiescence search: captures by MVV-LVA, whichever heuristics are
+     * switched on (without it, the quiescence search can grow beyond all reason), and other moves
+     * (evasions of check) after them.
+     * 
+     * @param board the board, with the position the moves were generated for
+     * @param moves the moves
+     * @param n     the number of moves
+     * @param ply   the ply of the node
+     */
+    public void scoreCaptures( Board board, int[] moves, int n, int ply )
+    {
+        int[] scores = this.scores[ ply ];
+
+        for ( int i = 0; i < n; i++ )
+            scores[ i ] = isTactical( board, moves[ i ] ) ? CAPTURE_SCORE + getMvvLva( board, moves[ i ] ) : 0;
+    }
+
+    /**
+     * Returns the best of the moves not yet searched, moving it to the given index.
+     * 
+     * @param moves the moves, scored by {@code score}
+     * @param i     the number of moves already searched
+     * @param n     the number of moves
+     * @param ply   the ply of the node
+     * @return the next move to search
+     */
+    public int next( int[] moves, int i, int n, int ply )
+    {
+        int[] scores = this.scores[ ply ];
+        int best = i;
+
+        // Ties keep the order the moves were generated in
+        for ( int j = i + 1; j < n; j++ )
+            if ( scores[ j ] > scores[ best ] )
+                best = j;
+
+        int move = moves[ best ];
+
+        moves[ best ] = moves[ i ];
+        moves[ i ] = move;
+
+        int score = scores[ best ];
+        scores[ best ] = scores[ i ];
+        scores[ i ] = score;
+
+        return move;
+    }
+
+    /**
+     * Records that the given move caused a cutoff. Only quiet moves are recorded, since captures
+     * are already searched early.
+     * 
+     * @param board the board, with the position the move was made from
+     * @param move  the move
+     * @param depth the remaining depth of the node
+     * @param ply   the ply of the node
+     */
+    public void cutoff( Board board, int move, int depth, int ply )
+    {
+        if ( isTactical( board, move ) )
+            return;
+
+        if ( killers[ ply ][ 0 ] != move )
+        {
+            killers[ ply ][ 1 ] = killers[ ply ][ 0 ];
+            killers[ ply ][ 0 ] = move;
+        }
+
+        int[] scores = history[ board.getActiveColour().ordinal() ][ Move.getFrom( move ) ];
+        scores[ Move.getTo( move ) ] += depth * depth;
+
+        if ( scores[ Move.getTo( move ) ] >= HISTORY_LIMIT )
+            for ( int[][] colour : history )
+                for ( int[] from : colour )
+                    for ( int to = 0; to < from.length; to++ )
+                        from[ to ] /= 2;
+    }
+
+    /**
+     * Forgets the killer moves, which are specific to the position searched, and reduces the
+     * history scores, which are mostly still relevant to a search of the next position in a game.
+     */
+    public void newSearch()
+    {
+        for ( int[] ply : killers )
+            ply[ 0 ] = ply[ 1 ] = Move.NONE;
+
+        for ( int[][] colour : history )
+            for ( int[] from : colour )
+                for ( int to = 0; to < from.length; to++ )
+                    from[ to ] /= 8;
+    }
+
+    /**
+     * Returns a boolean indicating whether the given move is a capture or a queen promotion.
+     */
+    static boolean isTactical( Board board, int move )
+    {
+        return board.get( Move.getTo( move ) ).isOccupied() || isEnPassant( board, move ) || Move.getPromotion( move ) == Typ.QUEEN;
+    }
+
+    private static boolean isEnPassant( Board board, int move )
+    {
+        int from = Move.getFrom( move );
+        int to = Move.getTo( move );
+
+        // A pawn moving diagonally (to another file) to an empty square
+        return Bitboards.getFile( from ) != Bitboards.getFile( to ) &&
+               Bitboards.contains( board.getBitboard( board.getActiveColour(), Typ.PAWN ), from ) &&
+               !board.get( to ).isOccupied();
+    }
+
+    private static int getMvvLva( Board board, int move )
+    {
+        Piece attacker = board.get( Move.getFrom( move ) ).getPiece();
+        Piece victim = board.get( Move.getTo( move ) ).getPiece();
+
+        // En passant captures a pawn; a queen promotion gains eight pawns
+        int gain = victim != null ? victim.getValue() : isEnPassant( board, move ) ? 1 : 0;
+
+        if ( Move.getPromotion( move ) == Typ.QUEEN )
+            gain += 8;
+
+        return 16 * gain - attacker.getValue();
+    }
+}
@@ -0,0 +1,927 @@
+package main.java.engine;
+
+import java.util.Arrays;
+import java.util.function.Consumer;
+
+import main.java.board.Board;
+import main.java.board.Board.Undo;
+import main.java.board.Move;
+import main.java.board.MoveGenerator;
+import main.java.board.StaticExchange;
+import main.java.tablebase.Tablebase;
+
+/**
+ * A negamax alpha-beta search with iterative deepening. The search works on its own copy of the
+ * board, making and unmaking moves in place with {@code Board.makeMove(int)} and
+ * {@code Board.unmakeMove(Undo)}, and generates moves with {@code MoveGenerator}; one move list is
+ * allocated per ply up front, so searching does not allocate.
+ * <p>
+ * Each iteration searches one ply deeper than the last, until the depth, node or time limit is
+ * reached or {@code stop()} is called. The result is that of the last completed iteration; an
+ * iteration that is cut short is discarded.
+ * <p>
+ * Results are stored in a {@code TranspositionTable}, which may be shared with other searches. A
+ * stored result that is deep enough ends the search of a position early; otherwise its best move is
+ * searched first. Other moves are ordered by {@code MoveOrdering}. The search does not age the
+ * table; whoever starts the searches calls {@code TranspositionTable.newSearch()} first, as
+ * {@code Engine} does.
+ * <p>
+ * At the end of each line, captures are searched until the position is quiet (see
+ * {@code quiescence}), with losing captures pruned by {@code StaticExchange}.
+ * <p>
+ * With endgame tables (see {@code setTablebase}), positions in them are scored from the tables
+ * rather than searched, as the mate they lead to (or a draw), and at the root only the moves
+ * that keep the best result the tables allow are searched.
+ */
+public class Search
+{
+    /**
+     * The maximum depth of the search, in plies.
+     */
+    public static final int MAX_PLY = 64;
+
+    /**
+     * A score greater than any position can have.
+     */
+    public static final int INFINITY = 32000;
+
+    /**
+     * The score of a checkmate on the board. Being mated in <i>n</i> plies scores
+     * {@code -MATE + n}, so quicker mates score higher for the winning side.
+     */
+    public static final int MATE = 31000;
+
+    /**
+     * The greatest number of plies to a mate that a score can show: mates found by the search are
+     * within {@code MAX_PLY}, and mates found in the endgame tables within
+     * {@code Tablebase.MAX_DISTANCE} of a position in the search.
+     */
+    public static final int MAX_MATE_PLY = MAX_PLY + Tablebase.MAX_DISTANCE;
+
+    /**
+     * The number of nodes between checks of the clock, which is slow compared with searching a
+     * node. Must be a power of two.
+     */
+    private static final int CHECK_INTERVAL = 1024;
+
+    /*
+     * The depths skipped by helper threads in a parallel search, so that the threads are spread
+     * over different depths: helper i skips depth d if ((d + SKIP_PHASE[ j ]) / SKIP_SIZE[ j ]) is
+     * odd, where j = (i - 1) % 20.
+     */
+    private static final int[] SKIP_SIZE = { 1, 1, 2, 2, 2, 2, 3, 3, 3, 3, 3, 3, 4, 4, 4, 4, 4, 4, 4, 4 };
+    private static final int[] SKIP_PHASE = { 0, 1, 0, 1, 2, 3, 0, 1, 2, 3, 4, 5, 0, 1, 2, 3, 4, 5, 6, 7 };
+
+    private final Board board;
+    private final Limits limits;
+    private final TranspositionTable table;
+    private final MoveOrdering ordering = new MoveOrdering();
+
+    private final int[][] moves = new int[ MAX_PLY ][ MoveGenerator.MAX_MOVES ];
+
+    /**
+     * A triangular table of principal variations: {@code pv[ ply ]} holds the best line found from
+     * the node at that ply, of length {@code pvLength[ ply ]}.
+     */
+    private final int[][] pv = new int[ MAX_PLY + 1 ][ MAX_PLY + 1 ];
+    private final int[] pvLength = new int[ MAX_PLY + 1 ];
+
+    /**
+     * The Zobrist key of the position at each ply of the current line, for detecting repetitions.
+     */
+    private final long[] keys = new long[ MAX_PLY + 1 ];
+
+    /**
+     * The Zobrist keys of the positions before the root in the game, oldest first, for detecting
+     * repetitions of positions that occurred before the search began.
+     */
+    private long[] history = new long[ 0 ];
+
+    private Consumer<Result> listener;
+
+    private Tablebase tablebase;
+    private long tablebaseHits;
+
+    private int multiPv = 1;
+
+    /**
+     * The lines of the last completed iteration, best first.
+     */
+    private Result[] lines = new Result[ 0 ];
+
+    /**
+     * The root moves left out of the line being searched (those that the endgame tables show to be
+     * worse than others, then the best moves of the lines before it), of which there are
+     * {@code excluded}, and the best move of the line in the last iteration.
+     */
+    private final int[] excludedMoves = new int[ MoveGenerator.MAX_MOVES ];
+    private int excluded;
+    private int lineMove;
+
+    /**
+     * The index of the thread running this search in a parallel search (see {@code Engine}): zero
+     * for the main thread, which searches every depth, and greater for helper threads.
+     */
+    private int threadIndex;
+
+    private long nodes;
+    private long startTime;
+    private long timeLimit;
+
+    /**
+     * The time from which the time limits are counted: the start of the search or, if it began by
+     * pondering, the ponder hit.
+     */
+    private volatile long clockStart;
+    private volatile boolean pondering;
+    private volatile boolean stopped;
+
+    /**
+     * Creates a search of the position on the given board. The board is copied, so it may be
+     * changed (or searched by another thread) while this search runs.
+     * 
+     * @param board  the board holding the position to search
+     * @param limits the limits on the search
+     */
+    public Search( Board board, Limits limits )
+    {
+        this( board, limits, new TranspositionTable( TranspositionTable.DEFAULT_SIZE ) );
+    }
+
+    /**
+     * Creates a search of the position on the given board that stores its results in the given
+     * transposition table. The board is copied, so it may be changed (or searched by another
+     * thread) while this search runs.
+     * 
+     * @param board  the board holding the position to search
+     * @param limits the limits on the search
+     * @param table  the transposition table, which may be shared with other searches
+     */
+    public Search( Board board, Limits limits, TranspositionTable table )
+    {
+        this.board = board.clone();
+        this.limits = limits;
+        this.pondering = limits.isPonder();
+        this.table = table;
+    }
+
+    public TranspositionTable getTranspositionTable()
+    {
+        return this.table;
+    }
+
+    public MoveOrdering getMoveOrdering()
+    {
+        return this.ordering;
+    }
+
+    /**
+     * Sets the positions that occurred in the game before the position searched, so that
+     * repeating them is scored as a draw. Only the positions since the last pawn move or capture
+     * are needed.
+     * 
+     * @param history the Zobrist keys of the earlier positions, oldest first (the last being the
+     *                position before the one searched)
+     */
+    public void setHistory( long[] history )
+    {
+        this.history = history;
+    }
+
+    /**
+     * Sets a listener to be given the result of each iteration (each line of it, if there are
+     * several) as it completes, e.g. to report the progress of the search. The listener is called
+     * on the thread running the search.
+     * 
+     * @param listener the listener (or {@code null} for none)
+     */
+    public void setListener( Consumer<Result> listener )
+    {
+        this.listener = listener;
+    }
+
+    /**
+     * Sets the endgame tables to probe in positions with few enough pieces.
+     * 
+     * @param tablebase the tables (or {@code null} for none)
+     */
+    public void setTablebase( Tablebase tablebase )
+    {
+        this.tablebase = tablebase;
+    }
+
+    /**
+     * Returns the number of positions found in the endgame tables so far. Only exact once
+     * {@code run()} has returned.
+     * 
+     * @return the number of positions found
+     */
+    public long getTablebaseHits()
+    {
+        return this.tablebaseHits;
+    }
+
+    public int getMultiPv()
+    {
+        return this.multiPv;
+    }
+
+    /**
+     * Sets the number of lines to search: the best move, the second best and so on, each with its
+     * score and principal variation. Each iteration searches the root once per line, leaving out
+     * the best moves of the lines before it, so the lines share the transposition table and the
+     * work of the earlier iterations.
+     * 
+     * @param multiPv the number of lines (between 1 and {@code MoveGenerator.MAX_MOVES})
+     * @throws IllegalArgumentException if the number of lines is out of range
+     */
+    public void setMultiPv( int multiPv )
+    {
+        if ( multiPv < 1 || multiPv > MoveGenerator.MAX_MOVES )
+            throw new IllegalArgumentException( "Number of lines must be between 1 and " + MoveGenerator.MAX_MOVES + "." );
+
+        this.multiPv = multiPv;
+    }
+
+    /**
+     * Returns the lines found by the deepest completed iteration (see {@code setMultiPv}), best
+     * first. There are fewer lines than requested if the player to move has fewer legal moves.
+     * 
+     * @return the lines, each the result of searching the root with the best moves of the lines
+     *         before it left out
+     */
+    public Result[] getLines()
+    {
+        return this.lines.clone();
+    }
+
+    void setThreadIndex( int threadIndex )
+    {
+        this.threadIndex = threadIndex;
+    }
+
+    /**
+     * Returns the number of nodes searched so far. Only exact once {@code run()} has returned.
+     * 
+     * @return the number of nodes searched
+     */
+    public long getNodes()
+    {
+        return this.nodes;
+    }
+
+    /**
+     * Switches a search started by pondering (see {@code Limits.setPonder}) to a normal search: its
+     * time limits apply from now on, and the work already done is kept. May be called from any
+     * thread, before or while the search runs.
+     */
+    public void ponderHit()
+    {
+        clockStart = System.nanoTime();
+        pondering = false;
+    }
+
+    /**
+     * Stops the search as soon as possible. May be called from any thread.
+     */
+    public void stop()
+    {
+        stopped = true;
+    }
+
+    /**
+     * Runs the search until a limit is reached or {@code stop()} is called.
+     * 
+     * @return the result of the deepest completed iteration; its best move is {@code Move.NONE} if
+     *         the player to move has no legal moves
+     */
+    public Result run()
+    {
+        startTime = System.nanoTime();
+        nodes = 0;
+        tablebaseHits = 0;
+
+        if ( !pondering )
+            clockStart = startTime;
+
+        TimeManager timeManager = null;
+        timeLimit = limits.getTime();
+
+        if ( limits.hasClock() )
+        {
+            timeManager = new TimeManager( limits.getClockTime(), limits.getIncrement(), limits.getMovesToGo() );
+            timeLimit = Math.min( timeLimit, timeManager.getHardLimit() );
+        }
+
+        keys[ 0 ] = board.getZobristKey();
+
+        ordering.newSearch();
+
+        int legalMoves = MoveGenerator.generateLegalMoves( board, moves[ 0 ] );
+        int filtered = filterRootMoves( legalMoves );
+
+        // There cannot be more lines than moves to search, but there is always one
+        int numberOfLines = Math.max( 1, Math.min( multiPv, legalMoves - filtered ) );
+
+        Result result = null;
+        lines = new Result[ 0 ];
+
+        iterations:
+        for ( int depth = 1; depth <= limits.getDepth(); depth++ )
+        {
+            if ( isSkipped( depth ) )
+                continue;
+
+            Result[] lines = new Result[ numberOfLines ];
+
+            for ( int line = 0; line < numberOfLines; line++ )
+            {
+                // Each line is searched with the best moves of the lines before it left out
+                excluded = filtered + line;
+                lineMove = line < this.lines.length ? this.lines[ line ].getBestMove() : Move.NONE;
+
+                int score = negamax( depth, 0, -INFINITY, INFINITY );
+
+                if ( stopped && result != null )
+                {
+                    // Before any iteration has completed, the lines of this one found so far stand in
+                    if ( this.lines.length == 0 )
+                        this.lines = Arrays.copyOf( lines, line );
+
+                    break iterations;
+                }
+
+                // If even the first iteration was cut short, any legal move not in an earlier line is
+                // better than none
+                if ( pvLength[ 0 ] == 0 && !stopped )
+                    lines[ line ] = new Result( Move.NONE, score, depth, line + 1, nodes, getElapsedTime(), table.getHashfull(), tablebaseHits, pv[ 0 ], 0 );
+                else if ( pvLength[ 0 ] == 0 )
+                {
+                    pv[ 0 ][ 0 ] = getFirstRootMove( legalMoves );
+                    lines[ line ] = new Result( pv[ 0 ][ 0 ], 0, 0, line + 1, nodes, getElapsedTime(), table.getHashfull(), tablebaseHits, pv[ 0 ], 1 );
+                }
+                else
+                    lines[ line ] = new Result( pv[ 0 ][ 0 ], score, depth, line + 1, nodes, getElapsedTime(), table.getHashfull(), tablebaseHits, pv[ 0 ], pvLength[ 0 ] );
+
+                excludedMoves[ filtered + line ] = lines[ line ].getBestMove();
+
+                if ( line == 0 )
+                    result = lines[ 0 ];
+
+                if ( listener != null && !stopped )
+                    listener.accept( lines[ line ] );
+
+                if ( stopped || result.getBestMove() == Move.NONE )
+                {
+                    if ( stopped && this.lines.length == 0 )
+                        this.lines = Arrays.copyOf( lines, line + 1 );
+
+                    break iterations;
+                }
+            }
+
+            this.lines = lines;
+
+            // The best line, with the nodes of all the lines
+            result = new Result( lines[ 0 ], nodes, tablebaseHits );
+
+            if ( isMateFound( lines, depth ) )
+                break;
+
+            // Helper threads run until the main thread stops them
+            if ( threadIndex == 0 && timeManager != null && timeManager.shouldStop( result.getBestMove(), result.getScore(), getClockTime() ) && !pondering )
+                break;
+        }
+
+        excluded = 0;
+
+        return result;
+    }
+
+    /**
+     * Finds the legal moves at the root (the first of the given number in the move list of the
+     * root) that the endgame tables show to be worse than others, and puts them first among the
+     * moves left out of the search. Winning moves are better than drawing moves, which are better
+     * than losing moves; of the winning moves, those that mate soonest, and of the losing moves,
+     * those that are mated latest, are best.
+     * 
+     * @return the number of moves left out (zero if any move leads out of the tables)
+     */
+    private int filterRootMoves( int n )
+    {
+        if ( tablebase == null || Long.bitCount( board.getOccupied() ) > tablebase.getMaxPieces() + 1 )
+            return 0;
+
+        int[] list = moves[ 0 ];
+        int[] ranks = moves[ 1 ];
+        int best = Integer.MIN_VALUE;
+
+        for ( int i = 0; i < n; i++ )
+        {
+            Undo undo = board.makeMove( list[ i ] );
+            byte value = tablebase.probe( board );
+            board.unmakeMove( undo );
+
+            if ( value == Tablebase.NOT_FOUND )
+                return 0;
+
+            // The value is the opponent's; a quicker win ranks higher, and a quicker loss lower
+            int distance = Tablebase.getDistance( value );
+            ranks[ i ] = Tablebase.isLoss( value ) ? 1000 - distance : Tablebase.isWin( value ) ? -1000 + distance : 0;
+            best = Math.max( best, ranks[ i ] );
+        }
+
+        int filtered = 0;
+
+        for ( int i = 0; i < n; i++ )
+            if ( ranks[ i ] < best )
+                excludedMoves[ filtered++ ] = list[ i ];
+
+        return filtered;
+    }
+
+    /**
+     * Returns a boolean indicating whether every line is a forced mate found within the given
+     * depth, which cannot be improved upon.
+     */
+    private static boolean isMateFound( Result[] lines, int depth )
+    {
+        for ( Result line : lines )
+            if ( !line.isMate() || MATE - Math.abs( line.getScore() ) > depth )
+                return false;
+
+        return true;
+    }
+
+    private boolean isSkipped( int depth )
+    {
+        if ( threadIndex == 0 )
+            return false;
+
+        int i = (threadIndex - 1) % SKIP_SIZE.length;
+        return ((depth + SKIP_PHASE[ i ]) / SKIP_SIZE[ i ]) % 2 != 0;
+    }
+
+    private int negamax( int depth, int ply, int alpha, int beta )
+    {
+        if ( depth == 0 )
+            return quiescence( ply, alpha, beta );
+
+        pvLength[ ply ] = 0;
+        nodes++;
+
+        if ( (nodes & (CHECK_INTERVAL - 1)) == 0 )
+            checkLimits();
+
+        if ( stopped )
+            return 0;
+
+        if ( ply > 0 && isDraw( ply ) )
+            return 0;
+
+        // A position in the endgame tables needs no search (but the root has moves to choose)
+        if ( ply > 0 && tablebase != null && Long.bitCount( board.getOccupied() ) <= tablebase.getMaxPieces() )
+        {
+            byte value = tablebase.probe( board );
+
+            if ( value != Tablebase.NOT_FOUND )
+            {
+                tablebaseHits++;
+                return Math.max( alpha, Math.min( beta, getTablebaseScore( value, ply ) ) );
+            }
+        }
+
+        long key = keys[ ply ];
+        int tableMove = Move.NONE;
+
+        long entry = table.probe( key );
+
+        if ( entry != 0 )
+        {
+            tableMove = TranspositionTable.getMove( entry );
+
+            // The root is always searched, so that there is a principal variation
+            if ( ply > 0 && TranspositionTable.getDepth( entry ) >= depth )
+            {
+                int score = TranspositionTable.fromTable( TranspositionTable.getScore( entry ), ply );
+                int bound = TranspositionTable.getBound( entry );
+
+                if ( bound == TranspositionTable.EXACT )
+                    return Math.max( alpha, Math.min( beta, score ) );
+
+                if ( bound == TranspositionTable.LOWER && score >= beta )
+                    return beta;
+
+                if ( bound == TranspositionTable.UPPER && score <= alpha )
+                    return alpha;
+            }
+        }
+
+        int[] list = moves[ ply ];
+        int n = MoveGenerator.generateLegalMoves( board, list );
+
+        if ( n == 0 )
+            return board.isInCheck( board.getActiveColour() ) ? -MATE + ply : 0;
+
+        if ( ply == MAX_PLY - 1 )
+            return Evaluation.evaluate( board );
+
+        // The best move in the table is left out of all but the first line; try the line's own
+        if ( ply == 0 && excluded > 0 )
+            tableMove = lineMove;
+
+        ordering.score( board, list, n, ply, tableMove );
+
+        int originalAlpha = alpha;
+        int bestMove = Move.NONE;
+
+        for ( int i = 0; i < n; i++ )
+        {
+            int move = ordering.next( list, i, n, ply );
+
+            if ( ply == 0 && isExcluded( move ) )
+                continue;
+
+            Undo undo = board.makeMove( move );
+            keys[ ply + 1 ] = board.getZobristKey();
+            int score = -negamax( depth - 1, ply + 1, -beta, -alpha );
+            board.unmakeMove( undo );
+
+            if ( stopped )
+                return 0;
+
+            if ( score > alpha )
+            {
+                alpha = score;
+                bestMove = move;
+
+                pv[ ply ][ 0 ] = move;
+                System.arraycopy( pv[ ply + 1 ], 0, pv[ ply ], 1, pvLength[ ply + 1 ] );
+                pvLength[ ply ] = pvLength[ ply + 1 ] + 1;
+
+                if ( alpha >= beta )
+                {
+                    ordering.cutoff( board, move, depth, ply );
+                    break;
+                }
+            }
+        }
+
+        // With moves left out, the score of the root is not that of the position
+        if ( ply > 0 || excluded == 0 )
+        {
+            int bound = alpha >= beta ? TranspositionTable.LOWER : alpha > originalAlpha ? TranspositionTable.EXACT : TranspositionTable.UPPER;
+            table.store( key, bestMove, TranspositionTable.toTable( alpha, ply ), depth, bound );
+        }
+
+        return alpha;
+    }
+
+    /**
+     * Returns the first of the given number of legal moves at the root that is not left out of the
+     * search, e.g. by being the best move of an earlier line; or {@code Move.NONE} if there is none.
+     */
+    private int getFirstRootMove( int n )
+    {
+        for ( int i = 0; i < n; i++ )
+            if ( !isExcluded( moves[ 0 ][ i ] ) )
+                return moves[ 0 ][ i ];
+
+        return Move.NONE;
+    }
+
+    private boolean isExcluded( int move )
+    {
+        for ( int i = 0; i < excluded; i++ )
+            if ( excludedMoves[ i ] == move )
+                return true;
+
+        return false;
+    }
+
+    /**
+     * Searches captures and queen promotions only, until the position is quiet, so that positions
+     * are not evaluated in the middle of an exchange. The player to move may instead "stand pat"
+     * on the static evaluation, since they need not capture. Captures that lose material by static
+     * exchange evaluation are not searched. In check, standing pat is not an option, so every move
+     * is searched.
+     */
+    private int quiescence( int ply, int alpha, int beta )
+    {
+        pvLength[ ply ] = 0;
+        nodes++;
+
+        if ( (nodes & (CHECK_INTERVAL - 1)) == 0 )
+            checkLimits();
+
+        if ( stopped )
+            return 0;
+
+        if ( isDraw( ply ) )
+            return 0;
+
+        boolean inCheck = board.isInCheck( board.getActiveColour() );
+
+        int[] list = moves[ ply ];
+        int n = MoveGenerator.generateLegalMoves( board, list );
+
+        if ( n == 0 )
+            return inCheck ? -MATE + ply : 0;
+
+        if ( ply == MAX_PLY - 1 )
+            return Evaluation.evaluate( board );
+
+        if ( !inCheck )
+        {
+            int standPat = Evaluation.evaluate( board );
+
+            if ( standPat >= beta )
+                return beta;
+
+            if ( standPat > alpha )
+                alpha = standPat;
+
+            // Keep only the captures that do not lose material
+            int captures = 0;
+
+            for ( int i = 0; i < n; i++ )
+                if ( MoveOrdering.isTactical( board, list[ i ] ) && !StaticExchange.isLosing( board, list[ i ] ) )
+                    list[ captures++ ] = list[ i ];
+
+            n = captures;
+        }
+
+        ordering.scoreCaptures( board, list, n, ply );
+
+        for ( int i = 0; i < n; i++ )
+        {
+            int move = ordering.next( list, i, n, ply );
+
+            if ( ply == 0 && isExcluded( move ) )
+                continue;
+
+            Undo undo = board.makeMove( move );
+            keys[ ply + 1 ] = board.getZobristKey();
+            int score = -quiescence( ply + 1, -beta, -alpha );
+            board.unmakeMove( undo );
+
+            if ( stopped )
+                return 0;
+
+            if ( score > alpha )
+            {
+                alpha = score;
+
+                pv[ ply ][ 0 ] = move;
+                System.arraycopy( pv[ ply + 1 ], 0, pv[ ply ], 1, pvLength[ ply + 1 ] );
+                pvLength[ ply ] = pvLength[ ply + 1 ] + 1;
+
+                if ( alpha >= beta )
+                    break;
+            }
+        }
+
+        return alpha;
+    }
+
+    /**
+     * Returns a boolean indicating whether the position at the given ply is a draw by the fifty-move
+     * rule, insufficient material or repetition of an earlier position in the current line or the
+     * game history.
+     */
+    private boolean isDraw( int ply )
+    {
+        if ( board.getHalfmoveClock() >= 100 || board.hasInsufficientMaterial() )
+            return true;
+
+        // Only positions since the last pawn move or capture, with the same player to move, can
+        // repeat
+        int earliest = ply - board.getHalfmoveClock();
+
+        for ( int i = ply - 2; i >= earliest; i -= 2 )
+        {
+            // Plies before the root are in the game history
+            if ( i < 0 && history.length + i < 0 )
+                break;
+
+            if ( (i >= 0 ? keys[ i ] : history[ history.length + i ]) == keys[ ply ] )
+                return true;
+        }
+
+        return false;
+    }
+
+    /**
+     * Returns the score of a position at the given ply with the given value in the endgame tables:
+     * that of the mate it leads to, or of a draw.
+     */
+    private static int getTablebaseScore( byte value, int ply )
+    {
+        if ( Tablebase.isWin( value ) )
+            return MATE - ply - Tablebase.getDistance( value );
+
+        if ( Tablebase.isLoss( value ) )
+            return -MATE + ply + Tablebase.getDistance( value );
+
+        return 0;
+    }
+
+    private void checkLimits()
+    {
+        if ( nodes >= limits.getNodes() || !pondering && getClockTime() >= timeLimit )
+            stopped = true;
+    }
+
+    private long getClockTime()
+    {
+        return (System.nanoTime() - clockStart) / 1_000_000;
+    }
+
+    private long getElapsedTime()
+    {
+        return (System.nanoTime() - startTime) / 1_000_000;
+    }
+
+    /**
+     * The result of a search.
+     */
+    public static class Result
+    {
+        private final int bestMove;
+        private final int score;
+        private final int depth;
+        private final int line;
+        private final long nodes;
+        private final long time;
+        private final int hashfull;
+        private final long tablebaseHits;
+        private final int[] pv;
+
+        private Result( int bestMove, int score, int depth, int line, long nodes, long time, int hashfull, long tablebaseHits, int[] pv, int pvLength )
+        {
+            this.bestMove = bestMove;
+            this.score = score;
+            this.depth = depth;
+            this.line = line;
+            this.nodes = nodes;
+            this.time = time;
+            this.hashfull = hashfull;
+            this.tablebaseHits = tablebaseHits;
+            this.pv = Arrays.copyOf( pv, pvLength );
+        }
+
+        /**
+         * Creates a copy of the given result with the given numbers of nodes and tablebase hits,
+         * e.g. the totals over all threads of a parallel search.
+         */
+        Result( Result result, long nodes, long tablebaseHits )
+        {
+            this( result.bestMove, result.score, result.depth, result.line, nodes, result.time, result.hashfull, tablebaseHits, result.pv, result.pv.length );
+        }
+
+        /**
+         * Returns the best move found.
+         * 
+         * @return the best move, encoded as described in {@code Move} (if the player to move has
+         *         any legal moves); {@code Move.NONE} otherwise
+         */
+        public int getBestMove()
+        {
+            return this.bestMove;
+        }
+
+        /**
+         * Returns the score of the best move, in centipawns, for the player to move. Scores within
+         * {@code MAX_MATE_PLY} of {@code MATE} are forced mates; see {@code isMate()}.
+         * 
+         * @return the score of the best move
+         */
+        public int getScore()
+        {
+            return this.score;
+        }
+
+        /**
+         * Returns a boolean indicating whether the score is a forced mate (for either player).
+         * 
+         * @return {@code true} if the score is a forced mate; {@code false} otherwise
+         */
+        public boolean isMate()
+        {
+            return Math.abs( score ) >= MATE - MAX_MATE_PLY;
+        }
+
+        /**
+         * Returns the depth of the deepest completed iteration.
+         * 
+         * @return the depth searched, in plies
+         */
+        public int getDepth()
+        {
+            return this.depth;
+        }
+
+        /**
+         * Returns the number of the line, when the search finds several (see
+         * {@code Search.setMultiPv}).
+         * 
+         * @return the number of the line: 1 for the best move, 2 for the second best and so on
+         */
+        public int getLine()
+        {
+            return this.line;
+        }
+
+        public long getNodes()
+        {
+            return this.nodes;
+        }
+
+        /**
+         * Returns the time taken by the search.
+         * 
+         * @return the time taken, in milliseconds
+         */
+        public long getTime()
+        {
+            return this.time;
+        }
+
+        /**
+         * Returns how full the transposition table was at the end of the search; see
+         * {@code TranspositionTable.getHashfull()}.
+         * 
+         * @return the number of entries in use per thousand
+         */
+        public int getHashfull()
+        {
+            return this.hashfull;
+        }
+
+        /**
+         * Returns the number of positions found in the endgame tables by the search.
+         * 
+         * @return the number of positions found
+         */
+        public long getTablebaseHits()
+        {
+            return this.tablebaseHits;
+        }
+
+        /**
+         * Returns the principal variation: the best move, followed by the best replies found for
+         * each player in turn.
+         * 
+         * @return the principal variation
+         */
+        public int[] getPv()
+        {
+            return this.pv.clone();
+        }
+
+        /**
+         * Returns the reply expected to the best move: the second move of the principal variation.
+         * 
+         * @return the expected reply (if any); {@code Move.NONE} otherwise
+         */
+        public int getPonderMove()
+        {
+            return pv.length > 1 ? pv[ 1 ] : Move.NONE;
+        }
+
+        /**
+         * Returns the principal variation in UCI notation, with the moves separated by spaces.
+         * 
+         * @return the principal variation in UCI notation
+         */
+        public String getPvString()
+        {
+            StringBuilder sb = new StringBuilder();
+
+            for ( int move : pv )
+            {
+                if ( sb.length() > 0 )
+                    sb.append( ' ' );
+
+                sb.append( Move.toString( move ) );
+            }
+
+            return sb.toString();
+        }
+
+        @Override
+        public String toString()
+        {
+            return String.format( "depth %d multipv %d score %s nodes %d nps %d time %d hashfull %d tbhits %d pv %s",
+                                  depth,
+                                  line,
+                                  isMate() ? "mate " + (score > 0 ? (MATE - score + 1) / 2 : -(MATE + score) / 2) : "cp " + score,
+                                  nodes,
+                                  1000 * nodes / Math.max( 1, time ),
+                                  time,
+                                  hashfull,
+                                  tablebaseHits,
+                                  getPvString() );
+        }
+    }
+}
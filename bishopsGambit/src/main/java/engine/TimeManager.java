@@ -0,0 +1,117 @@
+package main.java.engine;
+
+/**
+ * Decides how long to search for a move played on a clock, given the time left, the increment
+ * and the number of moves to the next time control.
+ * <p>
+ * Two limits are set for each move. The soft limit is the time the move should normally take:
+ * iterative deepening does not start another iteration once it is reached (see
+ * {@code shouldStop}). It is scaled down when the best move has stayed the same for several
+ * iterations, since further iterations are unlikely to change it, and scaled up when the best move
+ * has just changed or the score has dropped, since the position is then worth more time. The hard
+ * limit stops the search in the middle of an iteration; the search checks it every fixed number of
+ * nodes rather than at every node, since reading the clock is slow.
+ * <p>
+ * Both limits leave a margin for the time taken to send the move, and neither is more than the
+ * time left, so the clock is never run down to zero. The soft limit is never more than half the
+ * time left, so with little time left a move normally takes at most half of it, whatever the
+ * increment; only a search whose best move keeps changing may go on towards the hard limit.
+ */
+public class TimeManager
+{
+    /**
+     * The time allowed for sending the move and for the GUI to stop the clock, in milliseconds.
+     */
+    public static final long MOVE_OVERHEAD = 50;
+
+    /**
+     * The number of moves the time left is expected to last when there is no next time control.
+     */
+    private static final int DEFAULT_MOVES_TO_GO = 30;
+
+    /**
+     * The hard limit as a multiple of the soft limit.
+     */
+    private static final int HARD_LIMIT_FACTOR = 4;
+
+    /**
+     * The number of iterations the best move must stay the same for it to count as stable.
+     */
+    private static final int STABLE_ITERATIONS = 3;
+
+    /**
+     * The drop in score, in centipawns, from one iteration to the next for which the soft limit is
+     * extended.
+     */
+    private static final int SCORE_DROP = 30;
+
+    private final long softLimit;
+    private final long hardLimit;
+
+    private int bestMove;
+    private int score;
+    private int iterations;
+    private int stableIterations;
+
+    /**
+     * Creates a time manager for a move.
+     * 
+     * @param time      the time left on the clock of the player to move, in milliseconds
+     * @param increment the time added to the clock after each move, in milliseconds
+     * @param movesToGo the number of moves to the next time control (or zero if the time left is
+     *                  for the rest of the game)
+     */
+    public TimeManager( long time, long increment, int movesToGo )
+    {
+        long available = Math.max( 1, time - Math.min( MOVE_OVERHEAD, time / 2 ) );
+        long allocated = time / (movesToGo > 0 ? movesToGo : DEFAULT_MOVES_TO_GO) + increment * 3 / 4;
+
+        // At most half of what is left, so that there is room to extend the search
+        this.softLimit = Math.max( 1, Math.min( allocated, available / 2 ) );
+        this.hardLimit = Math.min( HARD_LIMIT_FACTOR * softLimit, available );
+    }
+
+    public long getSoftLimit()
+    {
+        return this.softLimit;
+    }
+
+    public long getHardLimit()
+    {
+        return this.hardLimit;
+    }
+
+    /**
+     * Records the result of an iteration of iterative deepening and returns a boolean indicating
+     * whether the search should stop rather than start another one.
+     * 
+     * @param bestMove the best move found by the iteration
+     * @param score    the score of the best move
+     * @param elapsed  the time since the search started, in milliseconds
+     * @return {@code true} if the soft limit, scaled by the stability of the best move and the
+     *         change in score, has been reached; {@code false} otherwise
+     */
+    public boolean shouldStop( int bestMove, int score, long elapsed )
+    {
+        int percent = 100;
+
+        if ( iterations > 0 )
+        {
+            stableIterations = bestMove == this.bestMove ? stableIterations + 1 : 0;
+
+            if ( stableIterations >= STABLE_ITERATIONS )
+                percent = 50;
+            else if ( stableIterations == 0 )
+                percent = 130;
+
+            if ( this.score - score >= SCORE_DROP )
+                percent *= 2;
+        }
+
+        this.bestMove = bestMove;
+        this.score = score;
+        iterations++;
+
+        return elapsed >= Math.min( softLimit * percent / 100, hardLimit );
+    }
+}
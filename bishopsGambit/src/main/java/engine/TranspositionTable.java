@@ -0,0 +1,316 @@
+package main.java.engine;
+
+import java.util.Arrays;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * A fixed-size hash table of search results, keyed by Zobrist key, that any number of search
+ * threads can share without locking.
+ * <p>
+ * Each entry is two {@code long}s: the <i>data</i> (best move, score, depth, bound and age packed
+ * into one value) and the key exclusive-or'd with the data. Writing a {@code long} is atomic, but
+ * writing the two is not, so two threads storing to the same entry at once can leave the key of one
+ * with the data of the other. Such an entry fails validation ({@code stored ^ data != key}) and is
+ * treated as a miss, rather than returning another position's data.
+ * <p>
+ * Entries are grouped into buckets of {@code BUCKET_SIZE}, and a position may be stored in any
+ * entry of its bucket. When the bucket is full, the entry replaced is the one that is least useful:
+ * shallow entries and entries left over from earlier searches (see {@code newSearch()}) go first.
+ */
+public class TranspositionTable
+{
+    // Bounds
+    public static final int NONE = 0;
+    public static final int UPPER = 1;
+    public static final int LOWER = 2;
+    public static final int EXACT = 3;
+
+    /**
+     * The size of the table used by a search that is not given one, in megabytes.
+     */
+    public static final int DEFAULT_SIZE = 16;
+
+    private static final int BUCKET_SIZE = 4;
+
+    /**
+     * The size of an entry in bytes (two {@code long}s).
+     */
+    private static final int ENTRY_SIZE = 16;
+
+    /*
+     * The layout of the data: the move in bits 0-15, the score in bits 16-31 (signed), the depth
+     * in bits 32-39, the bound in bits 40-41 and the age in bits 42-47.
+     */
+    private static final int SCORE_SHIFT = 16;
+    private static final int DEPTH_SHIFT = 32;
+    private static final int BOUND_SHIFT = 40;
+    private static final int AGE_SHIFT = 42;
+    private static final int AGE_MASK = 0x3F;
+
+    private long[] table;
+    private int bucketMask;
+
+    private volatile int age;
+
+    private final LongAdder probes = new LongAdder();
+    private final LongAdder hits = new LongAdder();
+
+    /**
+     * Creates a table of (at most) the given size.
+     * 
+     * @param megabytes the size of the table, in megabytes (at least 1)
+     */
+    public TranspositionTable( int megabytes )
+    {
+        resize( megabytes );
+    }
+
+    /**
+     * Replaces the table with an empty one of (at most) the given size. The number of buckets is
+     * rounded down to a power of two.
+     * 
+     * @param megabytes the size of the table, in megabytes (at least 1)
+     */
+    public void resize( int megabytes )
+    {
+        long entries = Math.max( 1, megabytes ) * (1L << 20) / ENTRY_SIZE;
+        long buckets = Long.highestOneBit( Math.min( entries / BUCKET_SIZE, Integer.MAX_VALUE / (2 * BUCKET_SIZE) ) );
+
+        table = new long[ (int) (buckets * 2 * BUCKET_SIZE) ];
+        bucketMask = (int) buckets - 1;
+        age = 0;
+        resetStatistics();
+    }
+
+    /**
+     * Removes every entry from the table.
+     */
+    public void clear()
+    {
+        Arrays.fill( table, 0 );
+        age = 0;
+        resetStatistics();
+    }
+
+    /**
+     * Returns the size of the table.
+     * 
+     * @return the size of the table, in megabytes
+     */
+    public int getSize()
+    {
+        return (int) ((long) table.length * Long.BYTES >> 20);
+    }
+
+    /**
+     * Marks the start of a new search, so that the entries stored by earlier searches are replaced
+     * in preference to new ones.
+     */
+    public void newSearch()
+    {
+        age = (age + 1) & AGE_MASK;
+    }
+
+    /**
+     * Looks up the position with the given key.
+     * 
+     * @param key the Zobrist key of the position
+     * @return the data stored for the position, to be read with {@code getMove(long)} etc. (if
+     *         found); zero otherwise
+     */
+    public long probe( long key )
+    {
+        long[] table = this.table;
+        int bucket = getBucket( key, table );
+
+        probes.increment();
+
+        for ( int i = bucket; i < bucket + 2 * BUCKET_SIZE; i += 2 )
+        {
+            long data = table[ i + 1 ];
+
+            if ( (table[ i ] ^ data) == key && getBound( data ) != NONE )
+            {
+                hits.increment();
+                return data;
+            }
+        }
+
+        return 0;
+    }
+
+    /**
+     * Stores the result of searching the position with the given key.
+     * 
+     * @param key   the Zobrist key of the position
+     * @param move  the best move found (or {@code Move.NONE})
+     * @param score the score, adjusted with {@code toTable(int, int)} if it may be a mate score
+     * @param depth the depth searched
+     * @param bound {@code EXACT}, {@code LOWER} (the score is at least this) or {@code UPPER} (at
+     *              most this)
+     */
+    public void store( long key, int move, int score, int depth, int bound )
+    {
+        long[] table = this.table;
+        int bucket = getBucket( key, table );
+        int age = this.age;
+
+        int replace = bucket;
+        int worst = Integer.MAX_VALUE;
+
+        for ( int i = bucket; i < bucket + 2 * BUCKET_SIZE; i += 2 )
+        {
+            long data = table[ i + 1 ];
+
+            if ( (table[ i ] ^ data) == key || getBound( data ) == NONE )
+            {
+                // Keep the best move of a previous search of this position if none was found
+                if ( move == 0 && (table[ i ] ^ data) == key )
+                    move = getMove( data );
+
+                replace = i;
+                break;
+            }
+
+            // Older entries count as shallower
+            int value = getDepth( data ) - 8 * ((age - getAge( data )) & AGE_MASK);
+
+            if ( value < worst )
+            {
+                worst = value;
+                replace = i;
+            }
+        }
+
+        long data = (move & 0xFFFFL) |
+                    ((score & 0xFFFFL) << SCORE_SHIFT) |
+                    ((long) Math.min( depth, 0xFF ) << DEPTH_SHIFT) |
+                    ((long) bound << BOUND_SHIFT) |
+                    ((long) age << AGE_SHIFT);
+
+        table[ replace ] = key ^ data;
+        table[ replace + 1 ] = data;
+    }
+
+    private int getBucket( long key, long[] table )
+    {
+        // The low bits of the key are mixed with the high bits, which are otherwise unused
+        int bucket = (int) (key ^ (key >>> 32)) & bucketMask;
+        return bucket * 2 * BUCKET_SIZE;
+    }
+
+    public static int getMove( long data )
+    {
+        return (int) (data & 0xFFFF);
+    }
+
+    public static int getScore( long data )
+    {
+        return (short) (data >>> SCORE_SHIFT);
+    }
+
+    public static int getDepth( long data )
+    {
+        return (int) (data >>> DEPTH_SHIFT) & 0xFF;
+    }
+
+    public static int getBound( long data )
+    {
+        return (int) (data >>> BOUND_SHIFT) & 0x3;
+    }
+
+    private static int getAge( long data )
+    {
+        return (int) (data >>> AGE_SHIFT) & AGE_MASK;
+    }
+
+    /**
+     * Converts a score at the given ply to the score to store. Mate scores count the plies from
+     * the root, but a stored position may be reached at a different ply, so they are stored
+     * counting the plies from the position itself.
+     * 
+     * @param score the score
+     * @param ply   the ply at which the position was searched
+     * @return the score to store
+     */
+    public static int toTable( int score, int ply )
+    {
+        if ( score >= Search.MATE - Search.MAX_MATE_PLY )
+            return score + ply;
+
+        if ( score <= -Search.MATE + Search.MAX_MATE_PLY )
+            return score - ply;
+
+        return score;
+    }
+
+    /**
+     * Converts a stored score to the score at the given ply; the inverse of
+     * {@code toTable(int, int)}.
+     * 
+     * @param score the stored score
+     * @param ply   the ply at which the position was reached
+     * @return the score at the given ply
+     */
+    public static int fromTable( int score, int ply )
+    {
+        if ( score >= Search.MATE - Search.MAX_MATE_PLY )
+            return score - ply;
+
+        if ( score <= -Search.MATE + Search.MAX_MATE_PLY )
+            return score + ply;
+
+        return score;
+    }
+
+    /**
+     * Returns the proportion of lookups that found an entry since the table was created, resized or
+     * cleared, or {@code resetStatistics()} was called.
+     * 
+     * @return the hit rate, between 0 and 1
+     */
+    public double getHitRate()
+    {
+        long probes = this.probes.sum();
+        return probes == 0 ? 0 : (double) hits.sum() / probes;
+    }
+
+    public long getProbes()
+    {
+        return probes.sum();
+    }
+
+    public long getHits()
+    {
+        return hits.sum();
+    }
+
+    public void resetStatistics()
+    {
+        probes.reset();
+        hits.reset();
+    }
+
+    /**
+     * Estimates how full the table is from a sample of its entries, counting only entries stored
+     * during the current search.
+     * 
+     * @return the number of entries in use per thousand
+     */
+    public int getHashfull()
+    {
+        long[] table = this.table;
+        int sample = Math.min( 1000, table.length / 2 );
+        int used = 0;
+
+        for ( int i = 0; i < sample; i++ )
+        {
+            long data = table[ 2 * i + 1 ];
+
+            if ( getBound( data ) != NONE && getAge( data ) == age )
+                used++;
+        }
+
+        return 1000 * used / sample;
+    }
+}
@@ -0,0 +1,474 @@
+package main.java.engine;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.PrintStream;
+import java.nio.file.InvalidPathException;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Locale;
+import java.util.Random;
+import java.util.concurrent.CompletableFuture;
+
+import main.java.board.Board;
+import main.java.board.Fen;
+import main.java.board.Move;
+import main.java.board.MoveGenerator;
+import main.java.engine.Search.Result;
+import main.java.player.Player;
+import main.java.player.Player.Colour;
+import main.java.tablebase.Tablebase;
+
+/**
+ * A headless engine speaking the Universal Chess Interface (UCI) protocol on standard input and
+ * output, for use with chess GUIs and tournament managers. The following commands are supported:
+ * <ul>
+ * <li>{@code uci}, {@code isready}, {@code ucinewgame} and {@code quit};</li>
+ * <li>{@code setoption name Hash value <MB>}, {@code setoption name Threads value <n>},
+ * {@code setoption name MultiPV value <n>}, {@code setoption name OwnBook value true|false},
+ * {@code setoption name BookFile value <path>} and {@code setoption name TablebasePath value
+ * <directory>};</li>
+ * <li>{@code position startpos|fen <fen> [moves <move>...]};</li>
+ * <li>{@code go [ponder] [depth <d>] [nodes <n>] [movetime <ms>] [wtime <ms>] [btime <ms>]
+ * [winc <ms>] [binc <ms>] [movestogo <n>] [infinite]};</li>
+ * <li>{@code ponderhit} and {@code stop}.</li>
+ * </ul>
+ * Searches run on their own thread (see {@code Engine.start}), so commands, in particular
+ * {@code stop} and {@code isready}, are answered while a search is running. Unknown commands are
+ * ignored, as the protocol requires.
+ * <p>
+ * Each best move is sent with the reply expected to it, which the GUI may then ask the engine to
+ * ponder on ({@code go ponder}) while the opponent thinks. If the opponent plays that reply, the
+ * GUI sends {@code ponderhit} and the search carries on as a normal search; if not, it sends
+ * {@code stop}, and the next search starts with the transposition table filled by the pondering.
+ * <p>
+ * With {@code OwnBook} set and a Polyglot book given by {@code BookFile}, positions in the book are
+ * answered at once with a move from it, chosen at random by weight, instead of being searched.
+ * With {@code TablebasePath} set to a directory of endgame tables (see {@code Tablebase}), the
+ * search probes them.
+ * <p>
+ * Each {@code info} line of a search gives the positions found in the tables ({@code tbhits}) so
+ * far. Before the best move, the engine sends how full the transposition table is, the tablebase
+ * hits and, as an {@code info string}, the proportion of table lookups that found an entry during
+ * the search, which helps in choosing the {@code Hash} size.
+ */
+public class Uci
+{
+    private static final String NAME = "Bishop's Gambit";
+    private static final String AUTHOR = "Olly Bishop";
+
+    private final BufferedReader in;
+    private final PrintStream out;
+
+    private final Engine engine = new Engine();
+
+    private final Player white = new Player( Colour.WHITE );
+    private final Player black = new Player( Colour.BLACK );
+
+    private final Board board = Fen.toBoard( Fen.START_POSITION, white, black );
+
+    /**
+     * The Zobrist keys of the positions before the current one since the last pawn move or
+     * capture, oldest first.
+     */
+    private long[] history = new long[ 0 ];
+
+    private final int[] moves = new int[ MoveGenerator.MAX_MOVES ];
+
+    private PolyglotBook book;
+    private boolean ownBook;
+    private final Random random = new Random();
+
+    private CompletableFuture<Void> search = CompletableFuture.completedFuture( null );
+
+    /*
+     * In infinite mode or while pondering, the best move must not be sent until stop (or
+     * ponderhit, when pondering) is received, even if the search ends first; it is held in
+     * pendingResult until then.
+     */
+    private boolean infinite;
+    private boolean pondering;
+    private boolean stopRequested;
+    private Result pendingResult;
+
+    public Uci( BufferedReader in, PrintStream out )
+    {
+        this.in = in;
+        this.out = out;
+
+        engine.setListener( result -> send( "info " + result ) );
+    }
+
+    public static void main( String[] args ) throws IOException
+    {
+        new Uci( new BufferedReader( new InputStreamReader( System.in ) ), System.out ).run();
+    }
+
+    /**
+     * Reads and carries out commands until {@code quit} is received or the input ends. At the end
+     * of the input, the current search (if any) is allowed to finish.
+     * 
+     * @throws IOException if an I/O error occurs reading the input
+     */
+    public void run() throws IOException
+    {
+        String line;
+
+        while ( (line = in.readLine()) != null )
+            if ( !handle( line ) )
+                return;
+
+        search.join();
+    }
+
+    /**
+     * Carries out the given command.
+     * 
+     * @param line the command
+     * @return {@code false} if the command was {@code quit}; {@code true} otherwise
+     */
+    private boolean handle( String line )
+    {
+        String[] tokens = line.trim().split( "\\s+" );
+
+        switch ( tokens[ 0 ] )
+        {
+            case "uci" ->
+            {
+                send( "id name " + NAME );
+                send( "id author " + AUTHOR );
+                send( "option name Hash type spin default " + TranspositionTable.DEFAULT_SIZE + " min 1 max 65536" );
+                send( "option name Threads type spin default 1 min 1 max " + Engine.MAX_THREADS );
+                send( "option name MultiPV type spin default 1 min 1 max " + MoveGenerator.MAX_MOVES );
+                send( "option name Ponder type check default false" );
+                send( "option name OwnBook type check default false" );
+                send( "option name BookFile type string default <empty>" );
+                send( "option name TablebasePath type string default <empty>" );
+                send( "uciok" );
+            }
+
+            case "isready" -> send( "readyok" );
+
+            case "setoption" -> setOption( tokens );
+
+            case "ucinewgame" ->
+            {
+                search.join();
+                engine.getTranspositionTable().clear();
+            }
+
+            case "position" -> position( tokens );
+
+            case "go" -> go( tokens );
+
+            case "ponderhit" -> ponderHit();
+
+            case "stop" -> stop();
+
+            case "quit" ->
+            {
+                stop();
+                search.join();
+                return false;
+            }
+
+            default ->
+            {
+                // Unknown commands are ignored
+            }
+        }
+
+        return true;
+    }
+
+    private void setOption( String[] tokens )
+    {
+        // setoption name <id> value <x>
+        if ( tokens.length < 5 || !tokens[ 1 ].equals( "name" ) || !tokens[ 3 ].equals( "value" ) )
+            return;
+
+        search.join();
+
+        try
+        {
+            switch ( tokens[ 2 ].toLowerCase() )
+            {
+                case "hash" -> engine.getTranspositionTable().resize( Integer.parseInt( tokens[ 4 ] ) );
+                case "threads" -> engine.setThreads( Integer.parseInt( tokens[ 4 ] ) );
+                case "multipv" -> engine.setMultiPv( Integer.parseInt( tokens[ 4 ] ) );
+                case "ownbook" -> ownBook = Boolean.parseBoolean( tokens[ 4 ] );
+                case "bookfile" -> book = openBook( String.join( " ", Arrays.copyOfRange( tokens, 4, tokens.length ) ) );
+                case "tablebasepath" -> engine.setTablebase( openTablebase( String.join( " ", Arrays.copyOfRange( tokens, 4, tokens.length ) ) ) );
+
+                case "ponder" ->
+                {
+                    // Pondering is started by the GUI, so the engine need not know whether it may
+                }
+
+                default -> send( "info string Unknown option '" + tokens[ 2 ] + "'." );
+            }
+        }
+        catch ( IllegalArgumentException e )
+        {
+            send( "info string " + e.getMessage() );
+        }
+    }
+
+    private void position( String[] tokens )
+    {
+        int i = 1;
+        String fen;
+
+        if ( tokens.length > 1 && tokens[ 1 ].equals( "startpos" ) )
+        {
+            fen = Fen.START_POSITION;
+            i = 2;
+        }
+        else if ( tokens.length > 1 && tokens[ 1 ].equals( "fen" ) )
+        {
+            for ( i = 2; i < tokens.length && !tokens[ i ].equals( "moves" ); i++ );
+
+            fen = String.join( " ", Arrays.copyOfRange( tokens, 2, i ) );
+        }
+        else
+        {
+            return;
+        }
+
+        try
+        {
+            Fen.setPosition( board, fen, white, black );
+        }
+        catch ( IllegalArgumentException e )
+        {
+            send( "info string " + e.getMessage() );
+            Fen.setPosition( board, Fen.START_POSITION, white, black );
+        }
+
+        long[] history = new long[ 16 ];
+        int length = 0;
+
+        if ( i < tokens.length && tokens[ i ].equals( "moves" ) )
+        {
+            for ( i++; i < tokens.length; i++ )
+            {
+                int move = parseMove( tokens[ i ] );
+
+                if ( move == Move.NONE )
+                {
+                    send( "info string Illegal move '" + tokens[ i ] + "'." );
+                    break;
+                }
+
+                if ( length == history.length )
+                    history = Arrays.copyOf( history, 2 * length );
+
+                history[ length++ ] = board.getZobristKey();
+                board.makeMove( move );
+
+                // No earlier position can occur again after a pawn move or capture
+                if ( board.getHalfmoveClock() == 0 )
+                    length = 0;
+            }
+        }
+
+        this.history = Arrays.copyOf( history, length );
+    }
+
+    /**
+     * Returns the legal move in the current position with the given UCI notation (if any);
+     * {@code Move.NONE} otherwise.
+     */
+    private int parseMove( String uci )
+    {
+        int n = MoveGenerator.generateLegalMoves( board, moves );
+
+        for ( int i = 0; i < n; i++ )
+            if ( Move.toString( moves[ i ] ).equals( uci ) )
+                return moves[ i ];
+
+        return Move.NONE;
+    }
+
+    private void go( String[] tokens )
+    {
+        search.join();
+
+        Limits limits = new Limits();
+        boolean infinite = false;
+
+        long time = -1;
+        long increment = 0;
+        int movesToGo = 0;
+
+        boolean white = board.getActiveColour() == Colour.WHITE;
+
+        for ( int i = 1; i < tokens.length; i++ )
+        {
+            try
+            {
+                switch ( tokens[ i ] )
+                {
+                    case "depth" -> limits.setDepth( Integer.parseInt( tokens[ ++i ] ) );
+                    case "nodes" -> limits.setNodes( Long.parseLong( tokens[ ++i ] ) );
+                    case "movetime" -> limits.setTime( Long.parseLong( tokens[ ++i ] ) );
+                    case "wtime" -> time = white ? Long.parseLong( tokens[ ++i ] ) : skip( tokens, ++i, time );
+                    case "btime" -> time = !white ? Long.parseLong( tokens[ ++i ] ) : skip( tokens, ++i, time );
+                    case "winc" -> increment = white ? Long.parseLong( tokens[ ++i ] ) : skip( tokens, ++i, increment );
+                    case "binc" -> increment = !white ? Long.parseLong( tokens[ ++i ] ) : skip( tokens, ++i, increment );
+                    case "movestogo" -> movesToGo = Integer.parseInt( tokens[ ++i ] );
+                    case "infinite" -> infinite = true;
+                    case "ponder" -> limits.setPonder( true );
+
+                    default ->
+                    {
+                        // Unknown parameters are ignored
+                    }
+                }
+            }
+            catch ( NumberFormatException | ArrayIndexOutOfBoundsException e )
+            {
+                send( "info string Invalid value for '" + tokens[ i - 1 ] + "'." );
+            }
+        }
+
+        if ( time >= 0 )
+            limits.setClock( time, increment, movesToGo );
+
+        // A book move is played at once, unless the GUI wants analysis
+        if ( !infinite && !limits.isPonder() )
+        {
+            int bookMove = getBookMove();
+
+            if ( bookMove != Move.NONE )
+            {
+                send( "info string Book move." );
+                send( "bestmove " + Move.toString( bookMove ) );
+                return;
+            }
+        }
+
+        synchronized ( this )
+        {
+            this.infinite = infinite;
+            this.pondering = limits.isPonder();
+            this.stopRequested = false;
+            this.pendingResult = null;
+        }
+
+        search = engine.start( board, history, limits ).thenAccept( this::searchFinished );
+    }
+
+    /**
+     * Returns the given value, for a parameter that applies to the other player.
+     */
+    private static long skip( String[] tokens, int i, long value )
+    {
+        Long.parseLong( tokens[ i ] );
+        return value;
+    }
+
+    private PolyglotBook openBook( String path )
+    {
+        if ( path.isEmpty() || path.equals( "<empty>" ) )
+            return null;
+
+        try
+        {
+            return new PolyglotBook( Path.of( path ) );
+        }
+        catch ( IOException | InvalidPathException e )
+        {
+            send( "info string Cannot open book: " + e.getMessage() );
+            return null;
+        }
+    }
+
+    private Tablebase openTablebase( String path )
+    {
+        if ( path.isEmpty() || path.equals( "<empty>" ) )
+            return null;
+
+        try
+        {
+            Tablebase tablebase = new Tablebase( Path.of( path ) );
+            send( "info string Found " + tablebase.size() + " tables with up to " + tablebase.getMaxPieces() + " pieces." );
+            return tablebase;
+        }
+        catch ( IOException | InvalidPathException e )
+        {
+            send( "info string Cannot open tablebase: " + e.getMessage() );
+            return null;
+        }
+    }
+
+    /**
+     * Returns a move from the book for the current position (if the book is in use and has one);
+     * {@code Move.NONE} otherwise.
+     */
+    private int getBookMove()
+    {
+        if ( !ownBook || book == null )
+            return Move.NONE;
+
+        return book.getWeightedMove( board, random );
+    }
+
+    private synchronized void searchFinished( Result result )
+    {
+        if ( (infinite || pondering) && !stopRequested )
+            pendingResult = result;
+        else
+            sendBestMove( result );
+    }
+
+    private synchronized void ponderHit()
+    {
+        pondering = false;
+        engine.ponderHit();
+
+        // A search that ended while pondering (e.g. at its depth limit) has its best move ready
+        if ( pendingResult != null && !infinite )
+        {
+            sendBestMove( pendingResult );
+            pendingResult = null;
+        }
+    }
+
+    private synchronized void stop()
+    {
+        stopRequested = true;
+        engine.stop();
+
+        if ( pendingResult != null )
+        {
+            sendBestMove( pendingResult );
+            pendingResult = null;
+        }
+    }
+
+    private void sendBestMove( Result result )
+    {
+        // How well the table and tablebase served the search, for choosing the Hash size
+        TranspositionTable table = engine.getTranspositionTable();
+        send( "info hashfull " + table.getHashfull() + " tbhits " + result.getTablebaseHits() );
+        send( String.format( Locale.ROOT, "info string hash hitrate %.1f%%", 100 * table.getHitRate() ) );
+
+        if ( result.getBestMove() == Move.NONE )
+            send( "bestmove 0000" );
+        else if ( result.getPonderMove() == Move.NONE )
+            send( "bestmove " + Move.toString( result.getBestMove() ) );
+        else
+            send( "bestmove " + Move.toString( result.getBestMove() ) + " ponder " + Move.toString( result.getPonderMove() ) );
+    }
+
+    private void send( String message )
+    {
+        synchronized ( out )
+        {
+            out.println( message );
+            out.flush();
+        }
+    }
+}
@@ -5,6 +5,8 @@ import java.util.Arrays;
 import java.util.List;
 
 import main.java.board.Board;
+import main.java.board.Fen;
+import main.java.board.PackedBoard;
 import main.java.board.Square;
 import main.java.pieces.Pawn;
 import main.java.pieces.Piece;
@@ -14,7 +16,16 @@ import main.java.player.Player.Colour;
 
 public class Game
 {
-    private final List<Board> boards = new ArrayList<>();
+    /**
+     * The position after each turn, packed; the current position is also kept as a full board.
+     */
+    private final List<PackedBoard> boards = new ArrayList<>();
+    private Board board;
+
+    /**
+     * The number of times each position has occurred since the last pawn move or capture.
+     */
+    private final RepetitionTable repetitions = new RepetitionTable();
 
     private final Player white = new Player( Colour.WHITE );
     private final Player black = new Player( Colour.BLACK );
@@ -41,22 +52,43 @@ public class Game
         addBoard( board );
     }
 
+    /**
+     * Starts a game from the position described by the given FEN string.
+     * 
+     * @param fen the position in Forsyth-Edwards Notation (FEN)
+     * @throws IllegalArgumentException if the FEN string is malformed
+     */
+    public Game( String fen )
+    {
+        System.out.println( "New game started." );
+
+        addBoard( Fen.toBoard( fen, white, black ) );
+    }
+
     /**
      * This method is called whenever a move is made. By storing a list of board states throughout
      * the game, we can view how the board looked on a previous turn and (potentially) undo moves.
-     * The number of boards stored is used to determine which player's turn it is.
+     * Each board state is stored as a {@code PackedBoard}, which takes a small fraction of the
+     * memory of a {@code Board}.
      * 
      * @param board the new {@code Board} after a move was made
      */
     private void addBoard( Board board )
     {
-        boards.add( board );
-        updateStatus( board );
+        boards.add( new PackedBoard( board, white, black ) );
+        this.board = board;
+
+        int occurrences = repetitions.add( board.getZobristKey() );
+        updateStatus( board, occurrences );
 
         printBoardInfo( board );
     }
 
-    private void updateStatus( Board board )
+    /**
+     * @param board       the new {@code Board} after a move was made
+     * @param occurrences the number of times the position on the board has occurred
+     */
+    private void updateStatus( Board board, int occurrences )
     {
         Player activePlayer = getActivePlayer();
 
@@ -69,6 +101,9 @@ public class Game
         else if ( board.hasInsufficientMaterial() )
             setStatus( Status.INSUFFICIENT_MATERIAL );
 
+        else if ( occurrences >= 3 )
+            setStatus( Status.THREEFOLD_REPETITION );
+
         else if ( activePlayer.isInCheck( board ) )
             setStatus( Status.CHECK );
 
@@ -98,12 +133,22 @@ public class Game
      */
     public Board getBoard()
     {
-        return getBoard( getNumberOfTurnsTaken() );
+        return board;
     }
 
+    /**
+     * Returns the board as it was after the given number of turns. Other than the current board,
+     * each is inflated from its packed form on demand, so a new board is returned by every call.
+     * 
+     * @param index the number of turns taken
+     * @return the board after the given number of turns
+     */
     public Board getBoard( int index )
     {
-        return boards.get( index );
+        if ( index == getNumberOfTurnsTaken() )
+            return getBoard();
+
+        return boards.get( index ).toBoard( white, black );
     }
 
     /**
@@ -119,11 +164,21 @@ public class Game
     /**
      * Returns the player whose turn it currently is.
      * 
-     * @return White if the number of turns taken is even; Black if it is odd
+     * @return the player whose colour is the current board's active colour
      */
     public Player getActivePlayer()
     {
-        return getNumberOfTurnsTaken() % 2 == 0 ? white : black;
+        return getBoard().getActiveColour() == Colour.WHITE ? white : black;
+    }
+
+    /**
+     * Returns the current position in Forsyth-Edwards Notation (FEN).
+     * 
+     * @return the current position in FEN
+     */
+    public String getFen()
+    {
+        return Fen.toString( getBoard() );
     }
 
     private String[] parseUci( String uci )
@@ -214,6 +269,7 @@ public class Game
         Board newBoard = getBoard().cloneAndMove( from, to );
 
         Piece piece = from.getPiece();
+
         Piece newPiece;
 
         if ( newType == null )
@@ -246,6 +302,10 @@ public class Game
             newPiece = newBoard.promote( (Pawn) piece, newType );
         }
 
+        // No position before a pawn move or capture can occur again
+        if ( piece instanceof Pawn || to.isOccupied() )
+            repetitions.clear();
+
         addBoard( newBoard );
 
         if ( isGameOver() )
@@ -258,7 +318,8 @@ public class Game
     {
         return getStatus() == Status.CHECKMATE ||
                getStatus() == Status.STALEMATE ||
-               getStatus() == Status.INSUFFICIENT_MATERIAL;
+               getStatus() == Status.INSUFFICIENT_MATERIAL ||
+               getStatus() == Status.THREEFOLD_REPETITION;
     }
 
     public String getGameOverMessage()
@@ -268,6 +329,7 @@ public class Game
             case CHECKMATE -> getActivePlayer().getColour().transpose() + " wins by checkmate.";
             case STALEMATE -> "Game drawn by stalemate.";
             case INSUFFICIENT_MATERIAL -> "Game drawn by insufficient material.";
+            case THREEFOLD_REPETITION -> "Game drawn by threefold repetition.";
 
             default -> null;
         };
@@ -275,6 +337,6 @@ public class Game
 
     public enum Status
     {
-        DEFAULT, CHECK, CHECKMATE, STALEMATE, INSUFFICIENT_MATERIAL;
+        DEFAULT, CHECK, CHECKMATE, STALEMATE, INSUFFICIENT_MATERIAL, THREEFOLD_REPETITION;
     }
 }
@@ -0,0 +1,97 @@
+package main.java.game;
+
+import java.util.Arrays;
+
+/**
+ * Counts how many times each position has occurred in a game, keyed by Zobrist key. This is an
+ * open-addressing hash table, so recording a position and reading its count take constant time.
+ * <p>
+ * After a pawn move or a capture, no earlier position can occur again, so the table is cleared.
+ * Only the slots filled since the previous clear are reset, so the work done is proportional to
+ * the number of positions since the last irreversible move rather than to the size of the table.
+ */
+class RepetitionTable
+{
+    private long[] keys = new long[ 64 ];
+    private int[] counts = new int[ 64 ];
+
+    /**
+     * The slots filled since the table was last cleared, in the order they were filled.
+     */
+    private int[] filled = new int[ 32 ];
+    private int size;
+
+    /**
+     * Records an occurrence of the position with the given key.
+     * 
+     * @param key the Zobrist key of the position
+     * @return the number of times the position has occurred since the table was last cleared,
+     *         including this occurrence
+     */
+    int add( long key )
+    {
+        int slot = find( key );
+
+        if ( counts[ slot ] == 0 )
+        {
+            // Keep the table at most half full, so probe sequences stay short
+            if ( 2 * (size + 1) > keys.length )
+            {
+                grow();
+                slot = find( key );
+            }
+
+            keys[ slot ] = key;
+
+            if ( size == filled.length )
+                filled = Arrays.copyOf( filled, 2 * size );
+
+            filled[ size++ ] = slot;
+        }
+
+        return ++counts[ slot ];
+    }
+
+    /**
+     * Forgets every position recorded so far.
+     */
+    void clear()
+    {
+        for ( int i = 0; i < size; i++ )
+            counts[ filled[ i ] ] = 0;
+
+        size = 0;
+    }
+
+    /**
+     * Returns the slot holding the given key, or the empty slot where it would be stored.
+     */
+    private int find( long key )
+    {
+        int mask = keys.length - 1;
+        int slot = (int) (key ^ (key >>> 32)) & mask;
+
+        while ( counts[ slot ] != 0 && keys[ slot ] != key )
+            slot = (slot + 1) & mask;
+
+        return slot;
+    }
+
+    private void grow()
+    {
+        long[] oldKeys = keys;
+        int[] oldCounts = counts;
+        int[] oldFilled = Arrays.copyOf( filled, size );
+
+        keys = new long[ 2 * oldKeys.length ];
+        counts = new int[ 2 * oldCounts.length ];
+
+        for ( int i = 0; i < oldFilled.length; i++ )
+        {
+            int slot = find( oldKeys[ oldFilled[ i ] ] );
+            keys[ slot ] = oldKeys[ oldFilled[ i ] ];
+            counts[ slot ] = oldCounts[ oldFilled[ i ] ];
+            filled[ i ] = slot;
+        }
+    }
+}
@@ -0,0 +1,127 @@
+package main.java.pgn;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+import main.java.board.Fen;
+import main.java.board.Move;
+import main.java.game.Game;
+
+/**
+ * A game read by {@code PgnReader}: its tag pairs, the moves of its main line and its result.
+ * Moves are stored encoded as described in {@code Move}, having already been checked for legality
+ * when they were read.
+ */
+public class PgnGame
+{
+    public static final String WHITE_WINS = "1-0";
+    public static final String BLACK_WINS = "0-1";
+    public static final String DRAW = "1/2-1/2";
+    public static final String UNKNOWN = "*";
+
+    private final Map<String, String> tags;
+    private final int[] moves;
+    private final String result;
+
+    PgnGame( Map<String, String> tags, int[] moves, String result )
+    {
+        this.tags = Collections.unmodifiableMap( tags );
+        this.moves = moves;
+        this.result = result;
+    }
+
+    /**
+     * Returns the tag pairs of this game in the order they were read, e.g. "Event" or "White".
+     * 
+     * @return an unmodifiable map from tag names to values
+     */
+    public Map<String, String> getTags()
+    {
+        return tags;
+    }
+
+    /**
+     * @param name the name of the tag, e.g. "White"
+     * @return the value of the tag (if present); {@code null} otherwise
+     */
+    public String getTag( String name )
+    {
+        return tags.get( name );
+    }
+
+    /**
+     * Returns the position the game starts from: the value of the "FEN" tag if there is one, and
+     * the standard starting position otherwise.
+     * 
+     * @return the starting position in Forsyth-Edwards Notation (FEN)
+     */
+    public String getFen()
+    {
+        return tags.getOrDefault( "FEN", Fen.START_POSITION );
+    }
+
+    public int getNumberOfMoves()
+    {
+        return moves.length;
+    }
+
+    /**
+     * @param index the index of the move, starting from 0 for the first move of the game
+     * @return the move, encoded as described in {@code Move}
+     */
+    public int getMove( int index )
+    {
+        return moves[ index ];
+    }
+
+    public int[] getMoves()
+    {
+        return Arrays.copyOf( moves, moves.length );
+    }
+
+    /**
+     * Returns the moves of this game in Universal Chess Interface (UCI) notation, e.g. "e2e4", as
+     * accepted by {@code Game.makeMove(String)}.
+     * 
+     * @return a list of the moves in UCI notation
+     */
+    public List<String> getUciMoves()
+    {
+        List<String> uci = new ArrayList<>( moves.length );
+
+        for ( int move : moves )
+            uci.add( Move.toString( move ) );
+
+        return uci;
+    }
+
+    /**
+     * Returns the result that terminates the movetext of this game: {@code WHITE_WINS},
+     * {@code BLACK_WINS}, {@code DRAW} or {@code UNKNOWN} (which is also used if the movetext
+     * ends without a result).
+     * 
+     * @return the result of the game
+     */
+    public String getResult()
+    {
+        return result;
+    }
+
+    /**
+     * Starts a {@code Game} from the starting position of this game and plays its moves.
+     * 
+     * @return the game, after the last move has been made
+     */
+    public Game toGame()
+    {
+        Game game = new Game( getFen() );
+
+        for ( int move : moves )
+            game.makeMove( Move.toString( move ) );
+
+        return game;
+    }
+}
@@ -0,0 +1,489 @@
+package main.java.pgn;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileChannel.MapMode;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+import main.java.board.Board;
+import main.java.board.Fen;
+import main.java.board.MoveGenerator;
+import main.java.board.San;
+import main.java.player.Player;
+import main.java.player.Player.Colour;
+
+/**
+ * Reads games in Portable Game Notation (PGN) one at a time from a channel or a memory-mapped
+ * file, so that databases far larger than the heap can be processed.
+ * <p>
+ * The input is tokenized a byte at a time straight from a fixed-size buffer: a 64 KB buffer that
+ * is refilled from a {@code ReadableByteChannel}, or consecutive 64 MB windows of a file mapped
+ * with {@code FileChannel.map}. Only the current game's tags and moves are held in memory. Each
+ * move of the main line is resolved with {@code San.toMove} against the legal moves of a single
+ * board, which is reused from game to game; comments, variations, numeric annotation glyphs and
+ * move numbers are skipped. Tag values are decoded as UTF-8.
+ * <p>
+ * A game that cannot be read (e.g. one with an illegal move or a malformed tag) makes {@code next}
+ * throw an {@code IllegalArgumentException} naming the game and ply; the reader has by then moved
+ * past that game, so iteration can carry on with the next one. A reader is not thread-safe.
+ */
+public class PgnReader implements Iterator<PgnGame>, Closeable
+{
+    private static final int BUFFER_SIZE = 1 << 16;
+    private static final long WINDOW_SIZE = 1L << 26;
+
+    private static final String[] RESULTS = { PgnGame.WHITE_WINS, PgnGame.BLACK_WINS, PgnGame.DRAW };
+
+    private final ReadableByteChannel channel;
+
+    /**
+     * The file being mapped (if reading from a path); {@code null} otherwise.
+     */
+    private final FileChannel file;
+
+    private long position;
+    private ByteBuffer buffer;
+
+    private final Player white = new Player( Colour.WHITE );
+    private final Player black = new Player( Colour.BLACK );
+    private final Board board = new Board();
+
+    private final int[] legalMoves = new int[ MoveGenerator.MAX_MOVES ];
+    private int[] moves = new int[ 256 ];
+    private int numberOfMoves;
+
+    private final StringBuilder token = new StringBuilder();
+    private byte[] bytes = new byte[ 256 ];
+
+    private int numberOfGames;
+
+    /**
+     * The game read ahead by {@code hasNext}, or the exception thrown while reading it.
+     */
+    private PgnGame nextGame;
+    private IllegalArgumentException nextError;
+
+    /**
+     * Creates a reader that reads from the given channel, which must be in blocking mode.
+     * 
+     * @param channel the channel to read PGN text from
+     */
+    public PgnReader( ReadableByteChannel channel )
+    {
+        this.channel = channel;
+        this.file = null;
+        this.buffer = ByteBuffer.allocate( BUFFER_SIZE ).flip();
+    }
+
+    /**
+     * Creates a reader that maps the given file into memory one window at a time.
+     * 
+     * @param path the path of the PGN file
+     * @throws IOException if the file cannot be opened
+     */
+    public PgnReader( Path path ) throws IOException
+    {
+        this.file = FileChannel.open( path, StandardOpenOption.READ );
+        this.channel = file;
+        this.buffer = ByteBuffer.allocate( 0 );
+    }
+
+    /**
+     * Returns a sequential stream of the remaining games, which closes this reader when it is
+     * closed. Since a game that cannot be read ends the stream with an exception, use the iterator
+     * methods directly to skip such games instead.
+     * 
+     * @return a stream of the remaining games
+     */
+    public Stream<PgnGame> stream()
+    {
+        Spliterator<PgnGame> spliterator = Spliterators.spliteratorUnknownSize( this, Spliterator.ORDERED | Spliterator.NONNULL );
+
+        return StreamSupport.stream( spliterator, false ).onClose( () ->
+        {
+            try
+            {
+                close();
+            }
+            catch ( IOException e )
+            {
+                throw new UncheckedIOException( e );
+            }
+        } );
+    }
+
+    /**
+     * @return {@code true} if there is another game to read (even if it will turn out to be
+     *         invalid); {@code false} otherwise
+     * @throws UncheckedIOException if the input cannot be read
+     */
+    @Override
+    public boolean hasNext()
+    {
+        if ( nextGame == null && nextError == null )
+        {
+            try
+            {
+                nextGame = readGame();
+            }
+            catch ( IllegalArgumentException e )
+            {
+                nextError = e;
+            }
+            catch ( IOException e )
+            {
+                throw new UncheckedIOException( e );
+            }
+        }
+
+        return nextGame != null || nextError != null;
+    }
+
+    /**
+     * @return the next game
+     * @throws NoSuchElementException   if there are no more games
+     * @throws IllegalArgumentException if the next game cannot be read
+     * @throws UncheckedIOException     if the input cannot be read
+     */
+    @Override
+    public PgnGame next()
+    {
+        if ( !hasNext() )
+            throw new NoSuchElementException();
+
+        PgnGame game = nextGame;
+        IllegalArgumentException error = nextError;
+
+        nextGame = null;
+        nextError = null;
+
+        if ( error != null )
+            throw error;
+
+        return game;
+    }
+
+    @Override
+    public void close() throws IOException
+    {
+        channel.close();
+    }
+
+    /**
+     * Reads the tag pairs and movetext of the next game, up to and including its result.
+     * 
+     * @return the game (if any remain); {@code null} otherwise
+     * @throws IllegalArgumentException if the game cannot be read, after skipping the rest of it
+     */
+    private PgnGame readGame() throws IOException
+    {
+        Map<String, String> tags = new LinkedHashMap<>();
+        numberOfMoves = 0;
+
+        boolean empty = true;
+        boolean movetext = false;
+        String result = null;
+        IllegalArgumentException error = null;
+
+        for ( int c = peek(); c >= 0 && result == null; c = peek() )
+        {
+            if ( c == '[' )
+            {
+                // A new tag pair section, so the last game had no result
+                if ( movetext )
+                    break;
+
+                read();
+                empty = false;
+
+                try
+                {
+                    readTag( tags );
+                }
+                catch ( IllegalArgumentException e )
+                {
+                    if ( error == null )
+                        error = e;
+                }
+
+                continue;
+            }
+
+            read();
+
+            switch ( c )
+            {
+                case '{' -> skipPast( '}' );
+                case ';', '%' -> skipPast( '\n' );
+                case '(' -> skipVariation();
+                case '$' -> skipDigits();
+                case '*' -> result = PgnGame.UNKNOWN;
+
+                default ->
+                {
+                    if ( !isSymbol( c ) )
+                        break;
+
+                    readSymbol( c );
+                    empty = false;
+
+                    if ( !movetext )
+                    {
+                        movetext = true;
+
+                        try
+                        {
+                            Fen.setPosition( board, tags.getOrDefault( "FEN", Fen.START_POSITION ), white, black );
+                        }
+                        catch ( IllegalArgumentException e )
+                        {
+                            if ( error == null )
+                                error = e;
+                        }
+                    }
+
+                    result = getResult( token );
+
+                    if ( result == null && !isMoveNumber( token ) && error == null )
+                    {
+                        try
+                        {
+                            int move = San.toMove( board, token, legalMoves );
+
+                            if ( numberOfMoves == moves.length )
+                                moves = Arrays.copyOf( moves, 2 * numberOfMoves );
+
+                            moves[ numberOfMoves++ ] = move;
+                            board.makeMove( move );
+                        }
+                        catch ( IllegalArgumentException e )
+                        {
+                            error = e;
+                        }
+                    }
+                }
+            }
+        }
+
+        if ( empty && result == null )
+            return null;
+
+        numberOfGames++;
+
+        if ( error != null )
+            throw new IllegalArgumentException( "Game " + numberOfGames + ", ply " + (numberOfMoves + 1) + ": " + error.getMessage(), error );
+
+        return new PgnGame( tags, Arrays.copyOf( moves, numberOfMoves ), result == null ? PgnGame.UNKNOWN : result );
+    }
+
+    /**
+     * Reads a tag pair, e.g. {@code [White "Carlsen, Magnus"]}, following its opening bracket.
+     * 
+     * @throws IllegalArgumentException if the tag pair is malformed, after skipping the rest of it
+     */
+    private void readTag( Map<String, String> tags ) throws IOException
+    {
+        skipWhitespace();
+
+        int n = 0;
+
+        for ( int c = peek(); isSymbol( c ); c = peek() )
+            n = append( n, read() );
+
+        String name = new String( bytes, 0, n, StandardCharsets.US_ASCII );
+
+        skipWhitespace();
+
+        if ( n == 0 || read() != '"' )
+        {
+            skipPast( ']' );
+            throw new IllegalArgumentException( "Tag pair '" + name + "' must have a name and a quoted value." );
+        }
+
+        n = 0;
+
+        for ( int c = read(); c != '"'; c = read() )
+        {
+            if ( c < 0 || c == '\n' )
+                throw new IllegalArgumentException( "Tag pair '" + name + "' has an unterminated value." );
+
+            if ( c == '\\' )
+                c = read();
+
+            n = append( n, c );
+        }
+
+        tags.put( name, new String( bytes, 0, n, StandardCharsets.UTF_8 ) );
+
+        skipPast( ']' );
+    }
+
+    /**
+     * Reads the rest of a symbol (a move, move number or result) beginning with the given character
+     * into {@code token}.
+     */
+    private void readSymbol( int first ) throws IOException
+    {
+        token.setLength( 0 );
+        token.append( (char) first );
+
+        for ( int c = peek(); isSymbol( c ); c = peek() )
+            token.append( (char) read() );
+    }
+
+    /**
+     * Skips a recursive annotation variation following its opening parenthesis, including any
+     * variations and comments nested inside it.
+     */
+    private void skipVariation() throws IOException
+    {
+        int depth = 1;
+
+        while ( depth > 0 )
+        {
+            switch ( read() )
+            {
+                case -1 -> depth = 0;
+                case '(' -> depth++;
+                case ')' -> depth--;
+                case '{' -> skipPast( '}' );
+                case ';' -> skipPast( '\n' );
+            }
+        }
+    }
+
+    private void skipPast( int end ) throws IOException
+    {
+        for ( int c = read(); c != end && c >= 0; c = read() )
+            ;
+    }
+
+    private void skipDigits() throws IOException
+    {
+        for ( int c = peek(); '0' <= c && c <= '9'; c = peek() )
+            read();
+    }
+
+    private void skipWhitespace() throws IOException
+    {
+        for ( int c = peek(); 0 <= c && c <= ' '; c = peek() )
+            read();
+    }
+
+    private int append( int n, int c )
+    {
+        if ( n == bytes.length )
+            bytes = Arrays.copyOf( bytes, 2 * n );
+
+        bytes[ n ] = (byte) c;
+        return n + 1;
+    }
+
+    /**
+     * Returns the next byte of input without consuming it.
+     * 
+     * @return the byte, from 0 to 255 (if any input remains); -1 otherwise
+     */
+    private int peek() throws IOException
+    {
+        if ( !buffer.hasRemaining() && !refill() )
+            return -1;
+
+        return buffer.get( buffer.position() ) & 0xFF;
+    }
+
+    /**
+     * Consumes and returns the next byte of input.
+     * 
+     * @return the byte, from 0 to 255 (if any input remained); -1 otherwise
+     */
+    private int read() throws IOException
+    {
+        if ( !buffer.hasRemaining() && !refill() )
+            return -1;
+
+        return buffer.get() & 0xFF;
+    }
+
+    /**
+     * Replaces the exhausted buffer with the next part of the input: the next window of the file,
+     * or as many bytes as the channel provides.
+     * 
+     * @return {@code true} if there was more input; {@code false} at the end of the input
+     */
+    private boolean refill() throws IOException
+    {
+        if ( file != null )
+        {
+            long size = file.size();
+
+            if ( position >= size )
+                return false;
+
+            long length = Math.min( WINDOW_SIZE, size - position );
+            buffer = file.map( MapMode.READ_ONLY, position, length );
+            position += length;
+
+            return true;
+        }
+
+        buffer.clear();
+
+        int n;
+
+        do
+            n = channel.read( buffer );
+        while ( n == 0 );
+
+        buffer.flip();
+
+        return n > 0;
+    }
+
+    /**
+     * Returns whether the given character may appear in a PGN symbol token. Annotation marks
+     * ({@code !} and {@code ?}) are left out, so that they are skipped along with other stray
+     * characters.
+     */
+    private static boolean isSymbol( int c )
+    {
+        return 'a' <= c && c <= 'z' || 'A' <= c && c <= 'Z' || '0' <= c && c <= '9'
+            || c == '_' || c == '+' || c == '#' || c == '=' || c == ':' || c == '-' || c == '/';
+    }
+
+    private static boolean isMoveNumber( CharSequence token )
+    {
+        for ( int i = 0; i < token.length(); i++ )
+            if ( !Character.isDigit( token.charAt( i ) ) )
+                return false;
+
+        return true;
+    }
+
+    /**
+     * @return the result the given token denotes (if any); {@code null} otherwise
+     */
+    private static String getResult( CharSequence token )
+    {
+        for ( String result : RESULTS )
+            if ( result.contentEquals( token ) )
+                return result;
+
+        return null;
+    }
+}
@@ -1,10 +1,6 @@
 package main.java.pieces;
 
-import java.util.ArrayList;
-import java.util.List;
-
-import main.java.board.Board;
-import main.java.board.Square;
+import main.java.board.Bitboards;
 import main.java.player.Player;
 
 public class Bishop extends Piece
@@ -27,45 +23,8 @@ public class Bishop extends Piece
     }
 
     @Override
-    public List<Square> getTargets( Board board )
-    {
-        return getTargets( board, this );
-    }
-
-    public static List<Square> getTargets( Board board, Piece piece )
+    public long getAttacks( int index, long occupied )
     {
-        List<Square> targets = new ArrayList<>();
-
-        Square square = piece.getSquare( board );
-
-        for ( int x : new int[] { -1, 1 } )
-        {
-            for ( int y : new int[] { -1, 1 } )
-            {
-                for ( int n = 1; n < 8; n++ )
-                {
-                    Square s = square.travel( board, n * x, n * y );
-
-                    if ( s == null )
-                    {
-                        break;
-                    }
-
-                    if ( s.isOccupied() )
-                    {
-                        if ( s.isOccupiedByOpponent( piece.getPlayer() ) )
-                        {
-                            targets.add( s );
-                        }
-
-                        break;
-                    }
-
-                    targets.add( s );
-                }
-            }
-        }
-
-        return targets;
+        return Bitboards.bishopAttacks( index, occupied );
     }
 }
@@ -1,10 +1,6 @@
 package main.java.pieces;
 
-import java.util.ArrayList;
-import java.util.List;
-
-import main.java.board.Board;
-import main.java.board.Square;
+import main.java.board.Bitboards;
 import main.java.player.Player;
 
 public class Knight extends Piece
@@ -27,28 +23,8 @@ public class Knight extends Piece
     }
 
     @Override
-    public List<Square> getTargets( Board board )
+    public long getAttacks( int index, long occupied )
     {
-        List<Square> targets = new ArrayList<>();
-
-        Square square = getSquare( board );
-
-        for ( int x : new int[] { -1, 1 } )
-        {
-            for ( int y : new int[] { -1, 1 } )
-            {
-                for ( int n : new int[] { 1, 2 } )
-                {
-                    Square s = square.travel( board, n * x, (3 - n) * y );
-
-                    if ( s != null && !s.isOccupiedBy( getPlayer() ) )
-                    {
-                        targets.add( s );
-                    }
-                }
-            }
-        }
-
-        return targets;
+        return Bitboards.knightAttacks( index );
     }
 }
@@ -1,8 +1,6 @@
 package main.java.pieces;
 
-import java.util.ArrayList;
-import java.util.List;
-
+import main.java.board.Bitboards;
 import main.java.board.Board;
 import main.java.board.Square;
 import main.java.player.Player;
@@ -27,47 +25,40 @@ public class Pawn extends Piece
     }
 
     @Override
-    public List<Square> getTargets( Board board )
+    public long getAttacks( int index, long occupied )
+    {
+        return Bitboards.pawnAttacks( getColour(), index );
+    }
+
+    @Override
+    protected long getTargetBitboard( Board board )
     {
-        List<Square> targets = new ArrayList<>();
+        long targets = Bitboards.EMPTY;
 
         Square square = getSquare( board );
+        int index = square.getIndex();
         int y = getSign();
 
-        // Move forward one or two squares
-        for ( int n : new int[] { 1, 2 } )
-        {
-            if ( n == 1 || square == getStartSquare( board ) )
-            {
-                Square s = square.travel( board, 0, n * y );
+        long empty = ~board.getOccupied();
 
-                if ( s != null )
-                {
-                    if ( s.isOccupied() )
-                    {
-                        break;
-                    }
+        // Move forward one or two squares
+        long single = Bitboards.travel( index, 0, y ) & empty;
+        targets |= single;
 
-                    targets.add( s );
-                }
-            }
-        }
+        if ( single != 0 && square.getRank() == getStartSquare( board ).getRank() )
+            targets |= Bitboards.travel( index, 0, 2 * y ) & empty;
 
         // Capture diagonally
-        for ( int x : new int[] { -1, 1 } )
-        {
-            Square s0 = square.travel( board, x, 0 );
-            Square s1 = square.travel( board, x, y );
+        targets |= getAttacks( index, board.getOccupied() ) & board.getBitboard( getColour().transpose() );
 
-            boolean regularCapture = s1 != null &&
-                                     s1.isOccupiedByOpponent( getPlayer() );
+        Pawn enPassantPawn = board.getEnPassantPawn();
 
-            boolean enPassantCapture = s0 != null &&
-                                       s0.isOccupiedByOpponent( getPlayer() ) &&
-                                       s0.getPiece() == board.getEnPassantPawn();
+        if ( enPassantPawn != null && enPassantPawn.getPlayer() != getPlayer() )
+        {
+            Square s0 = enPassantPawn.getSquare( board );
 
-            if ( regularCapture || enPassantCapture )
-                targets.add( s1 );
+            if ( s0.rankDiff( square ) == 0 && Math.abs( s0.fileDiff( square ) ) == 1 )
+                targets |= Bitboards.travel( s0.getIndex(), 0, y );
         }
 
         return targets;
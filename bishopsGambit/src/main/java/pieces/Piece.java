@@ -3,7 +3,9 @@ package main.java.pieces;
 import java.util.Arrays;
 import java.util.List;
 
+import main.java.board.Bitboards;
 import main.java.board.Board;
+import main.java.board.MoveGenerator;
 import main.java.board.Square;
 import main.java.player.Player;
 import main.java.player.Player.Colour;
@@ -79,6 +81,30 @@ public abstract class Piece
      */
     public abstract int getValue();
 
+    /**
+     * Returns a bitboard of all squares a piece of this type would attack from the square with the
+     * given <b>index</b>, given the occupied squares. Squares occupied by friendly pieces are
+     * included, as are (for sliding pieces) the first occupied square along each ray.
+     * 
+     * @param index    the index of the square the piece is standing on
+     * @param occupied a bitboard of all occupied squares
+     * @return a bitboard of all squares attacked from the given square
+     */
+    public abstract long getAttacks( int index, long occupied );
+
+    /**
+     * Returns a bitboard of all squares this piece is currently targeting; i.e., all squares this
+     * piece could move to if checks are ignored.
+     * 
+     * @param board the chess board
+     * @return a bitboard of all squares this piece could move to if checks are ignored
+     */
+    protected long getTargetBitboard( Board board )
+    {
+        int index = getSquare( board ).getIndex();
+        return getAttacks( index, board.getOccupied() ) & ~board.getBitboard( getColour() );
+    }
+
     /**
      * Returns a list of all squares this piece is currently targeting; i.e., all squares this piece
      * could move to if checks are ignored.
@@ -86,21 +112,22 @@ public abstract class Piece
      * @param board the chess board
      * @return a list of all squares this piece could move to if checks are ignored
      */
-    protected abstract List<Square> getTargets( Board board );
+    protected List<Square> getTargets( Board board )
+    {
+        return board.getSquares( getTargetBitboard( board ) );
+    }
 
     /**
-     * Returns a list of all squares this piece can legally move to. The list returned is a filtered
-     * version of {@code getTargets(Board)}.
+     * Returns a list of all squares this piece can legally move to, as found by
+     * {@code MoveGenerator}. Unlike {@code getTargets(Board)}, this includes castling and excludes
+     * any move that would leave the player's king in check.
      * 
      * @param board the chess board
      * @return a list of all squares this piece can legally move to
      */
     public List<Square> getMoves( Board board )
     {
-        Square from = getSquare( board );
-        return getTargets( board ).stream()
-                                  .filter( to -> !getPlayer().isInCheck( board.cloneAndMove( from, to ) ) )
-                                  .toList();
+        return board.getSquares( MoveGenerator.getLegalTargets( board, getSquare( board ).getIndex() ) );
     }
 
     public Square getStartSquare( Board board )
@@ -116,10 +143,7 @@ public abstract class Piece
      */
     public Square getSquare( Board board )
     {
-        return board.stream()
-                    .filter( s -> s.getPiece() == this )
-                    .findAny()
-                    .orElse( null );
+        return board.getSquare( this );
     }
 
     /**
@@ -143,7 +167,7 @@ public abstract class Piece
      */
     public boolean isTargeting( Square square, Board board )
     {
-        return getTargets( board ).contains( square );
+        return Bitboards.contains( getTargetBitboard( board ), square.getIndex() );
     }
 
     public boolean canPromote( Square square )
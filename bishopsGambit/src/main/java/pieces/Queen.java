@@ -1,11 +1,7 @@
 package main.java.pieces;
 
-import java.util.List;
-
-import main.java.board.Board;
-import main.java.board.Square;
+import main.java.board.Bitboards;
 import main.java.player.Player;
-import main.java.util.ListUtils;
 
 public class Queen extends Piece
 {
@@ -27,10 +23,8 @@ public class Queen extends Piece
     }
 
     @Override
-    public List<Square> getTargets( Board board )
+    public long getAttacks( int index, long occupied )
     {
-        List<Square> bishopTargets = Bishop.getTargets( board, this );
-        List<Square> rookTargets = Rook.getTargets( board, this );
-        return ListUtils.combine( bishopTargets, rookTargets );
+        return Bitboards.queenAttacks( index, occupied );
     }
 }
@@ -2,13 +2,17 @@ package main.java.player;
 
 import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
 
 import main.java.board.Board;
+import main.java.board.Move;
+import main.java.board.MoveGenerator;
 import main.java.pieces.Bishop;
 import main.java.pieces.King;
 import main.java.pieces.Knight;
 import main.java.pieces.Pawn;
 import main.java.pieces.Piece;
+import main.java.pieces.Piece.Typ;
 import main.java.pieces.Queen;
 import main.java.pieces.Rook;
 
@@ -17,7 +21,18 @@ public class Player
     private final Colour colour;
     private final int sign;
 
-    private final List<Piece> pieces = new ArrayList<>();
+    /**
+     * Every piece this player has ever had. Pieces are only added (when a promotion piece is
+     * created, possibly by a search thread), so the list is copied on write and may be read by any
+     * thread.
+     */
+    private final List<Piece> pieces = new CopyOnWriteArrayList<>();
+
+    /**
+     * Pieces created by {@code getPromotionPiece} for promotions made with {@code Board.makeMove}.
+     * These are also in {@code pieces}.
+     */
+    private final List<Piece> promotionPieces = new ArrayList<>();
 
     private final Rook queensideRook;
     private final Rook kingsideRook;
@@ -117,6 +132,33 @@ public class Player
         return this.king;
     }
 
+    /**
+     * Returns a piece of the given type belonging to this player that is not currently on the given
+     * board, for use when a pawn is promoted by {@code Board.makeMove}. Such pieces are reused
+     * between calls, so exploring promotions (and unmaking them) does not create a new piece each
+     * time.
+     * 
+     * @param type  the promotion type
+     * @param board the board the promotion is being made on
+     * @return a piece of the given type that is not on the given board
+     */
+    public synchronized Piece getPromotionPiece( Typ type, Board board )
+    {
+        for ( Piece piece : promotionPieces )
+            if ( piece.getType() == type && !board.containsPiece( piece ) )
+                return piece;
+
+        char lastRank = switch ( getColour() )
+        {
+            case WHITE -> '8';
+            case BLACK -> '1';
+        };
+
+        Piece piece = Piece.newInstance( type, this, 'a', lastRank );
+        promotionPieces.add( piece );
+        return piece;
+    }
+
     @Override
     public String toString()
     {
@@ -131,7 +173,7 @@ public class Player
      */
     public boolean isInCheck( Board board )
     {
-        return getKing().isTargeted( board );
+        return board.isInCheck( getColour() );
     }
 
     /**
@@ -157,17 +199,28 @@ public class Player
     }
 
     /**
-     * Calculates the number of legal moves this player can make.
+     * Calculates the number of legal moves this player can make. A pawn moving to its last rank is
+     * counted once, regardless of the number of piece types it could be promoted to.
      * 
      * @param board the chess board
      * @return the number of legal moves this player can make
      */
     public int getNumberOfLegalMoves( Board board )
     {
-        return getPieces().stream()
-                          .filter( pc -> board.containsPiece( pc ) )
-                          .mapToInt( pc -> pc.getMoves( board ).size() )
-                          .sum();
+        int[] moves = new int[ MoveGenerator.MAX_MOVES ];
+        int n = MoveGenerator.generateLegalMoves( board, getColour(), moves );
+
+        int count = 0;
+
+        for ( int i = 0; i < n; i++ )
+        {
+            Typ promotion = Move.getPromotion( moves[ i ] );
+
+            if ( promotion == null || promotion == Typ.QUEEN )
+                count++;
+        }
+
+        return count;
     }
 
     /**
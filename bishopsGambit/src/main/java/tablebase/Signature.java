@@ -0,0 +1,441 @@
+package main.java.tablebase;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import main.java.board.Bitboards;
+import main.java.pieces.Piece.Typ;
+import main.java.player.Player.Colour;
+
+/**
+ * The material of an endgame, e.g. {@code KQvKR}: the pieces of White, then "v", then the pieces
+ * of Black, each side's king first and the rest in the order queen, rook, bishop, knight, pawn.
+ * The pieces are numbered in that order ("slots"), and a position with the material is given by
+ * the square of each slot.
+ * <p>
+ * A signature also defines the index of each position in its table. Positions are reduced by
+ * symmetry first: without pawns, the board is mirrored and flipped so that the white king stands
+ * in the triangle a1-d1-d4 (10 squares), and, if it stands on the diagonal, so that the first
+ * other piece not on the diagonal stands below it; with pawns, which cannot be flipped, it is only mirrored
+ * so that the white king stands on files a to d (32 squares). The index is then a number in mixed
+ * radix with one digit per slot: the reduced white king square, and for each other piece its
+ * square (64) or, for a pawn, which can only stand on the second to seventh ranks, one of 48.
+ * <p>
+ * Of a signature and its mirror image with the colours exchanged (e.g. {@code KRvKQ} and
+ * {@code KQvKR}), only the one with the stronger side as White is canonical, and only canonical
+ * signatures have tables; positions of the other are probed with the colours exchanged and the
+ * board flipped.
+ */
+public class Signature
+{
+    private static final String LETTERS = "KQRBNP";
+
+    /*
+     * The squares of the triangle a1-d1-d4, and the position of each square in it (or -1).
+     */
+    private static final int[] TRIANGLE = new int[ 10 ];
+    private static final int[] TRIANGLE_INDEX = new int[ 64 ];
+
+    static
+    {
+        int n = 0;
+
+        for ( int index = 0; index < 64; index++ )
+        {
+            int file = Bitboards.getFile( index );
+            int rank = Bitboards.getRank( index );
+
+            if ( file < 4 && rank <= file )
+            {
+                TRIANGLE[ n ] = index;
+                TRIANGLE_INDEX[ index ] = n++;
+            }
+            else
+            {
+                TRIANGLE_INDEX[ index ] = -1;
+            }
+        }
+    }
+
+    private final String name;
+    private final Colour[] colours;
+    private final Typ[] types;
+    private final boolean pawns;
+
+    /**
+     * The radix of the digit of each slot in the index.
+     */
+    private final int[] radix;
+    private final int size;
+
+    private Signature( Colour[] colours, Typ[] types )
+    {
+        this.colours = colours;
+        this.types = types;
+
+        StringBuilder sb = new StringBuilder();
+        boolean pawns = false;
+
+        for ( int i = 0; i < types.length; i++ )
+        {
+            if ( i > 0 && colours[ i ] != colours[ i - 1 ] )
+                sb.append( 'v' );
+
+            sb.append( LETTERS.charAt( types[ i ].ordinal() ) );
+            pawns |= types[ i ] == Typ.PAWN;
+        }
+
+        this.name = sb.toString();
+        this.pawns = pawns;
+
+        this.radix = new int[ types.length ];
+        long size = 1;
+
+        for ( int i = 0; i < types.length; i++ )
+        {
+            radix[ i ] = i == 0 ? (pawns ? 32 : TRIANGLE.length) : types[ i ] == Typ.PAWN ? 48 : 64;
+            size *= radix[ i ];
+        }
+
+        if ( size > Integer.MAX_VALUE / 2 )
+            throw new IllegalArgumentException( "Signature '" + name + "' has too many pieces." );
+
+        this.size = (int) size;
+    }
+
+    /**
+     * Returns the signature with the given name, e.g. {@code KQvKR}. The pieces of each side may be
+     * given in any order after the king.
+     * 
+     * @param name the name of the signature
+     * @return the signature
+     * @throws IllegalArgumentException if the name is not of the form {@code K...vK...}
+     */
+    public static Signature of( String name )
+    {
+        String[] sides = name.split( "v", -1 );
+
+        if ( sides.length != 2 || !sides[ 0 ].startsWith( "K" ) || !sides[ 1 ].startsWith( "K" ) )
+            throw new IllegalArgumentException( "Signature '" + name + "' must be of the form K...vK...." );
+
+        List<Colour> colours = new ArrayList<>();
+        List<Typ> types = new ArrayList<>();
+
+        for ( Colour colour : Colour.values() )
+        {
+            String side = sides[ colour.ordinal() ];
+
+            for ( int i = 0; i < side.length(); i++ )
+            {
+                int type = LETTERS.indexOf( side.charAt( i ) );
+
+                if ( type < 0 || (type == Typ.KING.ordinal()) != (i == 0) )
+                    throw new IllegalArgumentException( "Signature '" + name + "' has an invalid piece '" + side.charAt( i ) + "'." );
+
+                colours.add( colour );
+                types.add( Typ.values()[ type ] );
+            }
+        }
+
+        return of( colours.toArray( new Colour[ 0 ] ), types.toArray( new Typ[ 0 ] ), types.size() );
+    }
+
+    /**
+     * Returns the signature of the given pieces, which may be in any order.
+     * 
+     * @param colours the colour of each piece
+     * @param types   the type of each piece
+     * @param n       the number of pieces
+     * @return the signature
+     */
+    public static Signature of( Colour[] colours, Typ[] types, int n )
+    {
+        Colour[] sortedColours = new Colour[ n ];
+        Typ[] sortedTypes = new Typ[ n ];
+        int i = 0;
+
+        for ( Colour colour : Colour.values() )
+        {
+            for ( Typ type : Typ.values() )
+            {
+                for ( int j = 0; j < n; j++ )
+                {
+                    if ( colours[ j ] == colour && types[ j ] == type )
+                    {
+                        sortedColours[ i ] = colour;
+                        sortedTypes[ i++ ] = type;
+                    }
+                }
+            }
+        }
+
+        return new Signature( sortedColours, sortedTypes );
+    }
+
+    public String getName()
+    {
+        return this.name;
+    }
+
+    public int getNumberOfPieces()
+    {
+        return this.types.length;
+    }
+
+    public Colour getColour( int slot )
+    {
+        return this.colours[ slot ];
+    }
+
+    public Typ getType( int slot )
+    {
+        return this.types[ slot ];
+    }
+
+    public boolean hasPawns()
+    {
+        return this.pawns;
+    }
+
+    /**
+     * Returns the number of positions in the table with each player to move.
+     * 
+     * @return the number of positions (including illegal ones)
+     */
+    public int size()
+    {
+        return this.size;
+    }
+
+    /**
+     * Returns a boolean indicating whether the signature has only the two kings, in which case
+     * every position is a draw and there is no table.
+     * 
+     * @return {@code true} if there are only the two kings; {@code false} otherwise
+     */
+    public boolean isTrivial()
+    {
+        return this.types.length == 2;
+    }
+
+    /**
+     * Returns a boolean indicating whether White's side of the signature is at least as strong as
+     * Black's: by the sum of the values of the pieces, then by the number of pieces, then by the
+     * strongest pieces.
+     * 
+     * @return {@code true} if the signature is canonical; {@code false} otherwise
+     */
+    public boolean isCanonical()
+    {
+        int black = 0;
+
+        while ( colours[ black ] == Colour.WHITE )
+            black++;
+
+        int difference = getValue( 0, black ) - getValue( black, types.length );
+
+        if ( difference == 0 )
+            difference = black - (types.length - black);
+
+        for ( int i = 0; difference == 0 && i < black && black + i < types.length; i++ )
+            difference = types[ black + i ].ordinal() - types[ i ].ordinal();
+
+        return difference >= 0;
+    }
+
+    private int getValue( int from, int to )
+    {
+        int value = 0;
+
+        for ( int i = from; i < to; i++ )
+        {
+            value += switch ( types[ i ] )
+            {
+                case QUEEN -> 9;
+                case ROOK -> 5;
+                case BISHOP, KNIGHT -> 3;
+                case PAWN -> 1;
+                case KING -> 0;
+            };
+        }
+
+        return value;
+    }
+
+    /**
+     * Returns the signature with the colours exchanged, e.g. {@code KRvKQ} for {@code KQvKR}.
+     * 
+     * @return the mirror image of the signature
+     */
+    public Signature mirror()
+    {
+        Colour[] colours = new Colour[ this.colours.length ];
+
+        for ( int i = 0; i < colours.length; i++ )
+            colours[ i ] = this.colours[ i ].transpose();
+
+        return of( colours, types, types.length );
+    }
+
+    /**
+     * Returns the canonical signature of this signature and its mirror image.
+     * 
+     * @return this signature (if canonical); its mirror image otherwise
+     */
+    public Signature canonical()
+    {
+        return isCanonical() ? this : mirror();
+    }
+
+    /**
+     * Returns the canonical signatures reached from this one by a capture or a promotion, other
+     * than the trivial one, in which the results of captures and promotions are looked up when the
+     * table of this signature is generated.
+     * 
+     * @return the signatures, each once
+     */
+    public List<Signature> getChildren()
+    {
+        List<Signature> children = new ArrayList<>();
+        int n = types.length;
+
+        for ( int i = 0; i < n; i++ )
+        {
+            if ( types[ i ] == Typ.KING )
+                continue;
+
+            // A capture of the piece
+            Colour[] colours = new Colour[ n - 1 ];
+            Typ[] types = new Typ[ n - 1 ];
+
+            for ( int j = 0, k = 0; j < n; j++ )
+            {
+                if ( j != i )
+                {
+                    colours[ k ] = this.colours[ j ];
+                    types[ k++ ] = this.types[ j ];
+                }
+            }
+
+            addChild( children, of( colours, types, n - 1 ) );
+
+            // A promotion of the pawn
+            if ( this.types[ i ] == Typ.PAWN )
+            {
+                for ( Typ promotion : Typ.PROMOTION_TYPES )
+                {
+                    Typ[] promoted = this.types.clone();
+                    promoted[ i ] = promotion;
+                    addChild( children, of( this.colours, promoted, n ) );
+                }
+            }
+        }
+
+        return children;
+    }
+
+    private static void addChild( List<Signature> children, Signature child )
+    {
+        child = child.canonical();
+
+        if ( !child.isTrivial() && !children.contains( child ) )
+            children.add( child );
+    }
+
+    /**
+     * Returns the index of the given position in the table of the signature, with the squares
+     * reduced by symmetry. Does not allocate.
+     * 
+     * @param squares the index of the square of the piece in each slot; pawns must not stand on
+     *                the first or last rank
+     * @return the index, between 0 (inclusive) and {@code size()} (exclusive)
+     */
+    public int getIndex( int[] squares )
+    {
+        int king = squares[ 0 ];
+        int flip = 0;
+        boolean diagonal = false;
+
+        // Mirror the files (a <-> h) and, without pawns, the ranks (1 <-> 8) and the a1-h8 diagonal
+        if ( Bitboards.getFile( king ) > 3 )
+            flip ^= 0b111000;
+
+        if ( !pawns )
+        {
+            if ( Bitboards.getRank( king ) > 3 )
+                flip ^= 0b000111;
+
+            king ^= flip;
+            diagonal = Bitboards.getRank( king ) > Bitboards.getFile( king );
+
+            // With the king on the diagonal, flip so that the first piece off it is below it
+            for ( int i = 1; i < squares.length && Bitboards.getRank( king ) == Bitboards.getFile( king ); i++ )
+            {
+                int square = squares[ i ] ^ flip;
+
+                if ( Bitboards.getRank( square ) != Bitboards.getFile( square ) )
+                {
+                    diagonal = Bitboards.getRank( square ) > Bitboards.getFile( square );
+                    break;
+                }
+            }
+        }
+
+        int index = pawns ? squares[ 0 ] ^ flip : TRIANGLE_INDEX[ transform( squares[ 0 ], flip, diagonal ) ];
+
+        for ( int i = 1; i < squares.length; i++ )
+        {
+            int square = transform( squares[ i ], flip, diagonal );
+            int digit = types[ i ] == Typ.PAWN ? 6 * Bitboards.getFile( square ) + Bitboards.getRank( square ) - 1 : square;
+
+            index = index * radix[ i ] + digit;
+        }
+
+        return index;
+    }
+
+    private static int transform( int square, int flip, boolean diagonal )
+    {
+        square ^= flip;
+        return diagonal ? Bitboards.getIndex( Bitboards.getRank( square ), Bitboards.getFile( square ) ) : square;
+    }
+
+    /**
+     * Returns the position with the given index in the table of the signature: the inverse of
+     * {@code getIndex}, giving the representative of the positions equivalent by symmetry. Not
+     * every index is the index of its position; those that are not are never used.
+     * 
+     * @param index   the index
+     * @param squares an array in which to store the square of the piece in each slot
+     */
+    public void getSquares( int index, int[] squares )
+    {
+        for ( int i = squares.length - 1; i > 0; i-- )
+        {
+            int digit = index % radix[ i ];
+            index /= radix[ i ];
+
+            squares[ i ] = types[ i ] == Typ.PAWN ? Bitboards.getIndex( digit / 6, digit % 6 + 1 ) : digit;
+        }
+
+        squares[ 0 ] = pawns ? index : TRIANGLE[ index ];
+    }
+
+    @Override
+    public boolean equals( Object obj )
+    {
+        return obj instanceof Signature signature && name.equals( signature.name );
+    }
+
+    @Override
+    public int hashCode()
+    {
+        return name.hashCode();
+    }
+
+    @Override
+    public String toString()
+    {
+        return this.name;
+    }
+}
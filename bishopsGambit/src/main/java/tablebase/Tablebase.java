@@ -0,0 +1,507 @@
+package main.java.tablebase;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+import main.java.board.Bitboards;
+import main.java.board.Board;
+import main.java.pieces.Piece.Typ;
+import main.java.player.Player.Colour;
+
+/**
+ * Endgame tablebases: for every position of a signature (see {@code Signature}) with few enough
+ * pieces, whether the player to move wins, draws or loses with best play (WDL) and, if not a draw,
+ * in how many plies the game ends in checkmate (distance to mate, DTM).
+ * <p>
+ * Both are held in a single byte per position. Zero is a draw; a positive value {@code d} is a win
+ * by checkmate in {@code d} plies (an odd number); a negative value {@code -(d + 1)} is a loss by
+ * checkmate in {@code d} plies (an even number), so that a player who is checkmated has the value
+ * {@code -1}. Illegal positions, such as those in which the player not to move is in check, have
+ * the value {@code INVALID}. Tables ignore castling, en passant and the fifty-move rule, so
+ * positions in which castling or an en passant capture is possible are not probed.
+ * <p>
+ * A table is stored in a file named after its signature with the extension {@code EXTENSION}: a
+ * 16-byte header (the magic number {@code "BGTB"}, the version of the format and the number of
+ * positions with each player to move, big-endian), then the value of each position with White to
+ * move, in the order of {@code Signature.getIndex}, then the same with Black to move.
+ * <p>
+ * An instance probes the tables in a directory, as generated by {@code TablebaseGenerator}. The
+ * files are memory-mapped rather than read, in regions of {@code REGION_SIZE} bytes, so that only
+ * the pages probed are read from disk. At most a given number of regions are kept mapped; when
+ * another is needed, the one least recently probed is dropped. Java cannot unmap a buffer
+ * explicitly, so a dropped region keeps its address space until the garbage collector frees it,
+ * and for a while more regions than the limit may be mapped. Files are closed as soon as a region
+ * is mapped, so many tables use neither much address space nor many file descriptors.
+ * <p>
+ * Probing a mapped region neither allocates nor locks, so search threads do not wait for each
+ * other: the table is found from a key of the material on the board, the index is computed from
+ * the bitboards, and the region is read from an atomic array. Only mapping and dropping regions
+ * are synchronized.
+ */
+public class Tablebase
+{
+    public static final String EXTENSION = ".bgtb";
+
+    static final int MAGIC = 0x42475442;
+    static final int VERSION = 1;
+    static final int HEADER_SIZE = 16;
+
+    public static final byte DRAW = 0;
+    public static final byte INVALID = Byte.MIN_VALUE;
+
+    /**
+     * The result of probing a position that is not in the tables.
+     */
+    public static final byte NOT_FOUND = Byte.MAX_VALUE;
+
+    /**
+     * The number of regions kept mapped by default.
+     */
+    public static final int DEFAULT_MAX_REGIONS = 64;
+
+    /**
+     * The size of the regions in which files are mapped, in bytes.
+     */
+    static final int REGION_SIZE = 1 << 24;
+
+    /**
+     * The bits per colour and type of piece in a material key, which count the pieces.
+     */
+    private static final int KEY_BITS = 3;
+
+    private static final Colour[] COLOURS = Colour.values();
+    private static final Typ[] TYPES = Typ.values();
+
+    /**
+     * The greatest distance to mate, in plies, that can be stored.
+     */
+    public static final int MAX_DISTANCE = 126;
+
+    public static boolean isWin( byte value )
+    {
+        return value > 0;
+    }
+
+    public static boolean isLoss( byte value )
+    {
+        return value < 0 && value != INVALID;
+    }
+
+    /**
+     * Returns the distance to mate of a position with the given value.
+     * 
+     * @param value the value of the position (not {@code INVALID})
+     * @return the number of plies to checkmate (if a win or a loss); 0 if a draw
+     */
+    public static int getDistance( byte value )
+    {
+        return value >= 0 ? value : -value - 1;
+    }
+
+    public static byte win( int distance )
+    {
+        return (byte) distance;
+    }
+
+    public static byte loss( int distance )
+    {
+        return (byte) -(distance + 1);
+    }
+
+    /**
+     * Returns the path of the file of the table of the given signature in the given directory.
+     * 
+     * @param directory the directory
+     * @param signature the signature
+     * @return the path of the file
+     */
+    public static Path getPath( Path directory, Signature signature )
+    {
+        return directory.resolve( signature.getName() + EXTENSION );
+    }
+
+    /**
+     * A table file, and the regions of it that are mapped.
+     */
+    private static final class Table
+    {
+        private final Signature signature;
+        private final Path path;
+        private final long length;
+
+        private final AtomicReferenceArray<MappedByteBuffer> regions;
+
+        /**
+         * The value of {@code clock} when each region was last probed. Probing threads write these
+         * without synchronization, so they are approximate, which is enough to choose a region to
+         * drop.
+         */
+        private final long[] lastUsed;
+
+        private Table( Signature signature, Path path, long length )
+        {
+            this.signature = signature;
+            this.path = path;
+            this.length = length;
+
+            int regions = (int) ((length + REGION_SIZE - 1) / REGION_SIZE);
+            this.regions = new AtomicReferenceArray<>( regions );
+            this.lastUsed = new long[ regions ];
+        }
+    }
+
+    /**
+     * The tables, in an open-addressed hash table by material key. Each table is found under the
+     * key of its signature and, with {@code mirrored} set, under that of its mirror image.
+     */
+    private final long[] keys;
+    private final Table[] tables;
+    private final boolean[] mirrored;
+
+    private final List<Table> files = new ArrayList<>();
+    private final int maxPieces;
+
+    private final int maxRegions;
+    private int mappedRegions;
+
+    /**
+     * Advanced whenever a region is mapped, so that regions probed since then are seen to be more
+     * recently used than those that were not.
+     */
+    private volatile long clock;
+
+    /**
+     * The squares of the pieces of the position being probed, by number of pieces, for each
+     * thread.
+     */
+    private final ThreadLocal<int[][]> squares;
+
+    /**
+     * Opens the tables in the given directory, keeping up to {@code DEFAULT_MAX_REGIONS} regions
+     * mapped.
+     * 
+     * @param directory the directory
+     * @throws IOException if the directory cannot be read, or a table in it is not valid
+     */
+    public Tablebase( Path directory ) throws IOException
+    {
+        this( directory, DEFAULT_MAX_REGIONS );
+    }
+
+    /**
+     * Opens the tables in the given directory: the files named after a canonical signature with
+     * the extension {@code EXTENSION}. Only the headers are read.
+     * 
+     * @param directory  the directory
+     * @param maxRegions the greatest number of regions to keep mapped (at least 1)
+     * @throws IllegalArgumentException if the number of regions is less than 1
+     * @throws IOException              if the directory cannot be read, or a table in it is not
+     *                                  valid
+     */
+    public Tablebase( Path directory, int maxRegions ) throws IOException
+    {
+        if ( maxRegions < 1 )
+            throw new IllegalArgumentException( "Number of regions must be at least 1." );
+
+        this.maxRegions = maxRegions;
+
+        try ( DirectoryStream<Path> stream = Files.newDirectoryStream( directory, "*" + EXTENSION ) )
+        {
+            for ( Path path : stream )
+            {
+                String name = path.getFileName().toString();
+                Signature signature;
+
+                try
+                {
+                    signature = Signature.of( name.substring( 0, name.length() - EXTENSION.length() ) );
+                }
+                catch ( IllegalArgumentException e )
+                {
+                    continue;
+                }
+
+                if ( signature.isCanonical() && !signature.isTrivial() )
+                    files.add( new Table( signature, path, checkHeader( path, signature ) ) );
+            }
+        }
+
+        int capacity = Integer.highestOneBit( Math.max( 1, 4 * files.size() ) ) * 2;
+        this.keys = new long[ capacity ];
+        this.tables = new Table[ capacity ];
+        this.mirrored = new boolean[ capacity ];
+
+        int maxPieces = 2;
+
+        for ( Table table : files )
+        {
+            add( getMaterialKey( table.signature ), table, false );
+            add( getMaterialKey( table.signature.mirror() ), table, true );
+            maxPieces = Math.max( maxPieces, table.signature.getNumberOfPieces() );
+        }
+
+        this.maxPieces = maxPieces;
+
+        this.squares = ThreadLocal.withInitial( () ->
+        {
+            int[][] arrays = new int[ this.maxPieces + 1 ][];
+
+            for ( int i = 0; i < arrays.length; i++ )
+                arrays[ i ] = new int[ i ];
+
+            return arrays;
+        } );
+    }
+
+    /**
+     * Checks the header of the given table file and returns the length of the file.
+     */
+    private static long checkHeader( Path path, Signature signature ) throws IOException
+    {
+        try ( FileChannel channel = FileChannel.open( path, StandardOpenOption.READ ) )
+        {
+            ByteBuffer header = ByteBuffer.allocate( HEADER_SIZE );
+
+            while ( header.hasRemaining() && channel.read( header ) >= 0 )
+                ;
+
+            header.flip();
+
+            if ( channel.size() != HEADER_SIZE + 2L * signature.size() || header.remaining() < HEADER_SIZE ||
+                 header.getInt() != MAGIC || header.getInt() != VERSION || header.getLong() != signature.size() )
+                throw new IOException( "Not a tablebase file for " + signature + ": " + path + "." );
+
+            return channel.size();
+        }
+    }
+
+    private void add( long key, Table table, boolean mirrored )
+    {
+        int i = find( key );
+
+        // A signature that is its own mirror image is found unmirrored
+        if ( tables[ i ] == null )
+        {
+            keys[ i ] = key;
+            tables[ i ] = table;
+            this.mirrored[ i ] = mirrored;
+        }
+    }
+
+    /**
+     * Returns the slot of the given key in the hash table, or of the empty slot where it belongs.
+     */
+    private int find( long key )
+    {
+        int mask = keys.length - 1;
+        int i = (int) (key * 0x9E3779B97F4A7C15L >>> 40) & mask;
+
+        while ( tables[ i ] != null && keys[ i ] != key )
+            i = (i + 1) & mask;
+
+        return i;
+    }
+
+    private static long getMaterialKey( Signature signature )
+    {
+        long key = 0;
+
+        for ( int i = 0; i < signature.getNumberOfPieces(); i++ )
+            key += 1L << getKeyShift( signature.getColour( i ), signature.getType( i ) );
+
+        return key;
+    }
+
+    private static long getMaterialKey( Board board )
+    {
+        long key = 0;
+
+        for ( Colour colour : COLOURS )
+            for ( Typ type : TYPES )
+                key += (long) Long.bitCount( board.getBitboard( colour, type ) ) << getKeyShift( colour, type );
+
+        return key;
+    }
+
+    private static int getKeyShift( Colour colour, Typ type )
+    {
+        return KEY_BITS * (colour.ordinal() * TYPES.length + type.ordinal());
+    }
+
+    /**
+     * Returns the number of tables opened.
+     * 
+     * @return the number of tables
+     */
+    public int size()
+    {
+        return files.size();
+    }
+
+    /**
+     * Returns the greatest number of pieces, including the kings, of the tables opened.
+     * 
+     * @return the greatest number of pieces (at least 2)
+     */
+    public int getMaxPieces()
+    {
+        return this.maxPieces;
+    }
+
+    /**
+     * Returns the number of regions of the files that are mapped.
+     * 
+     * @return the number of regions (at most the limit given when opened)
+     */
+    public synchronized int getMappedRegions()
+    {
+        return this.mappedRegions;
+    }
+
+    /**
+     * Returns the value of the position on the given board, for the player to move. Does not
+     * allocate or lock, unless a region of a file has to be mapped. May be called from any thread.
+     * 
+     * @param board the board
+     * @return the value of the position, as described above (if it is in the tables);
+     *         {@code NOT_FOUND} otherwise, or if castling or en passant is possible or the file of
+     *         the table cannot be read
+     */
+    public byte probe( Board board )
+    {
+        long occupied = board.getOccupied();
+        int pieces = Long.bitCount( occupied );
+
+        // Only the kings are left
+        if ( pieces == 2 )
+            return DRAW;
+
+        if ( pieces > maxPieces || board.getCastlingRights() != 0 || isEnPassantPossible( board ) )
+            return NOT_FOUND;
+
+        int slot = find( getMaterialKey( board ) );
+        Table table = tables[ slot ];
+
+        if ( table == null )
+            return NOT_FOUND;
+
+        boolean mirrored = this.mirrored[ slot ];
+        Signature signature = table.signature;
+        int[] squares = this.squares.get()[ pieces ];
+
+        // Fill the slots from the bitboards, with the colours exchanged and the board flipped if
+        // the position is of the mirror image of the signature
+        for ( int i = 0; i < pieces; )
+        {
+            Colour colour = signature.getColour( i );
+            long bitboard = board.getBitboard( mirrored ? colour.transpose() : colour, signature.getType( i ) );
+
+            for ( ; bitboard != 0; bitboard &= bitboard - 1 )
+                squares[ i++ ] = Long.numberOfTrailingZeros( bitboard ) ^ (mirrored ? 7 : 0);
+        }
+
+        int turn = board.getActiveColour().ordinal() ^ (mirrored ? 1 : 0);
+        long offset = HEADER_SIZE + (long) turn * signature.size() + signature.getIndex( squares );
+
+        ByteBuffer region = getRegion( table, (int) (offset / REGION_SIZE) );
+
+        return region == null ? NOT_FOUND : region.get( (int) (offset % REGION_SIZE) );
+    }
+
+    /**
+     * Returns a boolean indicating whether the player to move can capture en passant.
+     */
+    private static boolean isEnPassantPossible( Board board )
+    {
+        if ( board.getEnPassantPawn() == null || board.getEnPassantPawn().getSquare( board ) == null )
+            return false;
+
+        long pawn = Bitboards.bit( board.getEnPassantPawn().getSquare( board ).getIndex() );
+
+        return (((pawn << 8) | (pawn >>> 8)) & board.getBitboard( board.getActiveColour(), Typ.PAWN )) != 0;
+    }
+
+    /**
+     * Returns the given region of the given table, mapping it if it is not mapped; or {@code null}
+     * if it cannot be mapped.
+     */
+    private ByteBuffer getRegion( Table table, int region )
+    {
+        long stamp = clock;
+
+        // Only written when it changes, to keep probing threads from contending for the cache line
+        if ( table.lastUsed[ region ] != stamp )
+            table.lastUsed[ region ] = stamp;
+
+        ByteBuffer buffer = table.regions.get( region );
+
+        return buffer != null ? buffer : mapRegion( table, region );
+    }
+
+    /**
+     * Maps the given region of the given table (dropping the region least recently used, if there
+     * are too many), unless another thread has just mapped it.
+     */
+    private synchronized ByteBuffer mapRegion( Table table, int region )
+    {
+        MappedByteBuffer buffer = table.regions.get( region );
+
+        if ( buffer != null )
+            return buffer;
+
+        if ( mappedRegions >= maxRegions )
+            dropLeastRecentlyUsed();
+
+        long start = (long) region * REGION_SIZE;
+
+        try ( FileChannel channel = FileChannel.open( table.path, StandardOpenOption.READ ) )
+        {
+            // The mapping stays valid once the channel is closed
+            buffer = channel.map( FileChannel.MapMode.READ_ONLY, start, Math.min( REGION_SIZE, table.length - start ) );
+        }
+        catch ( IOException e )
+        {
+            return null;
+        }
+
+        table.lastUsed[ region ] = ++clock;
+        table.regions.set( region, buffer );
+        mappedRegions++;
+
+        return buffer;
+    }
+
+    /**
+     * Drops the mapped region probed least recently. Threads already reading it keep a reference
+     * to it, so it stays valid for them.
+     */
+    private void dropLeastRecentlyUsed()
+    {
+        Table oldest = null;
+        int oldestRegion = 0;
+
+        for ( Table table : files )
+        {
+            for ( int i = 0; i < table.regions.length(); i++ )
+            {
+                if ( table.regions.get( i ) != null && (oldest == null || table.lastUsed[ i ] < oldest.lastUsed[ oldestRegion ]) )
+                {
+                    oldest = table;
+                    oldestRegion = i;
+                }
+            }
+        }
+
+        oldest.regions.set( oldestRegion, null );
+        mappedRegions--;
+    }
+}
@@ -0,0 +1,854 @@
+package main.java.tablebase;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import main.java.board.Bitboards;
+import main.java.pieces.Piece.Typ;
+import main.java.player.Player.Colour;
+
+/**
+ * Generates the tables of a tablebase (see {@code Tablebase}) by retrograde analysis, and writes
+ * them to files.
+ * <p>
+ * Each table is built one distance to mate at a time. First, every position is decoded from its
+ * index and checked for legality; positions with no legal moves are checkmate or stalemate, and
+ * the results of the captures and promotions from each position, which leave the table, are
+ * looked up in the (already generated) tables of the signatures they lead to. Then, for each
+ * distance {@code d} in turn, the positions resolved at distance {@code d - 1} are "unmoved" to
+ * find the positions that could reach them, and only these (and those whose captures or promotions
+ * decide them at distance {@code d}) are examined again: a position is a win in {@code d} plies if
+ * a move leads to a loss in {@code d - 1}, and a loss in {@code d} plies if every move leads to a
+ * win in at most {@code d - 1}. Positions still unresolved when no more can be are draws.
+ * <p>
+ * Every pass over a table is split into ranges of indices and run in parallel on the common
+ * {@code ForkJoinPool}. Different ranges may resolve positions that the others read at the same
+ * time, but only positions resolved at earlier distances are ever used, so this does not matter.
+ */
+public class TablebaseGenerator
+{
+    /**
+     * The value of a position that is not yet resolved, during generation.
+     */
+    private static final byte UNKNOWN = Byte.MAX_VALUE;
+
+    /**
+     * The distance at which a position can be lost if its captures and promotions allow it never
+     * to be.
+     */
+    private static final byte CANNOT_LOSE = Byte.MAX_VALUE;
+
+    /**
+     * The number of indices handled by each task.
+     */
+    private static final int CHUNK_SIZE = 1 << 14;
+
+    private static final Typ[] NO_PROMOTION = { null };
+    private static final Colour[] COLOURS = Colour.values();
+
+    private enum Phase
+    {
+        INITIALISE, EVALUATE, MARK
+    }
+
+    private final Path directory;
+    private final PrintStream out;
+
+    private final Map<Signature, byte[][]> tables = new HashMap<>();
+
+    /**
+     * Creates a generator writing to the given directory. Tables already in it are read rather
+     * than generated again.
+     * 
+     * @param directory the directory
+     * @param out       the stream on which to report each table generated (or {@code null})
+     */
+    public TablebaseGenerator( Path directory, PrintStream out )
+    {
+        this.directory = directory;
+        this.out = out;
+    }
+
+    /**
+     * Generates all the tables with from three to the given number of pieces.
+     * 
+     * @param pieces the greatest number of pieces, including the kings
+     * @throws IOException if a table cannot be read or written
+     */
+    public void generateAll( int pieces ) throws IOException
+    {
+        for ( Signature signature : getSignatures( pieces ) )
+            getTable( signature );
+    }
+
+    /**
+     * Returns the canonical signatures with from three to the given number of pieces, those with
+     * fewer pieces first.
+     * 
+     * @param pieces the greatest number of pieces, including the kings
+     * @return the signatures
+     */
+    public static List<Signature> getSignatures( int pieces )
+    {
+        List<Signature> signatures = new ArrayList<>();
+
+        for ( int extra = 1; extra <= pieces - 2; extra++ )
+        {
+            for ( int white = extra; white >= 0; white-- )
+            {
+                for ( String whitePieces : getSides( white ) )
+                {
+                    for ( String blackPieces : getSides( extra - white ) )
+                    {
+                        Signature signature = Signature.of( "K" + whitePieces + "vK" + blackPieces ).canonical();
+
+                        if ( !signatures.contains( signature ) )
+                            signatures.add( signature );
+                    }
+                }
+            }
+        }
+
+        return signatures;
+    }
+
+    /**
+     * Returns every choice of the given number of pieces other than kings, as letters in the
+     * order queen, rook, bishop, knight, pawn.
+     */
+    private static List<String> getSides( int pieces )
+    {
+        List<String> sides = new ArrayList<>();
+        addSides( sides, "", 0, pieces );
+        return sides;
+    }
+
+    private static void addSides( List<String> sides, String side, int first, int remaining )
+    {
+        if ( remaining == 0 )
+        {
+            sides.add( side );
+            return;
+        }
+
+        for ( int i = first; i < "QRBNP".length(); i++ )
+            addSides( sides, side + "QRBNP".charAt( i ), i, remaining - 1 );
+    }
+
+    /**
+     * Returns the table of the given signature: the one already generated or in the directory (if
+     * any); otherwise generates it (and any tables it depends on) and writes it to the directory.
+     * 
+     * @param signature the canonical signature
+     * @return the values of the positions with each player to move, indexed by the ordinal of the
+     *         colour to move and then by the index of the position
+     * @throws IOException if a table cannot be read or written
+     */
+    public byte[][] getTable( Signature signature ) throws IOException
+    {
+        byte[][] table = tables.get( signature );
+
+        if ( table == null )
+        {
+            Path path = Tablebase.getPath( directory, signature );
+            table = Files.exists( path ) ? read( path, signature ) : generate( signature );
+            tables.put( signature, table );
+        }
+
+        return table;
+    }
+
+    /**
+     * Generates the table of the given signature and writes it to the directory, generating first
+     * any tables it depends on that are neither in memory nor in the directory.
+     * 
+     * @param signature the canonical signature, with more than two pieces
+     * @return the values of the positions with each player to move, indexed by the ordinal of the
+     *         colour to move and then by the index of the position
+     * @throws IllegalArgumentException if the signature is trivial or not canonical
+     * @throws IOException              if a table cannot be read or written
+     */
+    public byte[][] generate( Signature signature ) throws IOException
+    {
+        if ( signature.isTrivial() )
+            throw new IllegalArgumentException( "Signature '" + signature + "' is always a draw." );
+
+        if ( !signature.isCanonical() )
+            throw new IllegalArgumentException( "Signature '" + signature + "' is not canonical; use '" + signature.mirror() + "'." );
+
+        Generation generation = new Generation( signature );
+        long start = System.nanoTime();
+
+        byte[][] table = generation.run();
+        double seconds = (System.nanoTime() - start) / 1e9;
+
+        Path path = Tablebase.getPath( directory, signature );
+        Files.createDirectories( directory );
+        write( path, signature, table );
+        tables.put( signature, table );
+
+        if ( out != null )
+            out.printf( "%s: %,d positions in %.2f s, %,d bytes, longest mate %d plies%n", signature, 2L * signature.size(),
+                        seconds, Files.size( path ), generation.maxDistance );
+
+        return table;
+    }
+
+    private static void write( Path path, Signature signature, byte[][] table ) throws IOException
+    {
+        try ( FileChannel channel = FileChannel.open( path, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                                                      StandardOpenOption.TRUNCATE_EXISTING ) )
+        {
+            ByteBuffer header = ByteBuffer.allocate( Tablebase.HEADER_SIZE );
+            header.putInt( Tablebase.MAGIC ).putInt( Tablebase.VERSION ).putLong( signature.size() ).flip();
+
+            for ( ByteBuffer buffer : new ByteBuffer[] { header, ByteBuffer.wrap( table[ 0 ] ), ByteBuffer.wrap( table[ 1 ] ) } )
+                while ( buffer.hasRemaining() )
+                    channel.write( buffer );
+        }
+    }
+
+    private static byte[][] read( Path path, Signature signature ) throws IOException
+    {
+        byte[] bytes = Files.readAllBytes( path );
+        ByteBuffer header = ByteBuffer.wrap( bytes );
+
+        if ( bytes.length != Tablebase.HEADER_SIZE + 2L * signature.size() || header.getInt() != Tablebase.MAGIC ||
+             header.getInt() != Tablebase.VERSION || header.getLong() != signature.size() )
+            throw new IOException( "Not a tablebase file for " + signature + ": " + path + "." );
+
+        int size = signature.size();
+        byte[][] table = new byte[ 2 ][ size ];
+        System.arraycopy( bytes, Tablebase.HEADER_SIZE, table[ 0 ], 0, size );
+        System.arraycopy( bytes, Tablebase.HEADER_SIZE + size, table[ 1 ], 0, size );
+
+        return table;
+    }
+
+    /**
+     * Generates tables from the command line: the first argument is the directory to write them
+     * to, and the rest are the signatures to generate (by default, all with three or four pieces).
+     * 
+     * @param args the directory and signatures
+     * @throws IOException if a table cannot be read or written
+     */
+    public static void main( String[] args ) throws IOException
+    {
+        if ( args.length == 0 )
+        {
+            System.err.println( "Usage: TablebaseGenerator <directory> [<signature> ...]" );
+            return;
+        }
+
+        TablebaseGenerator generator = new TablebaseGenerator( Path.of( args[ 0 ] ), System.out );
+        long start = System.nanoTime();
+
+        if ( args.length == 1 )
+            generator.generateAll( 4 );
+
+        for ( int i = 1; i < args.length; i++ )
+            generator.getTable( Signature.of( args[ i ] ).canonical() );
+
+        System.out.printf( "Done in %.2f s.%n", (System.nanoTime() - start) / 1e9 );
+    }
+
+    /**
+     * A result of a capture or a promotion: the table it leads to, and how to find the position in
+     * it.
+     */
+    private static final class Exit
+    {
+        /**
+         * The canonical signature of the table, and the table itself ({@code null} if the
+         * signature is trivial).
+         */
+        private Signature signature;
+        private byte[][] table;
+
+        /**
+         * Whether the colours are exchanged (and the board flipped) in the canonical signature.
+         */
+        private boolean mirrored;
+
+        /**
+         * The slot in the table of each slot in the table being generated (but the captured one).
+         */
+        private int[] slots;
+    }
+
+    /**
+     * The state of the generation of a table.
+     */
+    private final class Generation
+    {
+        private final Signature signature;
+        private final int n;
+        private final int size;
+
+        private final int[] colours;
+        private final Typ[] types;
+        private final int[] kings = new int[ 2 ];
+
+        private final byte[][] table;
+
+        /**
+         * For each position, the distance at which it is examined because a position it can reach
+         * has been resolved, and the distances at which its captures and promotions alone could
+         * make it a win or a loss.
+         */
+        private final byte[][] dirty;
+        private final byte[][] exitWin;
+        private final byte[][] exitLoss;
+
+        /**
+         * The exits, indexed by {@code getExitKey}.
+         */
+        private final Exit[] exits;
+
+        private final AtomicInteger maxExit = new AtomicInteger();
+        private int maxDistance;
+
+        private Generation( Signature signature ) throws IOException
+        {
+            this.signature = signature;
+            this.n = signature.getNumberOfPieces();
+            this.size = signature.size();
+
+            this.colours = new int[ n ];
+            this.types = new Typ[ n ];
+
+            for ( int i = 0; i < n; i++ )
+            {
+                colours[ i ] = signature.getColour( i ).ordinal();
+                types[ i ] = signature.getType( i );
+
+                if ( types[ i ] == Typ.KING )
+                    kings[ colours[ i ] ] = i;
+            }
+
+            this.table = new byte[ 2 ][ size ];
+            this.dirty = new byte[ 2 ][ size ];
+            this.exitWin = new byte[ 2 ][ size ];
+            this.exitLoss = new byte[ 2 ][ size ];
+
+            this.exits = new Exit[ getExitKey( n - 1, n - 1, Typ.PAWN ) + 1 ];
+
+            for ( int captured = -1; captured < n; captured++ )
+            {
+                if ( captured >= 0 && types[ captured ] == Typ.KING )
+                    continue;
+
+                for ( int promoted = -1; promoted < n; promoted++ )
+                {
+                    if ( promoted >= 0 && (types[ promoted ] != Typ.PAWN || promoted == captured) )
+                        continue;
+
+                    if ( captured >= 0 && promoted >= 0 && colours[ captured ] == colours[ promoted ] )
+                        continue;
+
+                    if ( promoted < 0 )
+                    {
+                        if ( captured >= 0 )
+                            addExit( captured, promoted, null );
+                    }
+                    else
+                    {
+                        for ( Typ promotion : Typ.PROMOTION_TYPES )
+                            addExit( captured, promoted, promotion );
+                    }
+                }
+            }
+        }
+
+        private int getExitKey( int captured, int promoted, Typ promotion )
+        {
+            return ((captured + 1) * (n + 1) + promoted + 1) * Typ.values().length + (promotion == null ? 0 : promotion.ordinal());
+        }
+
+        private void addExit( int captured, int promoted, Typ promotion ) throws IOException
+        {
+            Colour[] childColours = new Colour[ n - (captured >= 0 ? 1 : 0) ];
+            Typ[] childTypes = new Typ[ childColours.length ];
+            int[] parents = new int[ childColours.length ];
+
+            for ( int i = 0, k = 0; i < n; i++ )
+            {
+                if ( i != captured )
+                {
+                    childColours[ k ] = COLOURS[ colours[ i ] ];
+                    childTypes[ k ] = i == promoted ? promotion : types[ i ];
+                    parents[ k++ ] = i;
+                }
+            }
+
+            Signature child = Signature.of( childColours, childTypes, childColours.length );
+
+            Exit exit = new Exit();
+            exit.mirrored = !child.isCanonical();
+            exit.signature = child.canonical();
+            exit.table = exit.signature.isTrivial() ? null : getTable( exit.signature );
+
+            // The slots of the canonical signature, in the order of Signature.of
+            exit.slots = new int[ n ];
+            int slot = 0;
+
+            for ( Colour colour : Colour.values() )
+            {
+                for ( Typ type : Typ.values() )
+                {
+                    for ( int k = 0; k < childColours.length; k++ )
+                    {
+                        Colour childColour = exit.mirrored ? childColours[ k ].transpose() : childColours[ k ];
+
+                        if ( childColour == colour && childTypes[ k ] == type )
+                            exit.slots[ parents[ k ] ] = slot++;
+                    }
+                }
+            }
+
+            exits[ getExitKey( captured, promoted, promotion ) ] = exit;
+        }
+
+        private byte[][] run()
+        {
+            run( Phase.INITIALISE, 0 );
+            run( Phase.MARK, 0 );
+
+            for ( int distance = 1; ; distance++ )
+            {
+                if ( distance > Tablebase.MAX_DISTANCE )
+                    throw new IllegalStateException( "Signature '" + signature + "' has mates longer than " + Tablebase.MAX_DISTANCE + " plies." );
+
+                if ( run( Phase.EVALUATE, distance ) > 0 )
+                    maxDistance = distance;
+                else if ( distance >= maxExit.get() )
+                    break;
+
+                run( Phase.MARK, distance );
+            }
+
+            // What cannot be won or lost is drawn
+            for ( byte[] values : table )
+                for ( int i = 0; i < size; i++ )
+                    if ( values[ i ] == UNKNOWN )
+                        values[ i ] = Tablebase.DRAW;
+
+            return table;
+        }
+
+        /**
+         * Runs a phase over every position in parallel and returns the number of positions it
+         * resolved.
+         */
+        private int run( Phase phase, int distance )
+        {
+            Task task = new Task( phase, distance, 0, 2 * size );
+            ForkJoinPool.commonPool().invoke( task );
+            return task.resolved;
+        }
+
+        private final class Task extends RecursiveAction
+        {
+            private static final long serialVersionUID = 1L;
+
+            private final Phase phase;
+            private final int distance;
+            private final int from;
+            private final int to;
+
+            private int resolved;
+
+            private Task( Phase phase, int distance, int from, int to )
+            {
+                this.phase = phase;
+                this.distance = distance;
+                this.from = from;
+                this.to = to;
+            }
+
+            @Override
+            protected void compute()
+            {
+                if ( to - from > CHUNK_SIZE )
+                {
+                    int mid = (from + to) >>> 1;
+                    Task left = new Task( phase, distance, from, mid );
+                    Task right = new Task( phase, distance, mid, to );
+                    invokeAll( left, right );
+                    resolved = left.resolved + right.resolved;
+                    return;
+                }
+
+                Worker worker = new Worker();
+
+                for ( int i = from; i < to; i++ )
+                {
+                    int turn = i < size ? 0 : 1;
+                    int index = i - turn * size;
+
+                    resolved += switch ( phase )
+                    {
+                        case INITIALISE -> worker.initialise( turn, index );
+                        case EVALUATE -> worker.evaluate( turn, index, distance );
+                        case MARK -> worker.mark( turn, index, distance );
+                    };
+                }
+            }
+        }
+
+        /**
+         * Examines positions, with its own copies of the squares of the pieces.
+         */
+        private final class Worker
+        {
+            private final int[] squares = new int[ n ];
+            private final int[][] childSquares = new int[ n + 1 ][];
+
+            private long occupied;
+            private final long[] sides = new long[ 2 ];
+
+            /**
+             * The number of legal moves seen by the last call to {@code getValue}, and the exit
+             * distances it found.
+             */
+            private int moves;
+            private int bestExitWin;
+            private int worstExitLoss;
+
+            private Worker()
+            {
+                for ( int i = 2; i <= n; i++ )
+                    childSquares[ i ] = new int[ i ];
+            }
+
+            /**
+             * Decodes the position with the given index and returns a boolean indicating whether
+             * no two pieces share a square.
+             */
+            private boolean decode( int index )
+            {
+                signature.getSquares( index, squares );
+                occupied = sides[ 0 ] = sides[ 1 ] = 0;
+
+                for ( int i = 0; i < n; i++ )
+                {
+                    long bit = Bitboards.bit( squares[ i ] );
+
+                    if ( (occupied & bit) != 0 )
+                        return false;
+
+                    occupied |= bit;
+                    sides[ colours[ i ] ] |= bit;
+                }
+
+                return true;
+            }
+
+            private int initialise( int turn, int index )
+            {
+                table[ turn ][ index ] = UNKNOWN;
+
+                if ( !decode( index ) || signature.getIndex( squares ) != index ||
+                     isAttacked( squares[ kings[ 1 - turn ] ], turn, occupied, -1 ) )
+                {
+                    table[ turn ][ index ] = Tablebase.INVALID;
+                    return 0;
+                }
+
+                getValue( turn, 0 );
+
+                if ( moves == 0 )
+                {
+                    boolean check = isAttacked( squares[ kings[ turn ] ], 1 - turn, occupied, -1 );
+                    table[ turn ][ index ] = check ? Tablebase.loss( 0 ) : Tablebase.DRAW;
+                    return 1;
+                }
+
+                exitWin[ turn ][ index ] = (byte) bestExitWin;
+                exitLoss[ turn ][ index ] = (byte) worstExitLoss;
+                maxExit.accumulateAndGet( Math.max( bestExitWin, worstExitLoss == CANNOT_LOSE ? 0 : worstExitLoss ), Math::max );
+
+                return 0;
+            }
+
+            private int evaluate( int turn, int index, int distance )
+            {
+                if ( table[ turn ][ index ] != UNKNOWN || (dirty[ turn ][ index ] != distance &&
+                                                           exitWin[ turn ][ index ] != distance && exitLoss[ turn ][ index ] != distance) )
+                    return 0;
+
+                decode( index );
+                byte value = getValue( turn, distance );
+
+                if ( value == UNKNOWN )
+                    return 0;
+
+                table[ turn ][ index ] = value;
+                return 1;
+            }
+
+            /**
+             * Marks the positions from which the position with the given index, resolved at the
+             * given distance, is reached by a move that is neither a capture nor a promotion.
+             */
+            private int mark( int turn, int index, int distance )
+            {
+                byte value = table[ turn ][ index ];
+
+                if ( value == UNKNOWN || value == Tablebase.INVALID || value == Tablebase.DRAW ||
+                     Tablebase.getDistance( value ) != distance )
+                    return 0;
+
+                decode( index );
+                int mover = 1 - turn;
+
+                for ( int i = 0; i < n; i++ )
+                {
+                    if ( colours[ i ] != mover )
+                        continue;
+
+                    int square = squares[ i ];
+                    long origins;
+
+                    if ( types[ i ] == Typ.PAWN )
+                    {
+                        int back = mover == 0 ? -1 : 1;
+                        int rank = Bitboards.getRank( square );
+                        origins = 0;
+
+                        if ( rank + back >= 1 && rank + back <= 6 && !Bitboards.contains( occupied, square + back ) )
+                        {
+                            origins |= Bitboards.bit( square + back );
+
+                            if ( rank == (mover == 0 ? 3 : 4) && !Bitboards.contains( occupied, square + 2 * back ) )
+                                origins |= Bitboards.bit( square + 2 * back );
+                        }
+                    }
+                    else
+                    {
+                        origins = getAttacks( i, square, occupied ) & ~occupied;
+                    }
+
+                    for ( ; origins != 0; origins &= origins - 1 )
+                    {
+                        squares[ i ] = Long.numberOfTrailingZeros( origins );
+                        int previous = signature.getIndex( squares );
+
+                        if ( table[ mover ][ previous ] == UNKNOWN )
+                            dirty[ mover ][ previous ] = (byte) (distance + 1);
+                    }
+
+                    squares[ i ] = square;
+                }
+
+                return 0;
+            }
+
+            /**
+             * Returns the value of the decoded position with the given player to move, using only
+             * positions resolved at less than the given distance: a win in that distance if a move
+             * leads to a loss, a loss in it if every move leads to a win; otherwise
+             * {@code UNKNOWN}. Also counts the legal moves and finds the exit distances. With a
+             * distance of zero, only the captures and promotions are looked at.
+             */
+            private byte getValue( int turn, int distance )
+            {
+                moves = 0;
+                bestExitWin = 0;
+                worstExitLoss = 0;
+
+                int bestWin = Integer.MAX_VALUE;
+                int worstLoss = 0;
+                boolean allLost = true;
+
+                long own = sides[ turn ];
+                long enemyKing = Bitboards.bit( squares[ kings[ 1 - turn ] ] );
+
+                for ( int i = 0; i < n; i++ )
+                {
+                    if ( colours[ i ] != turn )
+                        continue;
+
+                    int from = squares[ i ];
+                    long targets;
+
+                    if ( types[ i ] == Typ.PAWN )
+                    {
+                        int forward = turn == 0 ? 1 : -1;
+                        targets = Bitboards.pawnAttacks( COLOURS[ turn ], from ) & sides[ 1 - turn ];
+
+                        if ( !Bitboards.contains( occupied, from + forward ) )
+                        {
+                            targets |= Bitboards.bit( from + forward );
+
+                            if ( Bitboards.getRank( from ) == (turn == 0 ? 1 : 6) && !Bitboards.contains( occupied, from + 2 * forward ) )
+                                targets |= Bitboards.bit( from + 2 * forward );
+                        }
+                    }
+                    else
+                    {
+                        targets = getAttacks( i, from, occupied ) & ~own;
+                    }
+
+                    for ( targets &= ~enemyKing; targets != 0; targets &= targets - 1 )
+                    {
+                        int to = Long.numberOfTrailingZeros( targets );
+                        int captured = getSlot( to );
+                        boolean promotion = types[ i ] == Typ.PAWN && (Bitboards.getRank( to ) == 0 || Bitboards.getRank( to ) == 7);
+                        boolean exit = captured >= 0 || promotion;
+
+                        for ( Typ type : promotion ? Typ.PROMOTION_TYPES : NO_PROMOTION )
+                        {
+                            byte child = play( turn, i, to, captured, type, exit || distance > 0 );
+
+                            if ( child == Tablebase.INVALID )
+                                continue;
+
+                            moves++;
+
+                            // Positions in the table count only once resolved at a lesser distance
+                            if ( !exit && (child == UNKNOWN || Tablebase.getDistance( child ) >= distance) )
+                            {
+                                allLost = false;
+                                continue;
+                            }
+
+                            int plies = Tablebase.getDistance( child ) + 1;
+
+                            if ( Tablebase.isLoss( child ) )
+                            {
+                                bestWin = Math.min( bestWin, plies );
+                                allLost = false;
+
+                                if ( exit && (bestExitWin == 0 || plies < bestExitWin) )
+                                    bestExitWin = plies;
+                            }
+                            else if ( Tablebase.isWin( child ) )
+                            {
+                                worstLoss = Math.max( worstLoss, plies );
+
+                                if ( exit && worstExitLoss != CANNOT_LOSE )
+                                    worstExitLoss = Math.max( worstExitLoss, plies );
+                            }
+                            else
+                            {
+                                allLost = false;
+
+                                if ( exit )
+                                    worstExitLoss = CANNOT_LOSE;
+                            }
+                        }
+                    }
+                }
+
+                if ( bestWin <= distance )
+                    return Tablebase.win( bestWin );
+
+                if ( allLost && moves > 0 && worstLoss <= distance )
+                    return Tablebase.loss( worstLoss );
+
+                return UNKNOWN;
+            }
+
+            /**
+             * Returns the value of the position after the given move, from the point of view of
+             * the opponent (now to move), or {@code INVALID} if the move leaves the player's own
+             * king in check. If the value is not wanted, returns {@code UNKNOWN} for a legal move.
+             */
+            private byte play( int turn, int slot, int to, int captured, Typ promotion, boolean value )
+            {
+                int from = squares[ slot ];
+                long occupied = this.occupied & ~Bitboards.bit( from ) | Bitboards.bit( to );
+                squares[ slot ] = to;
+
+                try
+                {
+                    if ( isAttacked( squares[ kings[ turn ] ], 1 - turn, occupied, captured ) )
+                        return Tablebase.INVALID;
+
+                    if ( !value )
+                        return UNKNOWN;
+
+                    if ( captured < 0 && promotion == null )
+                        return table[ 1 - turn ][ signature.getIndex( squares ) ];
+
+                    Exit exit = exits[ getExitKey( captured, promotion == null ? -1 : slot, promotion ) ];
+
+                    if ( exit.table == null )
+                        return Tablebase.DRAW;
+
+                    int[] child = childSquares[ exit.signature.getNumberOfPieces() ];
+
+                    for ( int i = 0; i < n; i++ )
+                        if ( i != captured )
+                            child[ exit.slots[ i ] ] = exit.mirrored ? squares[ i ] ^ 7 : squares[ i ];
+
+                    return exit.table[ exit.mirrored ? turn : 1 - turn ][ exit.signature.getIndex( child ) ];
+                }
+                finally
+                {
+                    squares[ slot ] = from;
+                }
+            }
+
+            /**
+             * Returns the slot of the piece on the given square, or -1 if there is none.
+             */
+            private int getSlot( int square )
+            {
+                if ( Bitboards.contains( occupied, square ) )
+                    for ( int i = 0; i < n; i++ )
+                        if ( squares[ i ] == square )
+                            return i;
+
+                return -1;
+            }
+
+            /**
+             * Returns a boolean indicating whether the given square is attacked by the given
+             * player, ignoring the piece in the given slot (if any), which has been captured.
+             */
+            private boolean isAttacked( int square, int attacker, long occupied, int captured )
+            {
+                for ( int i = 0; i < n; i++ )
+                {
+                    if ( colours[ i ] != attacker || i == captured )
+                        continue;
+
+                    long attacks = types[ i ] == Typ.PAWN ? Bitboards.pawnAttacks( COLOURS[ attacker ], squares[ i ] )
+                                                          : getAttacks( i, squares[ i ], occupied );
+
+                    if ( Bitboards.contains( attacks, square ) )
+                        return true;
+                }
+
+                return false;
+            }
+
+            private long getAttacks( int slot, int square, long occupied )
+            {
+                return switch ( types[ slot ] )
+                {
+                    case KING -> Bitboards.kingAttacks( square );
+                    case QUEEN -> Bitboards.queenAttacks( square, occupied );
+                    case ROOK -> Bitboards.rookAttacks( square, occupied );
+                    case BISHOP -> Bitboards.bishopAttacks( square, occupied );
+                    case KNIGHT -> Bitboards.knightAttacks( square );
+                    case PAWN -> 0;
+                };
+            }
+        }
+    }
+}
@@ -0,0 +1,108 @@
+package test.java.board;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static test.java.Assertions.assertThrowsWithMessage;
+
+import org.junit.jupiter.api.Test;
+
+import main.java.board.Board;
+import main.java.board.Fen;
+import main.java.board.Move;
+import main.java.board.Perft.Position;
+import main.java.player.Player;
+import main.java.player.Player.Colour;
+
+class FenTest
+{
+    private final Player white = new Player( Colour.WHITE );
+    private final Player black = new Player( Colour.BLACK );
+
+    private Board toBoard( String fen )
+    {
+        return Fen.toBoard( fen, white, black );
+    }
+
+    private static void makeMove( Board board, String uci )
+    {
+        board.makeMove( Move.of( board.getSquare( uci.substring( 0, 2 ) ), board.getSquare( uci.substring( 2, 4 ) ) ) );
+    }
+
+    @Test
+    void referencePositions_roundTrip()
+    {
+        for ( Position position : Position.values() )
+            assertEquals( position.getFen(), Fen.toString( toBoard( position.getFen() ) ) );
+    }
+
+    @Test
+    void moveCounters_updatedByMoves()
+    {
+        Board board = toBoard( Fen.START_POSITION );
+
+        makeMove( board, "e2e4" );
+        assertEquals( "rnbqkbnr/pppppppp/8/8/4P3/8/PPPP1PPP/RNBQKBNR b KQkq e3 0 1", Fen.toString( board ) );
+
+        makeMove( board, "g8f6" );
+        assertEquals( "rnbqkb1r/pppppppp/5n2/8/4P3/8/PPPP1PPP/RNBQKBNR w KQkq - 1 2", Fen.toString( board ) );
+
+        makeMove( board, "e4e5" );
+        makeMove( board, "f6e4" );
+        makeMove( board, "e1e2" );
+        assertEquals( "rnbqkb1r/pppppppp/8/4P3/4n3/8/PPPPKPPP/RNBQ1BNR b kq - 2 3", Fen.toString( board ) );
+    }
+
+    @Test
+    void moveCounters_optional()
+    {
+        Board board = toBoard( "4k3/8/8/8/8/8/8/4K3 b - -" );
+
+        assertEquals( 0, board.getHalfmoveClock() );
+        assertEquals( 1, board.getFullmoveNumber() );
+        assertEquals( "4k3/8/8/8/8/8/8/4K3 b - - 0 1", Fen.toString( board ) );
+    }
+
+    @Test
+    void setPosition_reusesBoard()
+    {
+        Board board = toBoard( Fen.START_POSITION );
+
+        Fen.setPosition( board, "8/2p5/3p4/KP5r/1R3p1k/8/4P1P1/8 w - - 0 1", white, black );
+        assertEquals( "8/2p5/3p4/KP5r/1R3p1k/8/4P1P1/8 w - - 0 1", Fen.toString( board ) );
+        assertEquals( Fen.toBoard( "8/2p5/3p4/KP5r/1R3p1k/8/4P1P1/8 w - - 0 1", white, black ).getZobristKey(), board.getZobristKey() );
+
+        Fen.setPosition( board, Fen.START_POSITION, white, black );
+        assertEquals( Fen.START_POSITION, Fen.toString( board ) );
+    }
+
+    @Test
+    void castlingRights_droppedUnlessKingAndRookHome()
+    {
+        assertEquals( "4k3/8/8/8/8/8/8/6KR w - - 0 1", Fen.toString( toBoard( "4k3/8/8/8/8/8/8/6KR w K - 0 1" ) ) );
+        assertEquals( "4k3/8/8/8/8/8/8/R5K1 w - - 0 1", Fen.toString( toBoard( "4k3/8/8/8/8/8/8/R5K1 w Q - 0 1" ) ) );
+        assertEquals( "r3k3/8/8/8/8/8/8/R3K1R1 w Qq - 0 1", Fen.toString( toBoard( "r3k3/8/8/8/8/8/8/R3K1R1 w KQkq - 0 1" ) ) );
+    }
+
+    @Test
+    void invalidPiecePlacement_illegalArgumentException()
+    {
+        assertThrowsWithMessage( IllegalArgumentException.class,
+                                 () -> toBoard( "rnbqkbnr/pppppppp/9/8/8/8/PPPPPPPP/RNBQKBNR w KQkq - 0 1" ),
+                                 "FEN string 'rnbqkbnr/pppppppp/9/8/8/8/PPPPPPPP/RNBQKBNR w KQkq - 0 1' has an invalid piece placement." );
+    }
+
+    @Test
+    void missingFields_illegalArgumentException()
+    {
+        assertThrowsWithMessage( IllegalArgumentException.class,
+                                 () -> toBoard( "4k3/8/8/8/8/8/8/4K3 w" ),
+                                 "FEN string '4k3/8/8/8/8/8/8/4K3 w' must have at least four fields." );
+    }
+
+    @Test
+    void invalidEnPassantSquare_illegalArgumentException()
+    {
+        assertThrowsWithMessage( IllegalArgumentException.class,
+                                 () -> toBoard( "4k3/8/8/8/8/8/8/4K3 w - e4 0 1" ),
+                                 "FEN string '4k3/8/8/8/8/8/8/4K3 w - e4 0 1' has an invalid en passant square." );
+    }
+}
@@ -0,0 +1,65 @@
+package test.java.board;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import org.junit.jupiter.api.Test;
+
+import main.java.board.Perft;
+import main.java.board.Perft.Position;
+
+class PerftTest
+{
+    /**
+     * Checks the node counts of the given reference position up to the given depth.
+     */
+    private void assertPerft( Position position, int maxDepth )
+    {
+        Perft perft = new Perft( position.getFen() );
+        long[] expected = position.getNodes();
+
+        for ( int depth = 1; depth <= maxDepth; depth++ )
+            assertEquals( expected[ depth - 1 ], perft.perft( depth ), position + " at depth " + depth );
+    }
+
+    @Test
+    void initial()
+    {
+        assertPerft( Position.INITIAL, 4 );
+    }
+
+    @Test
+    void kiwipete()
+    {
+        assertPerft( Position.KIWIPETE, 3 );
+    }
+
+    @Test
+    void position3()
+    {
+        assertPerft( Position.POSITION_3, 5 );
+    }
+
+    @Test
+    void position4()
+    {
+        assertPerft( Position.POSITION_4, 3 );
+    }
+
+    @Test
+    void position4_mirrored()
+    {
+        assertPerft( Position.POSITION_4_MIRRORED, 3 );
+    }
+
+    @Test
+    void position5()
+    {
+        assertPerft( Position.POSITION_5, 3 );
+    }
+
+    @Test
+    void position6()
+    {
+        assertPerft( Position.POSITION_6, 3 );
+    }
+}
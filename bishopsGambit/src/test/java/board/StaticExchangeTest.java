@@ -0,0 +1,79 @@
+package test.java.board;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.junit.jupiter.api.Test;
+
+import main.java.board.Board;
+import main.java.board.Fen;
+import main.java.board.Move;
+import main.java.board.StaticExchange;
+import main.java.pieces.Piece.Typ;
+import main.java.player.Player;
+import main.java.player.Player.Colour;
+
+class StaticExchangeTest
+{
+    private static int evaluate( String fen, String from, String to )
+    {
+        Board board = Fen.toBoard( fen, new Player( Colour.WHITE ), new Player( Colour.BLACK ) );
+        return StaticExchange.evaluate( board, Move.of( board.getSquare( from ), board.getSquare( to ) ) );
+    }
+
+    @Test
+    void undefendedPawn_winsPawn()
+    {
+        assertEquals( 1, evaluate( "4k3/8/8/3p4/8/8/8/3RK3 w - - 0 1", "d1", "d5" ) );
+    }
+
+    @Test
+    void pawnDefendedByPawn_losesRookForPawn()
+    {
+        assertEquals( -4, evaluate( "4k3/8/4p3/3p4/8/8/8/3RK3 w - - 0 1", "d1", "d5" ) );
+    }
+
+    @Test
+    void knightTakesDefendedRook_winsExchange()
+    {
+        assertEquals( 2, evaluate( "4k3/8/4p3/3r4/8/4N3/8/4K3 w - - 0 1", "e3", "d5" ) );
+    }
+
+    @Test
+    void rookBehindRook_joinsExchange()
+    {
+        // RxP, RxR, RxR
+        assertEquals( 1, evaluate( "3rk3/8/8/3p4/8/8/3R4/3RK3 w - - 0 1", "d2", "d5" ) );
+        assertEquals( -4, evaluate( "3rk3/3r4/8/3p4/8/8/3R4/3RK3 w - - 0 1", "d2", "d5" ) );
+    }
+
+    @Test
+    void kingCannotRecaptureDefendedPiece()
+    {
+        assertEquals( 1, evaluate( "8/8/8/8/8/3k4/3p4/3RK3 w - - 0 1", "d1", "d2" ) );
+    }
+
+    @Test
+    void enPassant_winsPawn()
+    {
+        assertEquals( 1, evaluate( "4k3/8/8/3pP3/8/8/8/4K3 w - d6 0 1", "e5", "d6" ) );
+    }
+
+    @Test
+    void isLosing_onlyForLosingMoves()
+    {
+        Board board = Fen.toBoard( "4k3/8/4p3/3p4/8/8/1P6/3RK3 w - - 0 1", new Player( Colour.WHITE ), new Player( Colour.BLACK ) );
+
+        assertTrue( StaticExchange.isLosing( board, Move.of( board.getSquare( "d1" ), board.getSquare( "d5" ) ) ) );
+        assertFalse( StaticExchange.isLosing( board, Move.of( board.getSquare( "b2" ), board.getSquare( "b4" ) ) ) );
+    }
+
+    @Test
+    void promotion_gainsPromotedPiece()
+    {
+        Board board = Fen.toBoard( "4k3/1P6/8/8/8/8/8/4K3 w - - 0 1", new Player( Colour.WHITE ), new Player( Colour.BLACK ) );
+
+        assertEquals( 8, StaticExchange.evaluate( board, Move.of( board.getSquare( "b7" ).getIndex(), board.getSquare( "b8" ).getIndex(), Typ.QUEEN ) ) );
+    }
+}
@@ -0,0 +1,93 @@
+package test.java.board;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+
+import org.junit.jupiter.api.Test;
+
+import main.java.board.Board;
+import main.java.board.Board.Undo;
+import main.java.board.Fen;
+import main.java.board.Move;
+import main.java.player.Player;
+import main.java.player.Player.Colour;
+
+class ZobristTest
+{
+    private static Board newBoard( String fen )
+    {
+        return Fen.toBoard( fen, new Player( Colour.WHITE ), new Player( Colour.BLACK ) );
+    }
+
+    private static long getKey( String fen )
+    {
+        return newBoard( fen ).getZobristKey();
+    }
+
+    private static void makeMove( Board board, String... ucis )
+    {
+        for ( String uci : ucis )
+            board.makeMove( Move.of( board.getSquare( uci.substring( 0, 2 ) ), board.getSquare( uci.substring( 2, 4 ) ) ) );
+    }
+
+    @Test
+    void transposition_sameKey()
+    {
+        Board board1 = newBoard( Fen.START_POSITION );
+        Board board2 = newBoard( Fen.START_POSITION );
+
+        makeMove( board1, "g1f3", "g8f6", "b1c3", "b8c6" );
+        makeMove( board2, "b1c3", "b8c6", "g1f3", "g8f6" );
+
+        assertEquals( board1.getZobristKey(), board2.getZobristKey() );
+        assertEquals( getKey( "r1bqkb1r/pppppppp/2n2n2/8/8/2N2N2/PPPPPPPP/R1BQKB1R w KQkq - 4 3" ), board1.getZobristKey() );
+    }
+
+    @Test
+    void unmakeMove_restoresKey()
+    {
+        Board board = newBoard( "r3k2r/p1ppqpb1/bn2pnp1/3PN3/1p2P3/2N2Q1p/PPPBBPPP/R3K2R w KQkq - 0 1" );
+        long key = board.getZobristKey();
+
+        Undo castle = board.makeMove( Move.of( board.getSquare( "e1" ), board.getSquare( "g1" ) ) );
+        Undo capture = board.makeMove( Move.of( board.getSquare( "h3" ), board.getSquare( "g2" ) ) );
+
+        board.unmakeMove( capture );
+        board.unmakeMove( castle );
+
+        assertEquals( key, board.getZobristKey() );
+    }
+
+    @Test
+    void castlingRights_changeKey()
+    {
+        Board board = newBoard( "r3k2r/8/8/8/8/8/8/R3K2R w KQkq - 0 1" );
+
+        makeMove( board, "h1h2", "h8h7", "h2h1", "h7h8" );
+
+        assertNotEquals( getKey( "r3k2r/8/8/8/8/8/8/R3K2R w KQkq - 0 1" ), board.getZobristKey() );
+        assertEquals( getKey( "r3k2r/8/8/8/8/8/8/R3K2R w Qq - 4 3" ), board.getZobristKey() );
+    }
+
+    @Test
+    void activeColour_changesKey()
+    {
+        assertNotEquals( getKey( "4k3/8/8/8/8/8/8/4K3 w - - 0 1" ), getKey( "4k3/8/8/8/8/8/8/4K3 b - - 0 1" ) );
+    }
+
+    @Test
+    void enPassant_onlyIncludedIfCapturePossible()
+    {
+        Board board = newBoard( Fen.START_POSITION );
+        makeMove( board, "e2e4" );
+
+        // No black pawn stands beside the e4 pawn
+        assertEquals( getKey( "rnbqkbnr/pppppppp/8/8/4P3/8/PPPP1PPP/RNBQKBNR b KQkq - 0 1" ), board.getZobristKey() );
+
+        makeMove( board, "d7d5", "e4e5", "f7f5" );
+
+        // The e5 pawn can capture the f5 pawn en passant
+        assertNotEquals( getKey( "rnbqkbnr/ppp1p1pp/8/3pPp2/8/8/PPPP1PPP/RNBQKBNR w KQkq - 0 3" ), board.getZobristKey() );
+        assertEquals( getKey( "rnbqkbnr/ppp1p1pp/8/3pPp2/8/8/PPPP1PPP/RNBQKBNR w KQkq f6 0 3" ), board.getZobristKey() );
+    }
+}
@@ -0,0 +1,88 @@
+package test.java.engine;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.junit.jupiter.api.Test;
+
+import main.java.board.Board;
+import main.java.board.Board.Undo;
+import main.java.board.Fen;
+import main.java.board.Move;
+import main.java.board.MoveGenerator;
+import main.java.engine.Evaluation;
+import main.java.player.Player;
+import main.java.player.Player.Colour;
+
+class EvaluationTest
+{
+    private final Player white = new Player( Colour.WHITE );
+    private final Player black = new Player( Colour.BLACK );
+
+    private Board toBoard( String fen )
+    {
+        return Fen.toBoard( fen, white, black );
+    }
+
+    @Test
+    void startPosition_zero()
+    {
+        Board board = toBoard( Fen.START_POSITION );
+
+        assertEquals( 0, Evaluation.evaluate( board ) );
+        assertEquals( 0, board.getMaterialDifference() );
+        assertEquals( Board.MAX_PHASE, board.getPhase() );
+    }
+
+    @Test
+    void mirroredPosition_sameScoreForPlayerToMove()
+    {
+        Board board = toBoard( "r3k2r/p1ppqpb1/bn2pnp1/3PN3/1p2P3/2N2Q1p/PPPBBPPP/R3K2R w KQkq - 0 1" );
+        Board mirrored = toBoard( "r3k2r/pppbbppp/2n2q1P/1P2p3/3pn3/BN2PNP1/P1PPQPB1/R3K2R b KQkq - 0 1" );
+
+        assertEquals( Evaluation.evaluate( board ), Evaluation.evaluate( mirrored ) );
+    }
+
+    @Test
+    void extraQueen_winning()
+    {
+        Board board = toBoard( "4k3/8/8/8/8/8/8/3QK3 w - - 0 1" );
+
+        assertEquals( 9, board.getMaterialDifference() );
+        assertTrue( Evaluation.evaluate( board ) > 800 );
+        assertEquals( 4, board.getPhase() );
+    }
+
+    @Test
+    void makeAndUnmakeMoves_matchesFreshBoard()
+    {
+        // Captures, castling, en passant and promotions are all possible two plies deep
+        Board board = toBoard( "r3k2r/Pppp1ppp/1b3nbN/nP6/BBP1P3/q4N2/Pp1P2PP/R2Q1RK1 w kq - 0 1" );
+        int[] moves = new int[ MoveGenerator.MAX_MOVES ];
+        int[] replies = new int[ MoveGenerator.MAX_MOVES ];
+
+        int score = Evaluation.evaluate( board );
+        int n = MoveGenerator.generateLegalMoves( board, moves );
+
+        for ( int i = 0; i < n; i++ )
+        {
+            Undo undo = board.makeMove( moves[ i ] );
+            int m = MoveGenerator.generateLegalMoves( board, replies );
+
+            for ( int j = 0; j < m; j++ )
+            {
+                Undo reply = board.makeMove( replies[ j ] );
+                Board fresh = toBoard( Fen.toString( board ) );
+
+                assertEquals( Evaluation.evaluate( fresh ), Evaluation.evaluate( board ), Fen.toString( board ) );
+                assertEquals( fresh.getMaterialDifference(), board.getMaterialDifference() );
+
+                board.unmakeMove( reply );
+            }
+
+            board.unmakeMove( undo );
+        }
+
+        assertEquals( score, Evaluation.evaluate( board ) );
+    }
+}
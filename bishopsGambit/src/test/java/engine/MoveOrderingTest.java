@@ -0,0 +1,73 @@
+package test.java.engine;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import org.junit.jupiter.api.Test;
+
+import main.java.board.Board;
+import main.java.board.Fen;
+import main.java.board.Move;
+import main.java.board.MoveGenerator;
+import main.java.engine.MoveOrdering;
+import main.java.engine.MoveOrdering.Heuristic;
+import main.java.player.Player;
+import main.java.player.Player.Colour;
+
+class MoveOrderingTest
+{
+    private final MoveOrdering ordering = new MoveOrdering();
+
+    private final int[] moves = new int[ MoveGenerator.MAX_MOVES ];
+
+    private int n;
+
+    private Board board( String fen )
+    {
+        Board board = Fen.toBoard( fen, new Player( Colour.WHITE ), new Player( Colour.BLACK ) );
+        n = MoveGenerator.generateLegalMoves( board, moves );
+        return board;
+    }
+
+    private String first( int count )
+    {
+        StringBuilder sb = new StringBuilder();
+
+        for ( int i = 0; i < count; i++ )
+            sb.append( i == 0 ? "" : " " ).append( Move.toString( ordering.next( moves, i, n, 0 ) ) );
+
+        return sb.toString();
+    }
+
+    @Test
+    void captures_mostValuableVictimLeastValuableAttacker()
+    {
+        // The queen on d5 can be taken by the pawn or the rook; the knight on h5 by the rook
+        Board board = board( "4k3/8/8/3q3n/2P5/8/8/3RK2R w - - 0 1" );
+        ordering.score( board, moves, n, 0, Move.NONE );
+
+        assertEquals( "c4d5 d1d5 h1h5", first( 3 ) );
+    }
+
+    @Test
+    void tableMove_first()
+    {
+        Board board = board( "4k3/8/8/3q3n/2P5/8/8/3RK2R w - - 0 1" );
+        int tableMove = Move.of( board.getSquare( "e1" ), board.getSquare( "f2" ) );
+        ordering.score( board, moves, n, 0, tableMove );
+
+        assertEquals( "e1f2 c4d5", first( 2 ) );
+    }
+
+    @Test
+    void killerMove_beforeOtherQuietMoves()
+    {
+        Board board = board( "4k3/8/8/8/8/8/8/R3K3 w - - 0 1" );
+        int killer = Move.of( board.getSquare( "a1" ), board.getSquare( "a7" ) );
+
+        ordering.cutoff( board, killer, 3, 0 );
+        ordering.setEnabled( Heuristic.HISTORY, false );
+        ordering.score( board, moves, n, 0, Move.NONE );
+
+        assertEquals( "a1a7", first( 1 ) );
+    }
+}
@@ -0,0 +1,153 @@
+package test.java.engine;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static test.java.Assertions.assertThrowsWithMessage;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+import main.java.board.Board;
+import main.java.board.Fen;
+import main.java.board.Move;
+import main.java.engine.PolyglotBook;
+import main.java.player.Player;
+import main.java.player.Player.Colour;
+
+class PolyglotBookTest
+{
+    private static final long KEY = 0x8000_0000_0000_1234L;
+
+    private static Board board( String fen )
+    {
+        return Fen.toBoard( fen, new Player( Colour.WHITE ), new Player( Colour.BLACK ) );
+    }
+
+    /**
+     * Returns a move in Polyglot's encoding, from squares given in coordinates such as "e2".
+     */
+    private static int polyglotMove( String from, String to, int promotion )
+    {
+        return (to.charAt( 0 ) - 'a') | (to.charAt( 1 ) - '1') << 3 |
+               (from.charAt( 0 ) - 'a') << 6 | (from.charAt( 1 ) - '1') << 9 |
+               promotion << 12;
+    }
+
+    /**
+     * Writes a book with the given entries, each given as a key, a move and a weight, in order.
+     */
+    private static PolyglotBook book( long... entries ) throws IOException
+    {
+        ByteBuffer buffer = ByteBuffer.allocate( entries.length / 3 * 16 );
+
+        for ( int i = 0; i < entries.length; i += 3 )
+            buffer.putLong( entries[ i ] ).putShort( (short) entries[ i + 1 ] ).putShort( (short) entries[ i + 2 ] ).putInt( 0 );
+
+        Path path = Files.createTempFile( "book", ".bin" );
+        path.toFile().deleteOnExit();
+        Files.write( path, buffer.array() );
+
+        return new PolyglotBook( path );
+    }
+
+    @Test
+    void bestMove_greatestWeight() throws IOException
+    {
+        Board board = board( Fen.START_POSITION );
+
+        PolyglotBook book = book( 0x10, polyglotMove( "a2", "a3", 0 ), 1,
+                                  KEY, polyglotMove( "d2", "d4", 0 ), 20,
+                                  KEY, polyglotMove( "e2", "e4", 0 ), 30,
+                                  KEY, polyglotMove( "g1", "f3", 0 ), 10,
+                                  KEY + 1, polyglotMove( "h2", "h3", 0 ), 50 );
+
+        assertEquals( 5, book.size() );
+        assertEquals( "e2e4", Move.toString( book.getBestMove( KEY, board ) ) );
+        assertEquals( "a2a3", Move.toString( book.getBestMove( 0x10, board ) ) );
+        assertEquals( Move.NONE, book.getBestMove( 0x11, board ) );
+    }
+
+    @Test
+    void weightedMove_inProportionToWeight() throws IOException
+    {
+        Board board = board( Fen.START_POSITION );
+
+        PolyglotBook book = book( KEY, polyglotMove( "d2", "d4", 0 ), 1,
+                                  KEY, polyglotMove( "e2", "e4", 0 ), 3,
+                                  KEY, polyglotMove( "g1", "f3", 0 ), 0 );
+
+        Random random = new Random( 0 );
+        int e4 = 0;
+
+        for ( int i = 0; i < 4000; i++ )
+        {
+            String move = Move.toString( book.getWeightedMove( KEY, board, random ) );
+
+            if ( move.equals( "e2e4" ) )
+                e4++;
+            else
+                assertEquals( "d2d4", move );
+        }
+
+        assertTrue( Math.abs( e4 - 3000 ) < 150, "e2e4 chosen " + e4 + " times out of 4000." );
+    }
+
+    @Test
+    void castling_kingTakesRook() throws IOException
+    {
+        Board board = board( "r3k2r/8/8/8/8/8/8/R3K2R w KQkq - 0 1" );
+
+        assertEquals( "e1g1", Move.toString( book( KEY, polyglotMove( "e1", "h1", 0 ), 1 ).getBestMove( KEY, board ) ) );
+        assertEquals( "e1c1", Move.toString( book( KEY, polyglotMove( "e1", "a1", 0 ), 1 ).getBestMove( KEY, board ) ) );
+    }
+
+    @Test
+    void promotion() throws IOException
+    {
+        Board board = board( "8/1P5k/8/8/8/8/8/K7 w - - 0 1" );
+
+        assertEquals( "b7b8n", Move.toString( book( KEY, polyglotMove( "b7", "b8", 1 ), 1 ).getBestMove( KEY, board ) ) );
+    }
+
+    @Test
+    void illegalMove_ignored() throws IOException
+    {
+        Board board = board( Fen.START_POSITION );
+
+        PolyglotBook book = book( KEY, polyglotMove( "e2", "e5", 0 ), 100,
+                                  KEY, polyglotMove( "c2", "c4", 0 ), 1 );
+
+        assertEquals( "c2c4", Move.toString( book.getBestMove( KEY, board ) ) );
+    }
+
+    @Test
+    void key_publishedValues() throws IOException
+    {
+        Board board = board( Fen.START_POSITION );
+        assertEquals( 0x463B96181691FC9CL, PolyglotBook.getKey( board ) );
+
+        board.makeMove( Move.of( board.getSquare( "e2" ), board.getSquare( "e4" ) ) );
+        assertEquals( 0x823C9B50FD114196L, PolyglotBook.getKey( board ) );
+
+        // With a pawn beside the one that has just advanced two squares, the en passant file counts
+        assertEquals( 0x22A48B5A8E47FF78L, PolyglotBook.getKey( board( "rnbqkbnr/ppp1p1pp/8/3pPp2/8/8/PPPP1PPP/RNBQKBNR w KQkq f6 0 3" ) ) );
+
+        PolyglotBook book = book( 0x823C9B50FD114196L, polyglotMove( "c7", "c5", 0 ), 1 );
+        assertEquals( "c7c5", Move.toString( book.getBestMove( board ) ) );
+    }
+
+    @Test
+    void notABook() throws IOException
+    {
+        Path path = Files.createTempFile( "book", ".bin" );
+        path.toFile().deleteOnExit();
+        Files.write( path, new byte[ 15 ] );
+
+        assertThrowsWithMessage( IOException.class, () -> new PolyglotBook( path ), "Not a Polyglot book: " + path + "." );
+    }
+}
@@ -0,0 +1,186 @@
+package test.java.engine;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.junit.jupiter.api.Test;
+
+import main.java.board.Board;
+import main.java.board.Fen;
+import main.java.board.Move;
+import main.java.engine.Engine;
+import main.java.engine.Limits;
+import main.java.engine.Search;
+import main.java.engine.Search.Result;
+import main.java.player.Player;
+import main.java.player.Player.Colour;
+
+class SearchTest
+{
+    private static Result search( String fen, int depth )
+    {
+        Board board = Fen.toBoard( fen, new Player( Colour.WHITE ), new Player( Colour.BLACK ) );
+
+        Limits limits = new Limits();
+        limits.setDepth( depth );
+
+        return new Search( board, limits ).run();
+    }
+
+    @Test
+    void mateInOne_backRank()
+    {
+        Result result = search( "6k1/5ppp/8/8/8/8/8/R5K1 w - - 0 1", 4 );
+
+        assertEquals( "a1a8", Move.toString( result.getBestMove() ) );
+        assertEquals( Search.MATE - 1, result.getScore() );
+        assertTrue( result.isMate() );
+    }
+
+    @Test
+    void mateInTwo()
+    {
+        // 1. Rd8+ Rxd8 2. Rxd8#
+        Result result = search( "r5k1/5ppp/8/8/8/8/3R1PPP/3R2K1 w - - 0 1", 4 );
+
+        assertEquals( Search.MATE - 3, result.getScore() );
+    }
+
+    @Test
+    void winsHangingQueen()
+    {
+        Result result = search( "4k3/8/8/3q4/8/8/3R4/4K3 w - - 0 1", 3 );
+
+        assertEquals( "d2d5", Move.toString( result.getBestMove() ) );
+    }
+
+    @Test
+    void stalemate_noBestMove()
+    {
+        Result result = search( "7k/5Q2/6K1/8/8/8/8/8 b - - 0 1", 3 );
+
+        assertEquals( Move.NONE, result.getBestMove() );
+        assertEquals( 0, result.getScore() );
+    }
+
+    @Test
+    void nodeLimit_stopsSearch()
+    {
+        Board board = Fen.toBoard( Fen.START_POSITION, new Player( Colour.WHITE ), new Player( Colour.BLACK ) );
+
+        Limits limits = new Limits();
+        limits.setNodes( 5000 );
+
+        Result result = new Search( board, limits ).run();
+
+        assertTrue( result.getNodes() < 5000 + 1024 );
+        assertTrue( result.getBestMove() != Move.NONE );
+    }
+
+    @Test
+    void parallelSearch_sameMate()
+    {
+        Board board = Fen.toBoard( "r5k1/5ppp/8/8/8/8/3R1PPP/3R2K1 w - - 0 1", new Player( Colour.WHITE ), new Player( Colour.BLACK ) );
+
+        Limits limits = new Limits();
+        limits.setDepth( 4 );
+
+        Engine engine = new Engine();
+        engine.setThreads( 4 );
+
+        Result result = engine.search( board, limits );
+
+        assertEquals( Search.MATE - 3, result.getScore() );
+    }
+
+    @Test
+    void ponder_ignoresTimeLimit()
+    {
+        Board board = Fen.toBoard( Fen.START_POSITION, new Player( Colour.WHITE ), new Player( Colour.BLACK ) );
+
+        Limits limits = new Limits();
+        limits.setDepth( 5 );
+        limits.setTime( 1 );
+        limits.setPonder( true );
+
+        assertEquals( 5, new Search( board, limits ).run().getDepth() );
+    }
+
+    @Test
+    void ponderHit_appliesTimeLimit()
+    {
+        Board board = Fen.toBoard( Fen.START_POSITION, new Player( Colour.WHITE ), new Player( Colour.BLACK ) );
+
+        Limits limits = new Limits();
+        limits.setTime( 1 );
+        limits.setPonder( true );
+
+        Search search = new Search( board, limits );
+        search.ponderHit();
+
+        assertTrue( search.run().getDepth() < Search.MAX_PLY );
+    }
+
+    @Test
+    void multiPv_distinctLinesBestFirst()
+    {
+        Board board = Fen.toBoard( "6k1/5ppp/8/8/8/8/8/R5K1 w - - 0 1", new Player( Colour.WHITE ), new Player( Colour.BLACK ) );
+
+        Limits limits = new Limits();
+        limits.setDepth( 3 );
+
+        Search search = new Search( board, limits );
+        search.setMultiPv( 3 );
+
+        Result result = search.run();
+        Result[] lines = search.getLines();
+
+        assertEquals( "a1a8", Move.toString( result.getBestMove() ) );
+        assertEquals( 3, lines.length );
+
+        for ( int i = 0; i < lines.length; i++ )
+        {
+            assertEquals( i + 1, lines[ i ].getLine() );
+
+            for ( int j = 0; j < i; j++ )
+            {
+                assertTrue( lines[ j ].getBestMove() != lines[ i ].getBestMove() );
+                assertTrue( lines[ j ].getScore() >= lines[ i ].getScore() );
+            }
+        }
+    }
+
+    @Test
+    void stoppedBeforeFirstIteration_lineStillReported()
+    {
+        Board board = Fen.toBoard( Fen.START_POSITION, new Player( Colour.WHITE ), new Player( Colour.BLACK ) );
+
+        Search search = new Search( board, new Limits() );
+        search.setMultiPv( 2 );
+        search.stop();
+
+        Result result = search.run();
+
+        // No iteration completed, so the move played stands in for the lines
+        assertEquals( 1, search.getLines().length );
+        assertEquals( result.getBestMove(), search.getLines()[ 0 ].getBestMove() );
+        assertTrue( result.getBestMove() != Move.NONE );
+    }
+
+    @Test
+    void multiPv_noMoreLinesThanMoves()
+    {
+        // Black's king has one legal move
+        Board board = Fen.toBoard( "k7/8/8/8/8/8/8/1R5K b - - 0 1", new Player( Colour.WHITE ), new Player( Colour.BLACK ) );
+
+        Limits limits = new Limits();
+        limits.setDepth( 3 );
+
+        Search search = new Search( board, limits );
+        search.setMultiPv( 5 );
+        search.run();
+
+        assertEquals( 1, search.getLines().length );
+        assertEquals( "a8a7", Move.toString( search.getLines()[ 0 ].getBestMove() ) );
+    }
+}
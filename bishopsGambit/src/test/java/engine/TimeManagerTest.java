@@ -0,0 +1,86 @@
+package test.java.engine;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.junit.jupiter.api.Test;
+
+import main.java.board.Board;
+import main.java.board.Fen;
+import main.java.engine.Limits;
+import main.java.engine.Search;
+import main.java.engine.TimeManager;
+import main.java.player.Player;
+import main.java.player.Player.Colour;
+
+class TimeManagerTest
+{
+    @Test
+    void suddenDeath()
+    {
+        TimeManager timeManager = new TimeManager( 60_000, 0, 0 );
+
+        assertEquals( 2_000, timeManager.getSoftLimit() );
+        assertEquals( 8_000, timeManager.getHardLimit() );
+    }
+
+    @Test
+    void lastMoveBeforeTimeControl_keepsMargin()
+    {
+        TimeManager timeManager = new TimeManager( 10_000, 0, 1 );
+
+        assertTrue( timeManager.getHardLimit() <= 10_000 - TimeManager.MOVE_OVERHEAD );
+    }
+
+    @Test
+    void incrementOnly_neverFlags()
+    {
+        // The increment is added after the move, so it cannot be spent before it arrives
+        for ( long time : new long[] { 0, 1, 10, 50, 100, 500, 1_000 } )
+        {
+            TimeManager timeManager = new TimeManager( time, 1_000, 0 );
+
+            assertTrue( timeManager.getHardLimit() < Math.max( time, 2 ), "Hard limit " + timeManager.getHardLimit() + " with " + time + " left." );
+            assertTrue( timeManager.getSoftLimit() <= timeManager.getHardLimit() );
+        }
+    }
+
+    @Test
+    void stableBestMove_stopsEarly()
+    {
+        TimeManager timeManager = new TimeManager( 60_000, 0, 0 );
+        long elapsed = timeManager.getSoftLimit() * 3 / 4;
+
+        assertFalse( timeManager.shouldStop( 1, 0, elapsed ) );
+        assertFalse( timeManager.shouldStop( 1, 0, elapsed ) );
+        assertFalse( timeManager.shouldStop( 1, 0, elapsed ) );
+        assertTrue( timeManager.shouldStop( 1, 0, elapsed ) );
+    }
+
+    @Test
+    void scoreDrop_extends()
+    {
+        TimeManager timeManager = new TimeManager( 60_000, 0, 0 );
+        long elapsed = timeManager.getSoftLimit() * 3 / 2;
+
+        assertTrue( timeManager.shouldStop( 1, 0, elapsed ) );
+        assertFalse( timeManager.shouldStop( 1, -50, elapsed ) );
+        assertTrue( timeManager.shouldStop( 1, -50, elapsed ) );
+    }
+
+    @Test
+    void search_withinHardLimit()
+    {
+        Board board = Fen.toBoard( Fen.START_POSITION, new Player( Colour.WHITE ), new Player( Colour.BLACK ) );
+
+        Limits limits = new Limits();
+        limits.setClock( 2_000, 0, 0 );
+
+        long hardLimit = new TimeManager( 2_000, 0, 0 ).getHardLimit();
+        long time = new Search( board, limits ).run().getTime();
+
+        // Allowing for the nodes searched between checks of the clock
+        assertTrue( time <= hardLimit + 100, "Searched for " + time + " ms with a hard limit of " + hardLimit + " ms." );
+    }
+}
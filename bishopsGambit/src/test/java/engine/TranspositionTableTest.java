@@ -0,0 +1,105 @@
+package test.java.engine;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.junit.jupiter.api.Test;
+
+import main.java.board.Board;
+import main.java.board.Fen;
+import main.java.board.Move;
+import main.java.engine.Limits;
+import main.java.engine.Search;
+import main.java.engine.Search.Result;
+import main.java.engine.TranspositionTable;
+import main.java.pieces.Piece.Typ;
+import main.java.player.Player;
+import main.java.player.Player.Colour;
+
+class TranspositionTableTest
+{
+    private final TranspositionTable table = new TranspositionTable( 1 );
+
+    @Test
+    void store_probeReturnsFields()
+    {
+        int move = Move.of( 52, 55, Typ.QUEEN );
+        table.store( 0x123456789ABCDEFL, move, -250, 7, TranspositionTable.LOWER );
+
+        long entry = table.probe( 0x123456789ABCDEFL );
+
+        assertEquals( move, TranspositionTable.getMove( entry ) );
+        assertEquals( -250, TranspositionTable.getScore( entry ) );
+        assertEquals( 7, TranspositionTable.getDepth( entry ) );
+        assertEquals( TranspositionTable.LOWER, TranspositionTable.getBound( entry ) );
+    }
+
+    @Test
+    void probe_missingKey_returnsZero()
+    {
+        table.store( 42, Move.NONE, 0, 1, TranspositionTable.EXACT );
+
+        assertEquals( 0, table.probe( 43 ) );
+        assertEquals( 0.0, table.getHitRate() );
+    }
+
+    @Test
+    void store_sameKeyWithoutMove_keepsMove()
+    {
+        int move = Move.of( 8, 16 );
+        table.store( 99, move, 10, 3, TranspositionTable.EXACT );
+        table.store( 99, Move.NONE, -10, 4, TranspositionTable.UPPER );
+
+        long entry = table.probe( 99 );
+
+        assertEquals( move, TranspositionTable.getMove( entry ) );
+        assertEquals( 4, TranspositionTable.getDepth( entry ) );
+    }
+
+    @Test
+    void store_fullBucket_replacesOldestShallowest()
+    {
+        // Keys that differ only above the bucket bits share a bucket
+        long stride = 1L << 60;
+
+        for ( int i = 0; i < 4; i++ )
+            table.store( i * stride, Move.NONE, 0, 10 + i, TranspositionTable.EXACT );
+
+        table.newSearch();
+        table.store( 4 * stride, Move.NONE, 0, 1, TranspositionTable.EXACT );
+
+        assertEquals( 0, table.probe( 0 ) );
+        assertEquals( 1, TranspositionTable.getDepth( table.probe( 4 * stride ) ) );
+
+        for ( int i = 1; i < 4; i++ )
+            assertEquals( 10 + i, TranspositionTable.getDepth( table.probe( i * stride ) ) );
+    }
+
+    @Test
+    void mateScores_relativeToPly()
+    {
+        int score = Search.MATE - 5;
+
+        assertEquals( Search.MATE - 2, TranspositionTable.toTable( score, 3 ) );
+        assertEquals( score, TranspositionTable.fromTable( TranspositionTable.toTable( score, 3 ), 3 ) );
+        assertEquals( -Search.MATE + 3, TranspositionTable.fromTable( TranspositionTable.toTable( -score, 3 ), 1 ) );
+        assertEquals( 150, TranspositionTable.toTable( 150, 3 ) );
+    }
+
+    @Test
+    void sharedTable_secondSearchHits()
+    {
+        Board board = Fen.toBoard( "r5k1/5ppp/8/8/8/8/3R1PPP/3R2K1 w - - 0 1", new Player( Colour.WHITE ), new Player( Colour.BLACK ) );
+
+        Limits limits = new Limits();
+        limits.setDepth( 4 );
+
+        Result first = new Search( board, limits, table ).run();
+        table.resetStatistics();
+        Result second = new Search( board, limits, table ).run();
+
+        assertEquals( first.getScore(), second.getScore() );
+        assertTrue( second.getNodes() < first.getNodes() );
+        assertTrue( table.getHitRate() > 0 );
+    }
+}
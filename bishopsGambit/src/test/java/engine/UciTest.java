@@ -0,0 +1,165 @@
+package test.java.engine;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.BufferedReader;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.io.StringReader;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+import main.java.engine.Uci;
+
+class UciTest
+{
+    /**
+     * Runs the given commands, one per line, returning the lines sent in reply. The input ends
+     * after the last command, so any search started by it runs to its limit.
+     */
+    private static List<String> run( String... commands ) throws IOException
+    {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        BufferedReader in = new BufferedReader( new StringReader( String.join( "\n", commands ) ) );
+        new Uci( in, new PrintStream( out, true ) ).run();
+
+        return out.toString().lines().toList();
+    }
+
+    /**
+     * Returns the arguments of the one bestmove sent: the best move and, if sent, "ponder" and the
+     * expected reply.
+     */
+    private static String[] getBestMove( List<String> lines )
+    {
+        List<String> bestMoves = lines.stream().filter( line -> line.startsWith( "bestmove " ) ).toList();
+
+        assertEquals( 1, bestMoves.size(), "Expected exactly one bestmove in " + lines );
+
+        return bestMoves.get( 0 ).substring( "bestmove ".length() ).split( " " );
+    }
+
+    @Test
+    void handshake() throws IOException
+    {
+        List<String> lines = run( "uci", "isready" );
+
+        assertTrue( lines.get( 0 ).startsWith( "id name " ) );
+        assertTrue( lines.contains( "uciok" ) );
+        assertEquals( "readyok", lines.get( lines.size() - 1 ) );
+    }
+
+    @Test
+    void go_fen() throws IOException
+    {
+        List<String> lines = run( "position fen 6k1/5ppp/8/8/8/8/8/R5K1 w - - 0 1", "go depth 3" );
+
+        assertEquals( "a1a8", getBestMove( lines )[ 0 ] );
+        assertTrue( lines.stream().anyMatch( line -> line.startsWith( "info depth " ) && line.contains( " score mate 1 " ) ) );
+    }
+
+    @Test
+    void go_reportsTableStatistics() throws IOException
+    {
+        List<String> lines = run( "position startpos", "go depth 4" );
+        int bestMove = lines.size() - 1;
+
+        assertTrue( lines.get( 0 ).contains( " tbhits 0 " ) );
+        assertTrue( lines.get( bestMove - 2 ).matches( "info hashfull \\d+ tbhits 0" ), lines.get( bestMove - 2 ) );
+        assertTrue( lines.get( bestMove - 1 ).matches( "info string hash hitrate \\d+\\.\\d%" ), lines.get( bestMove - 1 ) );
+    }
+
+    @Test
+    void go_startposWithMoves() throws IOException
+    {
+        // 1. e4 e5 2. Qh5 Nc6 3. Bc4 Nf6?? 4. Qxf7#
+        List<String> lines = run( "position startpos moves e2e4 e7e5 d1h5 b8c6 f1c4 g8f6", "go depth 2" );
+
+        assertEquals( "h5f7", getBestMove( lines )[ 0 ] );
+    }
+
+    @Test
+    void go_noLegalMoves() throws IOException
+    {
+        List<String> lines = run( "position fen 7k/5Q2/6K1/8/8/8/8/8 b - - 0 1", "go depth 3" );
+
+        assertEquals( "0000", getBestMove( lines )[ 0 ] );
+    }
+
+    @Test
+    void go_infiniteUntilStop() throws IOException
+    {
+        List<String> lines = run( "position startpos", "go infinite", "stop" );
+
+        assertEquals( 4, getBestMove( lines )[ 0 ].length() );
+    }
+
+    @Test
+    void go_clock() throws IOException
+    {
+        List<String> lines = run( "position startpos moves e2e4", "go wtime 1000 btime 1000 winc 10 binc 10" );
+
+        assertEquals( 4, getBestMove( lines )[ 0 ].length() );
+    }
+
+    @Test
+    void quit_stopsSearch() throws IOException
+    {
+        List<String> lines = run( "position startpos", "go infinite", "quit", "isready" );
+
+        assertEquals( 4, getBestMove( lines )[ 0 ].length() );
+        assertFalse( lines.contains( "readyok" ) );
+    }
+
+    @Test
+    void bestMove_withPonderMove() throws IOException
+    {
+        String[] bestMove = getBestMove( run( "position startpos", "go depth 3" ) );
+
+        assertEquals( 3, bestMove.length );
+        assertEquals( "ponder", bestMove[ 1 ] );
+    }
+
+    @Test
+    void ponder_heldUntilPonderHit() throws IOException
+    {
+        // The search reaches its depth limit long before ponderhit arrives
+        List<String> lines = run( "position startpos moves e2e4 e7e5", "go ponder depth 1", "isready", "ponderhit" );
+
+        assertEquals( 4, getBestMove( lines )[ 0 ].length() );
+        assertTrue( lines.indexOf( "readyok" ) < lines.indexOf( lines.stream().filter( line -> line.startsWith( "bestmove " ) ).findFirst().get() ) );
+    }
+
+    @Test
+    void ponder_clockAfterPonderHit() throws IOException
+    {
+        List<String> lines = run( "position startpos moves e2e4 e7e5", "go ponder wtime 1000 btime 1000", "ponderhit" );
+
+        assertEquals( 4, getBestMove( lines )[ 0 ].length() );
+    }
+
+    @Test
+    void ponder_stoppedOnMiss() throws IOException
+    {
+        List<String> lines = run( "position startpos moves e2e4 e7e5", "go ponder wtime 1000 btime 1000", "stop", "position startpos moves e2e4 e7e5 g1f3", "go depth 1" );
+
+        assertEquals( 2, lines.stream().filter( line -> line.startsWith( "bestmove " ) ).count() );
+    }
+
+    @Test
+    void multiPv_reportsEachLine() throws IOException
+    {
+        List<String> lines = run( "setoption name MultiPV value 3", "position startpos", "go depth 2" );
+
+        for ( int line = 1; line <= 3; line++ )
+        {
+            String multiPv = " multipv " + line + " ";
+            assertTrue( lines.stream().anyMatch( l -> l.startsWith( "info depth 2" + multiPv ) ), "No line" + multiPv + "in " + lines );
+        }
+    }
+}
@@ -738,4 +738,92 @@ class GameTest
                                  () -> makeMove( "c2c4q" ),
                                  "The promotion square (c4) must be on White's last rank." );
     }
+
+    @Test
+    void previousBoard_samePiecesAndState()
+    {
+        Piece whitePawn = getPiece( "e2" );
+        Piece blackPawn = getPiece( "d7" );
+        Piece blackKing = getPiece( "e8" );
+
+        makeMove( "e2e4", "a7a6" );
+        makeMove( "e4e5", "d7d5" );
+        makeMove( "e5d6", "e8d7" );
+
+        // After Black's double pawn move, which can be captured en passant
+        Board board = game.getBoard( 4 );
+
+        assertSameNotNull( whitePawn, board.getSquare( "e5" ).getPiece() );
+        assertSameNotNull( blackPawn, board.getSquare( "d5" ).getPiece() );
+        assertSameNotNull( blackPawn, board.getEnPassantPawn() );
+        assertEquals( Colour.WHITE, board.getActiveColour() );
+        assertTrue( board.isBlackKingsideCastlingAllowed() );
+
+        // The current board
+        assertSameNotNull( getBoard(), game.getBoard( 6 ) );
+        assertSameNotNull( blackKing, getPiece( "d7" ) );
+        assertFalse( isBlackKingsideCastlingAllowed() );
+        assertEquals( 1, getMaterialDifference() );
+    }
+
+    @Test
+    void threefoldRepetition_knightShuffle()
+    {
+        makeMove( "g1f3", "g8f6", "f3g1", "f6g8" );
+
+        // The initial position has occurred twice
+        assertEquals( Status.DEFAULT, getStatus() );
+
+        makeMove( "g1f3", "g8f6", "f3g1", "f6g8" );
+
+        assertEquals( 8, getNumberOfTurnsTaken() );
+        assertEquals( Status.THREEFOLD_REPETITION, getStatus() );
+        assertTrue( game.isGameOver() );
+        assertEquals( "Game drawn by threefold repetition.", game.getGameOverMessage() );
+    }
+
+    @Test
+    void threefoldRepetition_countResetByPawnMove()
+    {
+        makeMove( "g1f3", "g8f6", "f3g1", "f6g8" );
+        makeMove( "e2e4", "e7e5" );
+        makeMove( "g1f3", "g8f6", "f3g1", "f6g8" );
+
+        // The position after 1. e4 e5 has occurred twice, and the initial position cannot recur
+        assertEquals( Status.DEFAULT, getStatus() );
+
+        makeMove( "g1f3", "g8f6", "f3g1", "f6g8" );
+
+        assertEquals( Status.THREEFOLD_REPETITION, getStatus() );
+    }
+
+    @Test
+    void threefoldRepetition_countKeptAfterRejectedPromotion()
+    {
+        makeMove( "e2e4", "d7d5" );
+
+        // A pawn capture that is rejected is not made, so it does not reset the count
+        assertThrowsWithMessage( InvalidPromotionException.class,
+                                 () -> makeMove( "e4d5q" ),
+                                 "The promotion square (d5) must be on White's last rank." );
+
+        makeMove( "g1f3", "g8f6", "f3g1", "f6g8" );
+        makeMove( "g1f3", "g8f6", "f3g1", "f6g8" );
+
+        assertEquals( Status.THREEFOLD_REPETITION, getStatus() );
+    }
+
+    @Test
+    void fromFen_checkmateInOne()
+    {
+        game = new Game( "6k1/5ppp/8/8/8/8/8/R5K1 w - - 12 40" );
+
+        assertEquals( Status.DEFAULT, getStatus() );
+        assertEquals( Colour.WHITE, getActivePlayer().getColour() );
+
+        makeMove( "a1a8" );
+
+        assertEquals( Status.CHECKMATE, getStatus() );
+        assertEquals( "R5k1/5ppp/8/8/8/8/8/6K1 b - - 13 40", game.getFen() );
+    }
 }
@@ -0,0 +1,215 @@
+package test.java.pgn;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static test.java.Assertions.assertThrowsWithMessage;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.channels.Channels;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+
+import org.junit.jupiter.api.Test;
+
+import main.java.board.Board;
+import main.java.board.Fen;
+import main.java.board.Move;
+import main.java.board.San;
+import main.java.pgn.PgnGame;
+import main.java.pgn.PgnReader;
+import main.java.pieces.Piece.Typ;
+import main.java.player.Player;
+import main.java.player.Player.Colour;
+
+class PgnReaderTest
+{
+    private static final String RUY_LOPEZ = """
+        [Event "Casual game"]
+        [White "Morphy, Paul"]
+        [Black "Anderssen, Adolf"]
+        [Result "1-0"]
+
+        1. e4 {The king's pawn} e5 2. Nf3 Nc6 3. Bb5 a6 (3... Nf6 4. O-O {Berlin} (4. d3)) 4. Ba4
+        Nf6 5. O-O Be7 $1 6. Re1 b5 7. Bb3 d6 8. c3 O-O ; the main line
+        9. h3!? 1-0
+
+        """;
+
+    private static final String ROOKS = """
+        [Event "Rooks"]
+        [SetUp "1"]
+        [FEN "4k3/1P6/8/R7/8/8/7R/R3K3 w - - 0 1"]
+
+        1. Rhd2 Kf8 2. R1a3 Kg8 3. b8=Q+ Kh7 4. Qb1+ *
+
+        """;
+
+    private static final String EN_PASSANT = """
+        [Event "En passant"]
+
+        1.e4 Nf6 2.e5 d5 3.exd6 1/2-1/2
+
+        """;
+
+    private static PgnReader reader( String pgn )
+    {
+        return new PgnReader( Channels.newChannel( new ByteArrayInputStream( pgn.getBytes( StandardCharsets.UTF_8 ) ) ) );
+    }
+
+    private static Board board( String fen )
+    {
+        return Fen.toBoard( fen, new Player( Colour.WHITE ), new Player( Colour.BLACK ) );
+    }
+
+    @Test
+    void read_tagsMovesAndResult()
+    {
+        PgnReader reader = reader( RUY_LOPEZ + ROOKS + EN_PASSANT );
+
+        PgnGame game = reader.next();
+        assertEquals( "Morphy, Paul", game.getTag( "White" ) );
+        assertEquals( List.of( "Event", "White", "Black", "Result" ), List.copyOf( game.getTags().keySet() ) );
+        assertEquals( Fen.START_POSITION, game.getFen() );
+        assertEquals( PgnGame.WHITE_WINS, game.getResult() );
+        assertEquals( List.of( "e2e4", "e7e5", "g1f3", "b8c6", "f1b5", "a7a6", "b5a4", "g8f6", "e1g1", "f8e7",
+                               "f1e1", "b7b5", "a4b3", "d7d6", "c2c3", "e8g8", "h2h3" ),
+                      game.getUciMoves() );
+
+        game = reader.next();
+        assertEquals( "4k3/1P6/8/R7/8/8/7R/R3K3 w - - 0 1", game.getFen() );
+        assertEquals( PgnGame.UNKNOWN, game.getResult() );
+        assertEquals( List.of( "h2d2", "e8f8", "a1a3", "f8g8", "b7b8q", "g8h7", "b8b1" ), game.getUciMoves() );
+
+        game = reader.next();
+        assertEquals( PgnGame.DRAW, game.getResult() );
+        assertEquals( "e5d6", game.getUciMoves().get( 4 ) );
+
+        assertFalse( reader.hasNext() );
+        assertThrows( NoSuchElementException.class, reader::next );
+    }
+
+    @Test
+    void read_missingResult()
+    {
+        PgnReader reader = reader( "[Event \"A\"]\n1. d4 d5\n\n[Event \"B\"]\n1. c4 *\n" );
+
+        PgnGame game = reader.next();
+        assertEquals( "A", game.getTag( "Event" ) );
+        assertEquals( PgnGame.UNKNOWN, game.getResult() );
+        assertEquals( 2, game.getNumberOfMoves() );
+
+        assertEquals( "B", reader.next().getTag( "Event" ) );
+        assertFalse( reader.hasNext() );
+    }
+
+    @Test
+    void read_invalidGameSkipped()
+    {
+        Iterator<PgnGame> reader = reader( RUY_LOPEZ + "[Event \"Broken\"]\n\n1. e4 e5 2. Ke3 Nf6 1-0\n\n" + EN_PASSANT );
+
+        assertEquals( 17, reader.next().getNumberOfMoves() );
+        assertThrowsWithMessage( IllegalArgumentException.class, reader::next,
+                                 "Game 2, ply 3: SAN move 'Ke3' is not legal in this position." );
+        assertEquals( "En passant", reader.next().getTag( "Event" ) );
+        assertFalse( reader.hasNext() );
+    }
+
+    @Test
+    void read_channelAndMappedFileAgree() throws IOException
+    {
+        // Larger than the channel reader's buffer, so that tokens are split between reads
+        String pgn = (RUY_LOPEZ + ROOKS + EN_PASSANT).repeat( 200 );
+
+        Path path = Files.createTempFile( "games", ".pgn" );
+        path.toFile().deleteOnExit();
+        Files.writeString( path, pgn );
+
+        List<PgnGame> fromChannel = reader( pgn ).stream().toList();
+
+        try ( PgnReader reader = new PgnReader( path ) )
+        {
+            List<PgnGame> fromFile = reader.stream().toList();
+
+            assertEquals( 600, fromChannel.size() );
+            assertEquals( 600, fromFile.size() );
+
+            for ( int i = 0; i < fromFile.size(); i++ )
+            {
+                assertEquals( fromChannel.get( i ).getTags(), fromFile.get( i ).getTags() );
+                assertArrayEquals( fromChannel.get( i ).getMoves(), fromFile.get( i ).getMoves() );
+            }
+        }
+    }
+
+    @Test
+    void toGame_replaysMoves()
+    {
+        PgnGame game = reader( ROOKS ).next();
+
+        assertEquals( "8/7k/8/R7/8/R7/3R4/1Q2K3 b - - 2 4", game.toGame().getFen() );
+    }
+
+    @Test
+    void san_toMove()
+    {
+        Board board = board( "4k3/1P6/8/R7/8/8/7R/R3K2R w K - 0 1" );
+
+        assertEquals( Move.of( 57, 25 ), San.toMove( board, "Rhd2" ) );
+        assertEquals( Move.of( 0, 2 ), San.toMove( board, "R1a3" ) );
+        assertEquals( Move.of( 32, 48 ), San.toMove( board, "O-O" ) );
+        assertEquals( Move.of( 32, 48 ), San.toMove( board, "0-0+!" ) );
+        assertEquals( Move.of( 14, 15, Typ.KNIGHT ), San.toMove( board, "b8N" ) );
+    }
+
+    @Test
+    void san_pinnedPieceIgnored()
+    {
+        // The knight on e2 is pinned, so the one on f5 needs no disambiguation
+        Board board = board( "4r1k1/8/8/5N2/8/8/4N3/4K3 w - - 0 1" );
+
+        assertEquals( Move.of( 44, 27 ), San.toMove( board, "Nd4" ) );
+        assertThrowsWithMessage( IllegalArgumentException.class, () -> San.toMove( board, "Ned4" ), "SAN move 'Ned4' is not legal in this position." );
+
+        // Capturing en passant would expose the king to the rook along the rank
+        Board enPassant = board( "8/8/8/KPp4r/8/8/8/7k w - c6 0 1" );
+
+        assertThrowsWithMessage( IllegalArgumentException.class, () -> San.toMove( enPassant, "bxc6" ), "SAN move 'bxc6' is not legal in this position." );
+        assertEquals( Move.of( 12, 21 ), San.toMove( board( "8/8/8/1Pp4r/8/8/8/K6k w - c6 0 1" ), "bxc6" ) );
+    }
+
+    @Test
+    void san_invalid()
+    {
+        Board board = board( "4k3/1P6/8/R7/8/8/7R/R3K2R w K - 0 1" );
+
+        assertThrowsWithMessage( IllegalArgumentException.class, () -> San.toMove( board, "Ra3" ), "SAN move 'Ra3' is ambiguous." );
+        assertThrowsWithMessage( IllegalArgumentException.class, () -> San.toMove( board, "O-O-O" ), "SAN move 'O-O-O' is not legal in this position." );
+        assertThrowsWithMessage( IllegalArgumentException.class, () -> San.toMove( board, "b8" ), "SAN move 'b8' is not legal in this position." );
+        assertThrowsWithMessage( IllegalArgumentException.class, () -> San.toMove( board, "Nz9" ), "SAN move 'Nz9' must end with a valid square." );
+        assertThrowsWithMessage( IllegalArgumentException.class, () -> San.toMove( board, "R?a3" ), "SAN move 'R?a3' has an unexpected character '?'." );
+    }
+
+    @Test
+    void san_pawnCaptureNeedsFile()
+    {
+        Board board = board( "4k3/8/2p5/1PPp4/4P3/8/8/4K3 w - d6 0 1" );
+
+        // A pawn can capture on d5 or en passant on d6, but neither is a push
+        assertEquals( Move.of( 35, 28 ), San.toMove( board, "exd5" ) );
+        assertEquals( Move.of( 20, 29 ), San.toMove( board, "cxd6" ) );
+        assertThrowsWithMessage( IllegalArgumentException.class, () -> San.toMove( board, "d5" ), "SAN move 'd5' is not legal in this position." );
+        assertThrowsWithMessage( IllegalArgumentException.class, () -> San.toMove( board, "d6" ), "SAN move 'd6' is not legal in this position." );
+
+        // The pawn on b5 could capture on c6, but without a file only the push is considered
+        assertThrowsWithMessage( IllegalArgumentException.class, () -> San.toMove( board, "c6" ), "SAN move 'c6' is not legal in this position." );
+        assertEquals( Move.of( 12, 21 ), San.toMove( board, "bxc6" ) );
+        assertEquals( Move.of( 35, 36 ), San.toMove( board, "e5" ) );
+    }
+}
@@ -0,0 +1,161 @@
+package test.java.tablebase;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static test.java.Assertions.assertThrowsWithMessage;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+import main.java.board.Bitboards;
+import main.java.tablebase.Signature;
+import main.java.tablebase.Tablebase;
+import main.java.tablebase.TablebaseGenerator;
+
+class TablebaseGeneratorTest
+{
+    private static final int WHITE = 0;
+    private static final int BLACK = 1;
+
+    private static Path directory;
+    private static TablebaseGenerator generator;
+
+    @BeforeAll
+    static void setUp() throws IOException
+    {
+        directory = Files.createTempDirectory( "tablebase" );
+        directory.toFile().deleteOnExit();
+        generator = new TablebaseGenerator( directory, null );
+    }
+
+    /**
+     * Returns the value of the position with the pieces on the given squares (such as "e1"), in
+     * the order of the slots of the signature.
+     */
+    private static byte probe( String name, int turn, String... squares ) throws IOException
+    {
+        Signature signature = Signature.of( name );
+        int[] indices = new int[ squares.length ];
+
+        for ( int i = 0; i < squares.length; i++ )
+            indices[ i ] = Bitboards.getIndex( squares[ i ].charAt( 0 ) - 'a', squares[ i ].charAt( 1 ) - '1' );
+
+        return generator.getTable( signature )[ turn ][ signature.getIndex( indices ) ];
+    }
+
+    private static int getLongestMate( String name, int turn ) throws IOException
+    {
+        int longest = 0;
+
+        for ( byte value : generator.getTable( Signature.of( name ) )[ turn ] )
+            if ( value != Tablebase.INVALID )
+                longest = Math.max( longest, Tablebase.getDistance( value ) );
+
+        return longest;
+    }
+
+    @Test
+    void signature_canonical()
+    {
+        assertEquals( "KQvKR", Signature.of( "KRvKQ" ).canonical().getName() );
+        assertEquals( "KRPvK", Signature.of( "KPRvK" ).getName() );
+        assertTrue( Signature.of( "KPvKP" ).isCanonical() );
+        assertEquals( 10 * 64 * 64, Signature.of( "KQvK" ).size() );
+        assertEquals( 32 * 48 * 64, Signature.of( "KPvK" ).size() );
+    }
+
+    @Test
+    void signature_symmetricPositionsShareIndex()
+    {
+        Signature signature = Signature.of( "KRvKN" );
+        int[] squares = new int[ 4 ];
+        int[] transformed = new int[ 4 ];
+
+        for ( int index = 0; index < signature.size(); index += 97 )
+        {
+            signature.getSquares( index, squares );
+            int expected = signature.getIndex( squares );
+
+            for ( int symmetry = 0; symmetry < 8; symmetry++ )
+            {
+                // Mirror the files, mirror the ranks and flip the diagonal, in each combination
+                for ( int i = 0; i < 4; i++ )
+                {
+                    int square = squares[ i ] ^ ((symmetry & 1) == 0 ? 0 : 56) ^ ((symmetry & 2) == 0 ? 0 : 7);
+                    transformed[ i ] = (symmetry & 4) == 0 ? square : Bitboards.getIndex( Bitboards.getRank( square ), Bitboards.getFile( square ) );
+                }
+
+                assertEquals( expected, signature.getIndex( transformed ) );
+            }
+        }
+    }
+
+    @Test
+    void signature_invalid()
+    {
+        assertThrowsWithMessage( IllegalArgumentException.class, () -> Signature.of( "KQK" ), "Signature 'KQK' must be of the form K...vK...." );
+        assertThrowsWithMessage( IllegalArgumentException.class, () -> Signature.of( "KQvKX" ), "Signature 'KQvKX' has an invalid piece 'X'." );
+    }
+
+    @Test
+    void kqk_longestMate() throws IOException
+    {
+        assertEquals( 19, getLongestMate( "KQvK", WHITE ) );
+        assertEquals( 1, probe( "KQvK", WHITE, "b6", "h1", "b8" ) );
+        assertEquals( Tablebase.loss( 0 ), probe( "KQvK", BLACK, "b6", "h8", "b8" ) );
+        assertEquals( Tablebase.INVALID, probe( "KQvK", WHITE, "b6", "h8", "b8" ) );
+    }
+
+    @Test
+    void krk_longestMate() throws IOException
+    {
+        assertEquals( 31, getLongestMate( "KRvK", WHITE ) );
+    }
+
+    @Test
+    void kbk_draw() throws IOException
+    {
+        assertEquals( 0, getLongestMate( "KBvK", WHITE ) );
+        assertEquals( 0, getLongestMate( "KBvK", BLACK ) );
+    }
+
+    @Test
+    void kpk() throws IOException
+    {
+        // The king in front of its pawn on the sixth rank wins with either player to move
+        assertTrue( Tablebase.isWin( probe( "KPvK", WHITE, "d6", "d5", "d8" ) ) );
+        assertTrue( Tablebase.isLoss( probe( "KPvK", BLACK, "d6", "d5", "d8" ) ) );
+
+        // A rook's pawn is a draw with the defending king in the corner
+        assertEquals( Tablebase.DRAW, probe( "KPvK", WHITE, "h1", "a2", "a8" ) );
+
+        // The pawn is lost
+        assertEquals( Tablebase.DRAW, probe( "KPvK", BLACK, "a1", "e4", "d5" ) );
+
+        // Mirrored files give the same values
+        assertEquals( probe( "KPvK", WHITE, "c3", "c4", "g6" ), probe( "KPvK", WHITE, "f3", "f4", "b6" ) );
+    }
+
+    @Test
+    void filesWritten() throws IOException
+    {
+        generator.getTable( Signature.of( "KNvK" ) );
+
+        Path path = Tablebase.getPath( directory, Signature.of( "KNvK" ) );
+        path.toFile().deleteOnExit();
+
+        assertEquals( 16 + 2 * 10 * 64 * 64, Files.size( path ) );
+        assertEquals( 0, getLongestMate( "KNvK", BLACK ) );
+    }
+
+    @Test
+    void notCanonical()
+    {
+        assertThrowsWithMessage( IllegalArgumentException.class, () -> generator.generate( Signature.of( "KvKQ" ) ),
+                                 "Signature 'KvKQ' is not canonical; use 'KQvK'." );
+    }
+}
@@ -0,0 +1,155 @@
+package test.java.tablebase;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.stream.Stream;
+
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+import main.java.board.Board;
+import main.java.board.Fen;
+import main.java.engine.Limits;
+import main.java.engine.Search;
+import main.java.engine.Search.Result;
+import main.java.player.Player;
+import main.java.player.Player.Colour;
+import main.java.tablebase.Signature;
+import main.java.tablebase.Tablebase;
+import main.java.tablebase.TablebaseGenerator;
+
+class TablebaseTest
+{
+    private static Path directory;
+
+    @BeforeAll
+    static void setUp() throws IOException
+    {
+        directory = Files.createTempDirectory( "tablebase" );
+        directory.toFile().deleteOnExit();
+
+        TablebaseGenerator generator = new TablebaseGenerator( directory, null );
+
+        // With KQvK, KRvK, KBvK and KNvK, which it depends on
+        generator.getTable( Signature.of( "KPvK" ) );
+
+        try ( Stream<Path> files = Files.list( directory ) )
+        {
+            files.forEach( path -> path.toFile().deleteOnExit() );
+        }
+    }
+
+    private static Board board( String fen )
+    {
+        return Fen.toBoard( fen, new Player( Colour.WHITE ), new Player( Colour.BLACK ) );
+    }
+
+    @Test
+    void probe_winDrawLoss() throws IOException
+    {
+        Tablebase tablebase = new Tablebase( directory );
+
+        assertEquals( 5, tablebase.size() );
+        assertEquals( 3, tablebase.getMaxPieces() );
+
+        // Mate in one, and mated
+        assertEquals( Tablebase.win( 1 ), tablebase.probe( board( "1k6/8/1K6/8/8/8/8/7Q w - - 0 1" ) ) );
+        assertEquals( Tablebase.loss( 0 ), tablebase.probe( board( "1k5Q/8/1K6/8/8/8/8/8 b - - 0 1" ) ) );
+
+        // The king in front of its pawn on the sixth rank wins; a rook's pawn does not
+        assertTrue( Tablebase.isLoss( tablebase.probe( board( "3k4/8/3K4/3P4/8/8/8/8 b - - 0 1" ) ) ) );
+        assertEquals( Tablebase.DRAW, tablebase.probe( board( "k7/8/8/8/8/8/P7/7K w - - 0 1" ) ) );
+
+        assertEquals( Tablebase.DRAW, tablebase.probe( board( "k7/8/8/8/8/8/8/7K w - - 0 1" ) ) );
+    }
+
+    @Test
+    void probe_colourReversed() throws IOException
+    {
+        Tablebase tablebase = new Tablebase( directory );
+
+        assertEquals( Tablebase.win( 1 ), tablebase.probe( board( "7q/8/8/8/8/1k6/8/1K6 b - - 0 1" ) ) );
+        assertEquals( tablebase.probe( board( "8/8/3k4/8/3K4/3P4/8/8 w - - 0 1" ) ),
+                      tablebase.probe( board( "8/8/3p4/3k4/8/3K4/8/8 b - - 0 1" ) ) );
+    }
+
+    @Test
+    void probe_notFound() throws IOException
+    {
+        Tablebase tablebase = new Tablebase( directory );
+
+        assertEquals( Tablebase.NOT_FOUND, tablebase.probe( board( Fen.START_POSITION ) ) );
+        assertEquals( Tablebase.NOT_FOUND, tablebase.probe( board( "4k3/8/8/8/8/8/8/4K2R w K - 0 1" ) ) );
+        assertTrue( Tablebase.isWin( tablebase.probe( board( "4k3/8/8/8/8/8/8/4K2R w - - 0 1" ) ) ) );
+
+        // More pieces than any table
+        assertEquals( Tablebase.NOT_FOUND, tablebase.probe( board( "4k3/8/8/8/8/8/8/2BNK3 w - - 0 1" ) ) );
+    }
+
+    @Test
+    void probe_leastRecentlyUsedRegionDropped() throws IOException
+    {
+        Tablebase tablebase = new Tablebase( directory, 1 );
+        Board kqk = board( "1k6/8/1K6/8/8/8/8/7Q w - - 0 1" );
+        Board krk = board( "4k3/8/4K3/8/8/8/8/7R w - - 0 1" );
+
+        for ( int i = 0; i < 3; i++ )
+        {
+            assertEquals( Tablebase.win( 1 ), tablebase.probe( kqk ) );
+            assertEquals( Tablebase.win( 1 ), tablebase.probe( krk ) );
+            assertEquals( 1, tablebase.getMappedRegions() );
+        }
+    }
+
+    @Test
+    void probe_doesNotAllocate() throws IOException
+    {
+        Tablebase tablebase = new Tablebase( directory );
+        Board board = board( "8/8/3k4/8/3K4/3P4/8/8 w - - 0 1" );
+
+        com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        long id = Thread.currentThread().getId();
+
+        for ( int i = 0; i < 10_000; i++ )
+            tablebase.probe( board );
+
+        long before = threads.getThreadAllocatedBytes( id );
+
+        for ( int i = 0; i < 100_000; i++ )
+            tablebase.probe( board );
+
+        long allocated = threads.getThreadAllocatedBytes( id ) - before;
+
+        assertTrue( allocated < 10_000, "Allocated " + allocated + " bytes in 100,000 probes." );
+    }
+
+    @Test
+    void search_playsShortestMate() throws IOException
+    {
+        Tablebase tablebase = new Tablebase( directory );
+        Board board = board( "8/8/8/4k3/8/8/8/R3K3 w - - 0 1" );
+
+        Limits limits = new Limits();
+        limits.setDepth( 2 );
+
+        Search search = new Search( board, limits );
+        search.setTablebase( tablebase );
+        Result result = search.run();
+
+        byte value = tablebase.probe( board );
+        int distance = Tablebase.getDistance( value );
+
+        assertTrue( Tablebase.isWin( value ) );
+        assertTrue( result.isMate() );
+        assertEquals( Search.MATE - distance, result.getScore() );
+        assertTrue( search.getTablebaseHits() > 0 );
+
+        board.makeMove( result.getBestMove() );
+        assertEquals( Tablebase.loss( distance - 1 ), tablebase.probe( board ) );
+    }
+}